@@ -0,0 +1,41 @@
+plugins {
+    `java-gradle-plugin`
+    `maven-publish`
+}
+
+group = "io.fluxzero.tools"
+version = "0.1.0-SNAPSHOT"
+
+java {
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(17)
+    }
+}
+
+repositories {
+    mavenLocal()
+    mavenCentral()
+}
+
+dependencies {
+    // The doclet runs in the Gradle daemon through JsonDocletRunner; publish it with `mvn install` first
+    implementation("io.fluxzero.tools:json-doclet:$version")
+
+    testImplementation("org.junit.jupiter:junit-jupiter:5.10.2")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher:1.10.2")
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
+
+gradlePlugin {
+    plugins {
+        create("jsonDoclet") {
+            id = "io.fluxzero.json-doclet"
+            implementationClass = "io.fluxzero.tools.jsondoclet.gradle.JsonDocletPlugin"
+            displayName = "JSON Doclet"
+            description = "Generates JSON documentation of the main sources with cacheable, precisely declared inputs"
+        }
+    }
+}
@@ -0,0 +1 @@
+rootProject.name = "json-doclet-gradle-plugin"
@@ -0,0 +1,35 @@
+package io.fluxzero.tools.jsondoclet.gradle;
+
+import org.gradle.api.Plugin;
+import org.gradle.api.Project;
+import org.gradle.api.plugins.JavaBasePlugin;
+import org.gradle.api.plugins.JavaPlugin;
+import org.gradle.api.tasks.SourceSet;
+import org.gradle.api.tasks.SourceSetContainer;
+
+/**
+ * Registers a {@code jsonDoclet} task documenting the {@code main} source set of Java projects into
+ * {@code build/json-docs}.
+ */
+public class JsonDocletPlugin implements Plugin<Project> {
+    /**
+     * Name of the registered task.
+     */
+    public static final String TASK_NAME = "jsonDoclet";
+
+    @Override
+    public void apply(Project project) {
+        project.getPlugins().withType(JavaPlugin.class, ignored -> {
+            SourceSet main = project.getExtensions().getByType(SourceSetContainer.class)
+                    .getByName(SourceSet.MAIN_SOURCE_SET_NAME);
+            project.getTasks().register(TASK_NAME, JsonDocletTask.class, task -> {
+                task.setGroup(JavaBasePlugin.DOCUMENTATION_GROUP);
+                task.setDescription("Generates JSON documentation of the main source set.");
+                task.getSource().from(main.getAllJava());
+                task.getSourceRoots().from(main.getAllJava().getSourceDirectories());
+                task.getClasspath().from(main.getCompileClasspath());
+                task.getOutputDirectory().convention(project.getLayout().getBuildDirectory().dir("json-docs"));
+            });
+        });
+    }
+}
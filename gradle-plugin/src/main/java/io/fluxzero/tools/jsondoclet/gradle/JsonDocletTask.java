@@ -0,0 +1,261 @@
+package io.fluxzero.tools.jsondoclet.gradle;
+
+import io.fluxzero.tools.jsondoclet.JsonDocletRunner;
+import io.fluxzero.tools.jsondoclet.JsonDocletWatcher;
+import io.fluxzero.tools.jsondoclet.sink.AtomicDirectorySink;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.FileType;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.CompileClasspath;
+import org.gradle.api.tasks.IgnoreEmptyDirectories;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.SkipWhenEmpty;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.work.ChangeType;
+import org.gradle.work.FileChange;
+import org.gradle.work.InputChanges;
+
+/**
+ * Runs the JSON doclet in-process over a set of Java sources.
+ * <p>
+ * The sources (by path relative to their root), the ABI of the compile class path and every option that
+ * changes the output are declared as inputs, and the output directory as the only output. Gradle can therefore
+ * skip the task when nothing changed and restore its output from the build cache. The doclet version is
+ * tracked through the plugin's own class path. {@code emitConcurrency} and {@code writerThreads} only change
+ * how fast files are written, so they are internal and do not invalidate the cache. The output is staged and
+ * swapped in only when the run succeeds, or, with {@code continueOnError}, when the only failures are elements
+ * that could not be documented. The task still fails in that case; the output then holds every other element
+ * and lists the failures in {@code errors.json}.
+ * <p>
+ * When only sources changed since the last execution, the task runs incrementally: the changed sources and the
+ * sources of their subtypes are documented again by {@link JsonDocletWatcher} and merged into the existing
+ * output. Options producing documents that span the whole tree ({@code dedupeDocs}, {@code queryIndexes},
+ * {@code indexStatistics}, {@code typeSignatures}) rule this out, and a failed partial run falls back to
+ * documenting every source.
+ */
+@CacheableTask
+public abstract class JsonDocletTask extends DefaultTask {
+
+    public JsonDocletTask() {
+        for (Property<Boolean> flag : List.of(getPretty(), getIncludePrivate(), getDedupeDocs(),
+                getInheritedMembers(), getSourcePositions(), getTypeSignatures(), getOmitDefaults(),
+                getQueryIndexes(), getConstantExpressions(), getModuleDirectories(), getIndexStatistics(),
+                getValidate(), getContinueOnError())) {
+            flag.convention(false);
+        }
+        getEmitConcurrency().convention(0);
+        getWriterThreads().convention(0);
+    }
+
+    /**
+     * The {@code .java} files to document.
+     */
+    @InputFiles
+    @SkipWhenEmpty
+    @IgnoreEmptyDirectories
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract ConfigurableFileCollection getSource();
+
+    /**
+     * Source roots passed as {@code --source-path}; their files are tracked through {@link #getSource()}.
+     */
+    @Internal
+    public abstract ConfigurableFileCollection getSourceRoots();
+
+    @CompileClasspath
+    public abstract ConfigurableFileCollection getClasspath();
+
+    @OutputDirectory
+    public abstract DirectoryProperty getOutputDirectory();
+
+    @Input
+    public abstract Property<Boolean> getPretty();
+
+    @Input
+    public abstract Property<Boolean> getIncludePrivate();
+
+    @Input
+    public abstract Property<Boolean> getDedupeDocs();
+
+    @Input
+    public abstract Property<Boolean> getInheritedMembers();
+
+    @Input
+    public abstract Property<Boolean> getSourcePositions();
+
+    @Input
+    public abstract Property<Boolean> getTypeSignatures();
+
+    @Input
+    public abstract Property<Boolean> getOmitDefaults();
+
+    @Input
+    public abstract Property<Boolean> getQueryIndexes();
+
+    @Input
+    public abstract Property<Boolean> getConstantExpressions();
+
+    @Input
+    public abstract Property<Boolean> getModuleDirectories();
+
+    @Input
+    public abstract Property<Boolean> getIndexStatistics();
+
+    @Input
+    public abstract Property<Boolean> getValidate();
+
+    @Input
+    public abstract Property<Boolean> getContinueOnError();
+
+    /**
+     * Further doclet or javadoc options, e.g. {@code --split-members 200}.
+     */
+    @Input
+    public abstract ListProperty<String> getAdditionalOptions();
+
+    /**
+     * Writes each file as its own task with at most this many writes in flight (0 writes on the traversal thread).
+     */
+    @Internal
+    public abstract Property<Integer> getEmitConcurrency();
+
+    /**
+     * Number of write-behind threads (0 writes on the traversal thread); cannot be combined with
+     * {@link #getEmitConcurrency()}.
+     */
+    @Internal
+    public abstract Property<Integer> getWriterThreads();
+
+    @TaskAction
+    public void generate(InputChanges inputChanges) {
+        if (inputChanges.isIncremental() && regenerateChanged(inputChanges)) {
+            return;
+        }
+        List<Path> sourceFiles = getSource().getFiles().stream()
+                .filter(file -> file.getName().endsWith(".java"))
+                .map(File::toPath)
+                .sorted()
+                .toList();
+        List<String> options = options();
+        options.add("--source-path");
+        options.add(getSourceRoots().getFiles().stream().map(File::getPath)
+                .collect(Collectors.joining(File.pathSeparator)));
+        JsonDocletRunner.Result result;
+        try (AtomicDirectorySink sink = new AtomicDirectorySink(outputDirectory())) {
+            result = JsonDocletRunner.of(sourceFiles)
+                    .withOptions(options.toArray(String[]::new))
+                    .writingTo(sink)
+                    .run((path, document) -> { });
+            if (result.success() || result.partialOutput()) {
+                sink.commit();
+            }
+        } catch (IOException | UncheckedIOException e) {
+            throw new GradleException("Failed to generate JSON documentation", e);
+        }
+        if (!result.success()) {
+            result.errors().forEach(getLogger()::error);
+            if (result.partialOutput()) {
+                getLogger().error("Kept the output of all other elements; failures are listed in errors.json");
+            }
+            throw new GradleException("JSON doclet failed with " + result.errors().size() + " errors");
+        }
+    }
+
+    /**
+     * Documents the changed sources into the output of the previous execution.
+     *
+     * @return {@code false} when the options or the previous output rule out a partial run, or it failed
+     */
+    private boolean regenerateChanged(InputChanges inputChanges) {
+        List<Path> changedFiles = new ArrayList<>();
+        for (FileChange change : inputChanges.getFileChanges(getSource())) {
+            if (change.getFileType() == FileType.FILE || change.getChangeType() == ChangeType.REMOVED) {
+                changedFiles.add(change.getFile().toPath());
+            }
+        }
+        List<Path> sourceRoots = getSourceRoots().getFiles().stream().map(File::toPath).toList();
+        JsonDocletWatcher watcher;
+        try {
+            watcher = JsonDocletWatcher.create(sourceRoots, outputDirectory(), options());
+        } catch (IllegalArgumentException e) {
+            getLogger().info("Documenting all sources: {}", e.getMessage());
+            return false;
+        }
+        try (watcher) {
+            if (!watcher.load()) {
+                return false;
+            }
+            JsonDocletWatcher.Update update = watcher.regenerate(changedFiles);
+            if (!update.success()) {
+                getLogger().info("Partial regeneration failed, documenting all sources");
+                return false;
+            }
+            getLogger().lifecycle("Regenerated {} source files: {} files written, {} deleted",
+                    update.sourceFiles().size(), update.writtenFiles().size(), update.deletedFiles().size());
+            return true;
+        } catch (IOException | UncheckedIOException e) {
+            throw new GradleException("Failed to generate JSON documentation", e);
+        }
+    }
+
+    private Path outputDirectory() {
+        return getOutputDirectory().get().getAsFile().toPath();
+    }
+
+    /**
+     * Options of every run; {@code --source-path} is added by the caller.
+     */
+    private List<String> options() {
+        List<String> options = new ArrayList<>();
+        addFlag(options, getPretty(), "--pretty");
+        addFlag(options, getIncludePrivate(), "--include-private");
+        addFlag(options, getDedupeDocs(), "--dedupe-docs");
+        addFlag(options, getInheritedMembers(), "--inherited-members");
+        addFlag(options, getSourcePositions(), "--source-positions");
+        addFlag(options, getTypeSignatures(), "--type-signatures");
+        addFlag(options, getOmitDefaults(), "--omit-defaults");
+        addFlag(options, getQueryIndexes(), "--query-indexes");
+        addFlag(options, getConstantExpressions(), "--constant-expressions");
+        addFlag(options, getModuleDirectories(), "--module-directories");
+        addFlag(options, getIndexStatistics(), "--index-stats");
+        addFlag(options, getValidate(), "--validate");
+        addFlag(options, getContinueOnError(), "--continue-on-error");
+        if (getEmitConcurrency().get() > 0) {
+            options.add("--emit-concurrency");
+            options.add(getEmitConcurrency().get().toString());
+        }
+        if (getWriterThreads().get() > 0) {
+            options.add("--writer-threads");
+            options.add(getWriterThreads().get().toString());
+        }
+        options.addAll(getAdditionalOptions().get());
+        if (!getClasspath().isEmpty()) {
+            options.add("--class-path");
+            options.add(getClasspath().getAsPath());
+        }
+        return options;
+    }
+
+    private static void addFlag(List<String> options, Property<Boolean> flag, String option) {
+        if (flag.get()) {
+            options.add(option);
+        }
+    }
+}
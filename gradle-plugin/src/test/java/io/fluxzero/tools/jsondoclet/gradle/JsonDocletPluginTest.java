@@ -0,0 +1,107 @@
+package io.fluxzero.tools.jsondoclet.gradle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Runs the {@code jsonDoclet} task in a throwaway project through TestKit and checks that Gradle skips it, restores
+ * it from the build cache, runs it incrementally and keeps the partial output of a run that continues on errors.
+ */
+class JsonDocletPluginTest {
+    private static final String TASK = ":" + JsonDocletPlugin.TASK_NAME;
+
+    @TempDir
+    Path projectDir;
+
+    @BeforeEach
+    void writeProject() throws IOException {
+        Files.writeString(projectDir.resolve("settings.gradle"), "rootProject.name = 'sample'\n"
+                + "buildCache {\n    local {\n        directory = file('build-cache')\n    }\n}\n");
+        Files.writeString(projectDir.resolve("build.gradle"), "plugins {\n    id 'java'\n"
+                + "    id 'io.fluxzero.json-doclet'\n}\n");
+        writeSource("com/example/Greeter.java", "package com.example;\n\n/** Greets people. */\n"
+                + "public class Greeter {\n    /** Returns a greeting. */\n"
+                + "    public String greet(String name) {\n        return \"Hello \" + name;\n    }\n}\n");
+    }
+
+    @Test
+    void isUpToDateWhenNothingChangedAndRestoredFromTheBuildCache() throws IOException {
+        assertEquals(TaskOutcome.SUCCESS, run().task(TASK).getOutcome());
+        Path greeter = projectDir.resolve("build/json-docs/com/example/Greeter.json");
+        String generated = Files.readString(greeter);
+
+        assertEquals(TaskOutcome.UP_TO_DATE, run().task(TASK).getOutcome());
+
+        assertEquals(TaskOutcome.SUCCESS, runner("clean").build().task(":clean").getOutcome());
+        assertEquals(TaskOutcome.FROM_CACHE, run().task(TASK).getOutcome());
+        assertEquals(generated, Files.readString(greeter));
+    }
+
+    @Test
+    void regeneratesOnlyTheChangedSources() throws IOException {
+        Path farewell = writeSource("com/example/Farewell.java",
+                "package com.example;\n\n/** Says goodbye. */\npublic class Farewell {\n}\n");
+        assertEquals(TaskOutcome.SUCCESS, run().task(TASK).getOutcome());
+
+        writeSource("com/example/Greeter.java", "package com.example;\n\n/** Greets everyone. */\n"
+                + "public class Greeter {\n}\n");
+        Files.delete(farewell);
+        BuildResult result = run();
+
+        assertEquals(TaskOutcome.SUCCESS, result.task(TASK).getOutcome());
+        assertTrue(result.getOutput().contains("Regenerated 2 source files: 2 files written, 1 deleted"),
+                result.getOutput());
+        Path output = projectDir.resolve("build/json-docs/com/example");
+        assertTrue(Files.readString(output.resolve("Greeter.json")).contains("Greets everyone."));
+        assertFalse(Files.exists(output.resolve("Farewell.json")));
+        assertFalse(Files.readString(output.resolve("index.json")).contains("Farewell"));
+    }
+
+    @Test
+    void keepsThePartialOutputWhenContinuingOnError() throws IOException {
+        Files.writeString(projectDir.resolve("build.gradle"), "\njsonDoclet {\n    continueOnError = true\n}\n",
+                StandardOpenOption.APPEND);
+        // The temporary file staged for this type's 250 character file name exceeds the file name limit
+        writeSource("com/example/Host.java", "package com.example;\n\n/** Hosts a type with a very long name. */\n"
+                + "public class Host {\n    /** Cannot be staged. */\n    public static class Unstageable"
+                + "X".repeat(229) + " {\n    }\n}\n");
+
+        BuildResult result = runner(JsonDocletPlugin.TASK_NAME).buildAndFail();
+
+        assertEquals(TaskOutcome.FAILED, result.task(TASK).getOutcome());
+        assertTrue(result.getOutput().contains("Kept the output of all other elements"), result.getOutput());
+        Path output = projectDir.resolve("build/json-docs");
+        assertTrue(Files.isRegularFile(output.resolve("com/example/Greeter.json")));
+        assertTrue(Files.isRegularFile(output.resolve("com/example/Host.json")));
+        assertTrue(Files.readString(output.resolve("errors.json")).contains("UnstageableXXX"));
+    }
+
+    private BuildResult run() {
+        return runner(JsonDocletPlugin.TASK_NAME).build();
+    }
+
+    private GradleRunner runner(String task) {
+        return GradleRunner.create()
+                .withProjectDir(projectDir.toFile())
+                .withPluginClasspath()
+                .withArguments(task, "--build-cache", "--stacktrace");
+    }
+
+    private Path writeSource(String relativePath, String content) throws IOException {
+        Path file = projectDir.resolve("src/main/java").resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content);
+    }
+}
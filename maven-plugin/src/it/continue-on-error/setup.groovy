@@ -0,0 +1,15 @@
+// The temporary file staged for this type's 250 character file name exceeds the file name limit, so documenting
+// it fails while the other types succeed
+def host = new File(basedir, 'src/main/java/com/example/Host.java')
+host.text = """package com.example;
+
+/** Hosts a type with a very long name. */
+public class Host {
+    /** Cannot be staged. */
+    public static class Unstageable${'X' * 229} {
+    }
+}
+"""
+
+// The invoker only runs the build when this script returns true
+return true
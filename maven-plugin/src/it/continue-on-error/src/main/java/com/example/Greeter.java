@@ -0,0 +1,9 @@
+package com.example;
+
+/** Greets people. */
+public class Greeter {
+    /** Returns a greeting. */
+    public String greet(String name) {
+        return "Hello " + name;
+    }
+}
@@ -0,0 +1,8 @@
+def output = new File(basedir, 'target/json-docs')
+assert new File(output, 'com/example/Greeter.json').isFile()
+assert new File(output, 'com/example/Host.json').isFile()
+assert new File(output, 'errors.json').text.contains('UnstageableXXX')
+assert !new File(basedir, 'target/json-docs.inputs').exists()
+
+def log = new File(basedir, 'build.log').text
+assert log.contains('Kept the output of all other elements')
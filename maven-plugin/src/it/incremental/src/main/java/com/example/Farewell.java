@@ -0,0 +1,5 @@
+package com.example;
+
+/** Says goodbye. */
+public class Farewell {
+}
@@ -0,0 +1,7 @@
+def output = new File(basedir, 'target/json-docs')
+assert new File(output, 'com/example/Greeter.json').text.contains('Greets everyone.')
+assert new File(output, 'com/example/Farewell.json').isFile()
+
+def log = new File(basedir, 'build.log').text
+assert log.count('Documented 2 source files') == 1
+assert log.count('Regenerated 1 source files') == 1
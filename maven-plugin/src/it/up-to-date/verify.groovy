@@ -0,0 +1,7 @@
+def output = new File(basedir, 'target/json-docs')
+assert new File(output, 'com/example/Greeter.json').isFile()
+assert new File(basedir, 'target/json-docs.inputs').isFile()
+
+def log = new File(basedir, 'build.log').text
+assert log.count('Documented 1 source files') == 1
+assert log.count('JSON documentation is up to date') == 1
@@ -0,0 +1,411 @@
+package io.fluxzero.tools.jsondoclet.maven;
+
+import io.fluxzero.tools.jsondoclet.JsonDoclet;
+import io.fluxzero.tools.jsondoclet.JsonDocletRunner;
+import io.fluxzero.tools.jsondoclet.JsonDocletWatcher;
+import io.fluxzero.tools.jsondoclet.sink.AtomicDirectorySink;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Generates the JSON documentation of the project's main sources in-process.
+ * <p>
+ * Every input that can change the output is fingerprinted: the doclet jar, the output-relevant options, the
+ * source roots and the compile class path as a whole, and each source file by its content. The fingerprint of the
+ * last successful run is stored next to the output directory, and the goal is skipped while it still matches and
+ * the output is present. When only sources changed, they and the sources of their subtypes are documented again
+ * by {@link JsonDocletWatcher} and merged into the existing output; options producing documents that span the
+ * whole tree ({@code dedupeDocs}, {@code queryIndexes}, {@code indexStatistics}, {@code typeSignatures}) rule
+ * this out, and a failed partial run falls back to documenting every source. Settings that only affect how fast
+ * the output is written ({@code emitConcurrency}, {@code writerThreads}) are left out of the fingerprint. A full
+ * run is staged and swapped in only when it succeeds, so stale files of removed types never linger. With {@code continueOnError} it is also swapped in
+ * when the only failures are elements that could not be documented; the build still fails and no fingerprint
+ * is stored, but the output keeps every other element and lists the failures in {@code errors.json}.
+ */
+@Mojo(name = "generate",
+        defaultPhase = LifecyclePhase.PREPARE_PACKAGE,
+        requiresDependencyResolution = ResolutionScope.COMPILE,
+        threadSafe = true)
+public class JsonDocletMojo extends AbstractMojo {
+    private static final String FINGERPRINT_SUFFIX = ".inputs";
+
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject project;
+
+    /**
+     * Directories searched for {@code .java} files; defaults to the project's compile source roots.
+     */
+    @Parameter
+    private List<File> sourceRoots;
+
+    @Parameter(property = "jsondoclet.outputDirectory", defaultValue = "${project.build.directory}/json-docs")
+    private File outputDirectory;
+
+    @Parameter(property = "jsondoclet.skip", defaultValue = "false")
+    private boolean skip;
+
+    @Parameter(defaultValue = "false")
+    private boolean pretty;
+
+    @Parameter(defaultValue = "false")
+    private boolean includePrivate;
+
+    @Parameter(defaultValue = "false")
+    private boolean dedupeDocs;
+
+    @Parameter(defaultValue = "false")
+    private boolean inheritedMembers;
+
+    @Parameter(defaultValue = "false")
+    private boolean sourcePositions;
+
+    @Parameter(defaultValue = "false")
+    private boolean typeSignatures;
+
+    @Parameter(defaultValue = "false")
+    private boolean omitDefaults;
+
+    @Parameter(defaultValue = "false")
+    private boolean queryIndexes;
+
+    @Parameter(defaultValue = "false")
+    private boolean constantExpressions;
+
+    @Parameter(defaultValue = "false")
+    private boolean moduleDirectories;
+
+    @Parameter(defaultValue = "false")
+    private boolean indexStatistics;
+
+    @Parameter(defaultValue = "false")
+    private boolean validate;
+
+    @Parameter(defaultValue = "false")
+    private boolean continueOnError;
+
+    /**
+     * Writes each file as its own task with at most this many writes in flight (0 writes on the traversal thread).
+     */
+    @Parameter(property = "jsondoclet.emitConcurrency", defaultValue = "0")
+    private int emitConcurrency;
+
+    /**
+     * Number of write-behind threads (0 writes on the traversal thread); cannot be combined with
+     * {@code emitConcurrency}.
+     */
+    @Parameter(property = "jsondoclet.writerThreads", defaultValue = "0")
+    private int writerThreads;
+
+    /**
+     * Further doclet or javadoc options, e.g. {@code --split-members 200}.
+     */
+    @Parameter
+    private List<String> additionalOptions;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (skip) {
+            getLog().info("Skipping JSON doclet");
+            return;
+        }
+        Path output = outputDirectory.toPath();
+        Path fingerprintFile = output.resolveSibling(output.getFileName() + FINGERPRINT_SUFFIX);
+        try {
+            List<Path> sourceFiles = sourceFiles();
+            if (sourceFiles.isEmpty()) {
+                getLog().info("No Java sources to document");
+                return;
+            }
+            List<String> options = outputOptions();
+            String fingerprint = fingerprint(options);
+            Map<String, String> sourceHashes = sourceHashes(sourceFiles);
+            Set<Path> changedSources = changedSources(output, fingerprintFile, fingerprint, sourceHashes);
+            if (changedSources != null && changedSources.isEmpty()) {
+                getLog().info("JSON documentation is up to date");
+                return;
+            }
+            Files.deleteIfExists(fingerprintFile);
+            if (changedSources != null && regenerate(output, changedSources, options)) {
+                storeFingerprint(fingerprintFile, fingerprint, sourceHashes);
+                return;
+            }
+
+            List<String> runOptions = new ArrayList<>(options);
+            runOptions.addAll(performanceOptions());
+            runOptions.add("--source-path");
+            runOptions.add(sourcePath());
+            JsonDocletRunner.Result result;
+            try (AtomicDirectorySink sink = new AtomicDirectorySink(output)) {
+                result = JsonDocletRunner.of(sourceFiles)
+                        .withOptions(runOptions.toArray(String[]::new))
+                        .writingTo(sink)
+                        .run((path, document) -> { });
+                if (result.success() || result.partialOutput()) {
+                    sink.commit();
+                }
+            }
+            if (!result.success()) {
+                result.errors().forEach(getLog()::error);
+                if (result.partialOutput()) {
+                    getLog().error("Kept the output of all other elements; failures are listed in errors.json");
+                }
+                throw new MojoFailureException("JSON doclet failed with " + result.errors().size() + " errors");
+            }
+            storeFingerprint(fingerprintFile, fingerprint, sourceHashes);
+            getLog().info("Documented " + sourceFiles.size() + " source files into " + output);
+        } catch (IOException | UncheckedIOException e) {
+            throw new MojoExecutionException("Failed to generate JSON documentation", e);
+        }
+    }
+
+    /**
+     * Returns the sources added, changed or removed since the run that stored {@code fingerprintFile}, or
+     * {@code null} when that run used other inputs or its output is gone.
+     */
+    private static Set<Path> changedSources(Path output,
+            Path fingerprintFile,
+            String fingerprint,
+            Map<String, String> sourceHashes) throws IOException {
+        if (!Files.isRegularFile(output.resolve("index.json")) || !Files.isRegularFile(fingerprintFile)) {
+            return null;
+        }
+        List<String> lines = Files.readAllLines(fingerprintFile);
+        if (lines.isEmpty() || !lines.get(0).equals(fingerprint)) {
+            return null;
+        }
+        Set<Path> changed = new HashSet<>();
+        Map<String, String> remaining = new LinkedHashMap<>(sourceHashes);
+        for (String line : lines.subList(1, lines.size())) {
+            int separator = line.indexOf(' ');
+            String file = line.substring(separator + 1);
+            if (!line.substring(0, separator).equals(remaining.remove(file))) {
+                changed.add(Path.of(file));
+            }
+        }
+        remaining.keySet().forEach(file -> changed.add(Path.of(file)));
+        return changed;
+    }
+
+    /**
+     * Documents the changed sources into the existing output.
+     *
+     * @return {@code false} when the options rule out a partial run or it failed
+     */
+    private boolean regenerate(Path output, Set<Path> changedSources, List<String> options) throws IOException {
+        List<String> runOptions = new ArrayList<>(options);
+        runOptions.addAll(performanceOptions());
+        JsonDocletWatcher watcher;
+        try {
+            watcher = JsonDocletWatcher.create(sourceRootPaths(), output, runOptions);
+        } catch (IllegalArgumentException e) {
+            getLog().debug("Documenting all sources: " + e.getMessage());
+            return false;
+        }
+        try (watcher) {
+            if (!watcher.load()) {
+                return false;
+            }
+            JsonDocletWatcher.Update update = watcher.regenerate(changedSources);
+            if (!update.success()) {
+                getLog().info("Partial regeneration failed, documenting all sources");
+                return false;
+            }
+            getLog().info("Regenerated " + update.sourceFiles().size() + " source files: "
+                    + update.writtenFiles().size() + " files written, " + update.deletedFiles().size() + " deleted");
+            return true;
+        }
+    }
+
+    private static void storeFingerprint(Path fingerprintFile, String fingerprint, Map<String, String> sourceHashes)
+            throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(fingerprint);
+        sourceHashes.forEach((file, hash) -> lines.add(hash + " " + file));
+        Files.write(fingerprintFile, lines);
+    }
+
+    private List<Path> sourceFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path root : sourceRootPaths()) {
+            if (!Files.isDirectory(root)) {
+                continue;
+            }
+            try (Stream<Path> stream = Files.walk(root)) {
+                stream.filter(path -> path.toString().endsWith(".java") && Files.isRegularFile(path))
+                        .sorted()
+                        .forEach(files::add);
+            }
+        }
+        return files;
+    }
+
+    private List<Path> sourceRootPaths() {
+        if (sourceRoots != null && !sourceRoots.isEmpty()) {
+            return sourceRoots.stream().map(File::toPath).toList();
+        }
+        return project.getCompileSourceRoots().stream().map(Path::of).toList();
+    }
+
+    private String sourcePath() {
+        return sourceRootPaths().stream().map(Path::toString).collect(Collectors.joining(File.pathSeparator));
+    }
+
+    /**
+     * Options that influence the generated files; these are part of the fingerprint together with the source path.
+     */
+    private List<String> outputOptions() throws IOException {
+        List<String> options = new ArrayList<>();
+        addFlag(options, pretty, "--pretty");
+        addFlag(options, includePrivate, "--include-private");
+        addFlag(options, dedupeDocs, "--dedupe-docs");
+        addFlag(options, inheritedMembers, "--inherited-members");
+        addFlag(options, sourcePositions, "--source-positions");
+        addFlag(options, typeSignatures, "--type-signatures");
+        addFlag(options, omitDefaults, "--omit-defaults");
+        addFlag(options, queryIndexes, "--query-indexes");
+        addFlag(options, constantExpressions, "--constant-expressions");
+        addFlag(options, moduleDirectories, "--module-directories");
+        addFlag(options, indexStatistics, "--index-stats");
+        addFlag(options, validate, "--validate");
+        addFlag(options, continueOnError, "--continue-on-error");
+        if (additionalOptions != null) {
+            options.addAll(additionalOptions);
+        }
+        List<String> classPath = classPathElements();
+        if (!classPath.isEmpty()) {
+            options.add("--class-path");
+            options.add(String.join(File.pathSeparator, classPath));
+        }
+        return options;
+    }
+
+    private List<String> performanceOptions() {
+        List<String> options = new ArrayList<>();
+        if (emitConcurrency > 0) {
+            options.add("--emit-concurrency");
+            options.add(Integer.toString(emitConcurrency));
+        }
+        if (writerThreads > 0) {
+            options.add("--writer-threads");
+            options.add(Integer.toString(writerThreads));
+        }
+        return options;
+    }
+
+    private List<String> classPathElements() throws IOException {
+        try {
+            return project.getCompileClasspathElements().stream()
+                    .filter(element -> !element.equals(project.getBuild().getOutputDirectory()))
+                    .toList();
+        } catch (DependencyResolutionRequiredException e) {
+            throw new IOException("Compile class path is not resolved", e);
+        }
+    }
+
+    private static void addFlag(List<String> options, boolean enabled, String flag) {
+        if (enabled) {
+            options.add(flag);
+        }
+    }
+
+    /**
+     * Hashes the doclet jar, the options, the source roots and every class path entry.
+     */
+    private String fingerprint(List<String> options) throws IOException {
+        MessageDigest digest = sha256();
+        update(digest, "doclet");
+        Path docletLocation = docletLocation();
+        if (docletLocation != null) {
+            hashEntry(digest, docletLocation);
+        }
+        update(digest, "options");
+        options.forEach(option -> update(digest, option));
+        update(digest, "sources");
+        update(digest, sourcePath());
+        update(digest, "classpath");
+        for (String element : classPathElements()) {
+            hashEntry(digest, Path.of(element));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Hashes the content of each source file, keyed by its absolute path.
+     */
+    private static Map<String, String> sourceHashes(List<Path> sourceFiles) throws IOException {
+        Map<String, String> hashes = new LinkedHashMap<>();
+        for (Path sourceFile : sourceFiles) {
+            hashes.put(sourceFile.toAbsolutePath().normalize().toString(),
+                    HexFormat.of().formatHex(sha256().digest(Files.readAllBytes(sourceFile))));
+        }
+        return hashes;
+    }
+
+    /**
+     * Hashes a jar by size and modification time and a directory by the same data of every file in it.
+     */
+    private static void hashEntry(MessageDigest digest, Path entry) throws IOException {
+        update(digest, entry.toAbsolutePath().toString());
+        if (Files.isDirectory(entry)) {
+            try (Stream<Path> stream = Files.walk(entry)) {
+                for (Path file : stream.filter(Files::isRegularFile).sorted().toList()) {
+                    update(digest, entry.relativize(file) + ":" + Files.size(file) + ":"
+                            + Files.getLastModifiedTime(file).toMillis());
+                }
+            }
+        } else if (Files.isRegularFile(entry)) {
+            update(digest, Files.size(entry) + ":" + Files.getLastModifiedTime(entry).toMillis());
+        }
+    }
+
+    private static Path docletLocation() {
+        CodeSource codeSource = JsonDoclet.class.getProtectionDomain().getCodeSource();
+        if (codeSource == null || codeSource.getLocation() == null) {
+            return null;
+        }
+        try {
+            return Path.of(codeSource.getLocation().toURI());
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -6,13 +6,21 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import io.fluxzero.tools.jsondoclet.config.DocletConfiguration;
 import io.fluxzero.tools.jsondoclet.core.DocGenerationTask;
+import io.fluxzero.tools.jsondoclet.core.DocumentListener;
+import io.fluxzero.tools.jsondoclet.sink.ArchiveSink;
+import io.fluxzero.tools.jsondoclet.sink.AtomicDirectorySink;
+import io.fluxzero.tools.jsondoclet.sink.DirectorySink;
+import io.fluxzero.tools.jsondoclet.sink.OutputSink;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 import javax.lang.model.SourceVersion;
@@ -26,11 +34,37 @@ import jdk.javadoc.doclet.Reporter;
  * Doclet entry point that produces JSON output instead of HTML.
  */
 public class JsonDoclet implements Doclet {
+    /**
+     * In-process sessions opened by {@link JsonDocletRunner}, keyed by the value of the {@code --session} option.
+     * The javadoc tool instantiates the doclet itself, so listeners cannot be handed over any other way.
+     */
+    private static final Map<String, Session> SESSIONS = new ConcurrentHashMap<>();
+
     private Locale locale = Locale.getDefault();
     private Reporter reporter;
     private Path outputDirectory = Paths.get("build", "json-doclet");
+    private boolean outputDirectorySet;
     private boolean prettyPrint;
     private boolean includePrivate;
+    private int writerThreads;
+    private int writeQueueCapacity = DocletConfiguration.DEFAULT_WRITE_QUEUE_CAPACITY;
+    private boolean dedupeDocumentation;
+    private boolean inheritedMembers;
+    private boolean sourcePositions;
+    private int splitMemberThreshold;
+    private long splitByteThreshold;
+    private boolean validate;
+    private boolean moduleDirectories;
+    private int emitConcurrency;
+    private boolean indexStatistics;
+    private boolean typeSignatures;
+    private boolean omitDefaults;
+    private boolean queryIndexes;
+    private boolean continueOnError;
+    private boolean constantExpressions;
+    private Path archive;
+    private boolean atomic;
+    private String sessionId;
 
     private final Set<Option> supportedOptions = new LinkedHashSet<>();
 
@@ -44,7 +78,10 @@ public class JsonDoclet implements Doclet {
                 Option.Kind.STANDARD,
                 "<directory>",
                 "Destination directory for generated JSON files",
-                args -> outputDirectory = Paths.get(args.get(0))));
+                args -> {
+                    outputDirectory = Paths.get(args.get(0));
+                    outputDirectorySet = true;
+                }));
         supportedOptions.add(new SimpleOption(
                 "--pretty",
                 0,
@@ -59,6 +96,156 @@ public class JsonDoclet implements Doclet {
                 "",
                 "Include private members in output",
                 args -> includePrivate = true));
+        supportedOptions.add(new SimpleOption(
+                "--writer-threads",
+                1,
+                Option.Kind.OTHER,
+                "<count>",
+                "Write files on <count> background threads (0 writes inline)",
+                args -> writerThreads = parseCount("--writer-threads", args.get(0), 0)));
+        supportedOptions.add(new SimpleOption(
+                "--write-queue-capacity",
+                1,
+                Option.Kind.OTHER,
+                "<count>",
+                "Maximum number of serialized files waiting for a writer thread",
+                args -> writeQueueCapacity = parseCount("--write-queue-capacity", args.get(0), 1)));
+        supportedOptions.add(new SimpleOption(
+                "--dedupe-docs",
+                0,
+                Option.Kind.OTHER,
+                "",
+                "Store documentation text once in doc-strings.json and reference it by key",
+                args -> dedupeDocumentation = true));
+        supportedOptions.add(new SimpleOption(
+                "--inherited-members",
+                0,
+                Option.Kind.OTHER,
+                "",
+                "Reference members inherited from supertypes in each type file",
+                args -> inheritedMembers = true));
+        supportedOptions.add(new SimpleOption(
+                "--source-positions",
+                0,
+                Option.Kind.OTHER,
+                "",
+                "Record source file and line range of types and members",
+                args -> sourcePositions = true));
+        supportedOptions.add(new SimpleOption(
+                "--split-members",
+                1,
+                Option.Kind.OTHER,
+                "<count>",
+                "Split types declaring more than <count> members into chunk files of <count> members (0 disables)",
+                args -> splitMemberThreshold = parseCount("--split-members", args.get(0), 0)));
+        supportedOptions.add(new SimpleOption(
+                "--split-bytes",
+                1,
+                Option.Kind.OTHER,
+                "<bytes>",
+                "Split types whose file would exceed <bytes> bytes into member chunk files (0 disables)",
+                args -> splitByteThreshold = parseByteCount("--split-bytes", args.get(0))));
+        supportedOptions.add(new SimpleOption(
+                "--validate",
+                0,
+                Option.Kind.OTHER,
+                "",
+                "Check every document against the bundled JSON schema before writing it",
+                args -> validate = true));
+        supportedOptions.add(new SimpleOption(
+                "--module-directories",
+                0,
+                Option.Kind.OTHER,
+                "",
+                "Write each named module to its own directory and document its module descriptor",
+                args -> moduleDirectories = true));
+        supportedOptions.add(new SimpleOption(
+                "--emit-concurrency",
+                1,
+                Option.Kind.OTHER,
+                "<count>",
+                "Write each file as its own task with at most <count> writes in flight, on virtual threads on JDK 21+ (0 disables)",
+                args -> emitConcurrency = parseCount("--emit-concurrency", args.get(0), 0)));
+        supportedOptions.add(new SimpleOption(
+                "--index-stats",
+                0,
+                Option.Kind.OTHER,
+                "",
+                "Add type and member counts per subtree to every index.json",
+                args -> indexStatistics = true));
+        supportedOptions.add(new SimpleOption(
+                "--type-signatures",
+                0,
+                Option.Kind.OTHER,
+                "",
+                "Add structured type signatures with links to documented types to every type file",
+                args -> typeSignatures = true));
+        supportedOptions.add(new SimpleOption(
+                "--omit-defaults",
+                0,
+                Option.Kind.OTHER,
+                "",
+                "Leave out null values and empty arrays and objects; readers restore them as defaults",
+                args -> omitDefaults = true));
+        supportedOptions.add(new SimpleOption(
+                "--query-indexes",
+                0,
+                Option.Kind.OTHER,
+                "",
+                "Write indexes of deprecated elements, @since values, annotation usages and thrown types",
+                args -> queryIndexes = true));
+        supportedOptions.add(new SimpleOption(
+                "--continue-on-error",
+                0,
+                Option.Kind.OTHER,
+                "",
+                "Keep documenting the remaining types after one fails; failures are listed in errors.json",
+                args -> continueOnError = true));
+        supportedOptions.add(new SimpleOption(
+                "--constant-expressions",
+                0,
+                Option.Kind.OTHER,
+                "",
+                "Add the source form of constants, annotation element defaults and applied annotation defaults",
+                args -> constantExpressions = true));
+        supportedOptions.add(new SimpleOption(
+                "--archive",
+                1,
+                Option.Kind.OTHER,
+                "<file>",
+                "Write all generated files into a single zip archive instead of the output directory",
+                args -> archive = Paths.get(args.get(0))));
+        supportedOptions.add(new SimpleOption(
+                "--atomic",
+                0,
+                Option.Kind.OTHER,
+                "",
+                "Write into a staging directory and replace the output directory only when the run succeeds",
+                args -> atomic = true));
+        supportedOptions.add(new SimpleOption(
+                "--session",
+                1,
+                Option.Kind.OTHER,
+                "<id>",
+                "Internal: binds the run to an in-process JsonDocletRunner session",
+                args -> sessionId = args.get(0)));
+    }
+
+    static void openSession(String id, DocumentListener listener, OutputSink sink) {
+        SESSIONS.put(id, new Session(listener, sink, new AtomicBoolean()));
+    }
+
+    /**
+     * Returns whether the run of the session failed with partial output, see
+     * {@link DocGenerationTask#hasPartialOutput()}.
+     */
+    static boolean hasPartialOutput(String id) {
+        Session session = SESSIONS.get(id);
+        return session != null && session.partialOutput().get();
+    }
+
+    static void closeSession(String id) {
+        SESSIONS.remove(id);
     }
 
     @Override
@@ -88,20 +275,120 @@ public class JsonDoclet implements Doclet {
         if (reporter == null) {
             throw new IllegalStateException("Reporter not initialised");
         }
-
-        try {
-            Files.createDirectories(outputDirectory);
-        } catch (IOException e) {
-            reporter.print(Diagnostic.Kind.ERROR, "Unable to create output directory: " + outputDirectory + " -> " + e.getMessage());
+        Session session = sessionId != null ? SESSIONS.get(sessionId) : null;
+        if (sessionId != null && session == null) {
+            reporter.print(Diagnostic.Kind.ERROR, "Unknown doclet session: " + sessionId);
+            return false;
+        }
+        if (session != null && (outputDirectorySet || archive != null || atomic)) {
+            reporter.print(Diagnostic.Kind.ERROR, "Options -d, --archive and --atomic cannot be used in-process; "
+                    + "pass an OutputSink to JsonDocletRunner.writingTo instead");
+            return false;
+        }
+        if (writerThreads > 0 && emitConcurrency > 0) {
+            reporter.print(Diagnostic.Kind.ERROR, "Options --writer-threads and --emit-concurrency cannot be combined");
+            return false;
+        }
+        if (atomic && archive != null) {
+            reporter.print(Diagnostic.Kind.ERROR, "Option --atomic applies to directory output and cannot be combined with --archive");
             return false;
         }
 
-        reporter.print(Diagnostic.Kind.NOTE, "JSON Doclet output directory: " + outputDirectory.toAbsolutePath());
+        OutputSink sink;
+        if (session != null) {
+            sink = session.sink();
+        } else if (archive != null) {
+            try {
+                sink = new ArchiveSink(archive);
+            } catch (IOException e) {
+                reporter.print(Diagnostic.Kind.ERROR, "Unable to create output archive: " + archive + " -> " + e.getMessage());
+                return false;
+            }
+            reporter.print(Diagnostic.Kind.NOTE, "JSON Doclet output archive: " + archive.toAbsolutePath());
+        } else if (atomic) {
+            try {
+                sink = new AtomicDirectorySink(outputDirectory);
+            } catch (IOException e) {
+                reporter.print(Diagnostic.Kind.ERROR, "Unable to create staging directory for " + outputDirectory + " -> " + e.getMessage());
+                return false;
+            }
+            reporter.print(Diagnostic.Kind.NOTE, "JSON Doclet output directory: " + outputDirectory.toAbsolutePath()
+                    + ", staged in " + ((AtomicDirectorySink) sink).staging());
+        } else {
+            try {
+                Files.createDirectories(outputDirectory);
+            } catch (IOException e) {
+                reporter.print(Diagnostic.Kind.ERROR, "Unable to create output directory: " + outputDirectory + " -> " + e.getMessage());
+                return false;
+            }
+            sink = new DirectorySink(outputDirectory);
+            reporter.print(Diagnostic.Kind.NOTE, "JSON Doclet output directory: " + outputDirectory.toAbsolutePath());
+        }
         reporter.print(Diagnostic.Kind.NOTE, "Pretty print: " + prettyPrint + ", include private: " + includePrivate);
+        if (writerThreads > 0) {
+            reporter.print(Diagnostic.Kind.NOTE, "Writer threads: " + writerThreads + ", write queue capacity: " + writeQueueCapacity);
+        }
 
-        DocletConfiguration configuration = new DocletConfiguration(outputDirectory, prettyPrint, includePrivate);
-        DocGenerationTask task = new DocGenerationTask(configuration, environment, reporter);
-        boolean success = task.execute();
+        DocletConfiguration configuration = DocletConfiguration.builder(outputDirectory)
+                .prettyPrint(prettyPrint)
+                .includePrivate(includePrivate)
+                .writerThreads(writerThreads)
+                .writeQueueCapacity(writeQueueCapacity)
+                .dedupeDocumentation(dedupeDocumentation)
+                .inheritedMembers(inheritedMembers)
+                .sourcePositions(sourcePositions)
+                .splitMemberThreshold(splitMemberThreshold)
+                .splitByteThreshold(splitByteThreshold)
+                .validate(validate)
+                .moduleDirectories(moduleDirectories)
+                .emitConcurrency(emitConcurrency)
+                .indexStatistics(indexStatistics)
+                .typeSignatures(typeSignatures)
+                .omitDefaults(omitDefaults)
+                .queryIndexes(queryIndexes)
+                .continueOnError(continueOnError)
+                .constantExpressions(constantExpressions)
+                .build();
+        DocGenerationTask task = new DocGenerationTask(configuration,
+                environment,
+                reporter,
+                session != null ? session.listener() : null,
+                sink);
+        boolean success = false;
+        try {
+            success = task.execute();
+            if (session != null) {
+                session.partialOutput().set(task.hasPartialOutput());
+            }
+            if (sink instanceof AtomicDirectorySink atomicSink) {
+                if (success || task.hasPartialOutput()) {
+                    atomicSink.commit();
+                    Files.deleteIfExists(atomicSink.besideTarget(DocGenerationTask.ERROR_REPORT_FILE));
+                } else {
+                    Path report = atomicSink.preserve(DocGenerationTask.ERROR_REPORT_FILE);
+                    if (report != null) {
+                        reporter.print(Diagnostic.Kind.NOTE, "Left " + outputDirectory
+                                + " untouched; failures are listed in " + report);
+                    }
+                }
+            }
+            if (task.hasPartialOutput()) {
+                reporter.print(Diagnostic.Kind.NOTE, "Kept the output of all other elements; failures are listed in "
+                        + DocGenerationTask.ERROR_REPORT_FILE);
+            }
+        } catch (IOException e) {
+            reporter.print(Diagnostic.Kind.ERROR, "Failed to replace " + outputDirectory + ": " + e.getMessage());
+            success = false;
+        } finally {
+            if (session == null) {
+                try {
+                    sink.close();
+                } catch (IOException e) {
+                    reporter.print(Diagnostic.Kind.ERROR, "Failed to finish output: " + e.getMessage());
+                    success = false;
+                }
+            }
+        }
 
         Duration elapsed = Duration.between(start, Instant.now());
         reporter.print(success ? Diagnostic.Kind.NOTE : Diagnostic.Kind.ERROR,
@@ -110,6 +397,33 @@ public class JsonDoclet implements Doclet {
         return success;
     }
 
+    private static int parseCount(String option, String value, int minimum) {
+        try {
+            int count = Integer.parseInt(value.trim());
+            if (count >= minimum) {
+                return count;
+            }
+        } catch (NumberFormatException ignored) {
+            // fall through to the error below
+        }
+        throw new IllegalArgumentException("Option " + option + " expects an integer >= " + minimum + " but got " + value);
+    }
+
+    private static long parseByteCount(String option, String value) {
+        try {
+            long count = Long.parseLong(value.trim());
+            if (count >= 0) {
+                return count;
+            }
+        } catch (NumberFormatException ignored) {
+            // fall through to the error below
+        }
+        throw new IllegalArgumentException("Option " + option + " expects a byte count >= 0 but got " + value);
+    }
+
+    private record Session(DocumentListener listener, OutputSink sink, AtomicBoolean partialOutput) {
+    }
+
     private static final class SimpleOption implements Option {
         private final List<String> names;
         private final int argumentCount;
@@ -0,0 +1,153 @@
+package io.fluxzero.tools.jsondoclet;
+
+import io.fluxzero.tools.jsondoclet.core.DocumentListener;
+import io.fluxzero.tools.jsondoclet.model.TypeDocumentation;
+import io.fluxzero.tools.jsondoclet.sink.DirectorySink;
+import io.fluxzero.tools.jsondoclet.sink.OutputSink;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.DocumentationTool;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Runs the JSON doclet in-process and hands the generated models to the caller.
+ * <p>
+ * The javadoc tool is invoked through {@link DocumentationTool} with {@link JsonDoclet} loaded from the caller's
+ * class path. Every document (types, member chunks, indexes, shared documentation strings) is passed to a
+ * {@link DocumentListener} as it is produced, so no output tree has to be written and read back. Serialized
+ * documents are only written when a directory or another {@link OutputSink} is set with {@code writingTo}.
+ */
+public final class JsonDocletRunner {
+    private final List<Path> sourceFiles;
+    private final List<String> options;
+    private final OutputSink sink;
+
+    private JsonDocletRunner(List<Path> sourceFiles, List<String> options, OutputSink sink) {
+        this.sourceFiles = sourceFiles;
+        this.options = options;
+        this.sink = sink;
+    }
+
+    /**
+     * Creates a runner documenting the given {@code .java} files.
+     */
+    public static JsonDocletRunner of(Collection<Path> sourceFiles) {
+        return new JsonDocletRunner(List.copyOf(sourceFiles), List.of(), null);
+    }
+
+    /**
+     * Returns a runner that passes the given javadoc and doclet options, e.g. {@code --dedupe-docs} or
+     * {@code --source-path src}, in addition to the options of this runner. Options that choose the output
+     * ({@code -d}, {@code --archive}, {@code --atomic}) fail the run; use {@code writingTo} instead.
+     */
+    public JsonDocletRunner withOptions(String... additionalOptions) {
+        List<String> combined = new ArrayList<>(options);
+        combined.addAll(List.of(additionalOptions));
+        return new JsonDocletRunner(sourceFiles, List.copyOf(combined), sink);
+    }
+
+    /**
+     * Returns a runner that also writes the output tree below {@code directory}.
+     */
+    public JsonDocletRunner writingTo(Path directory) {
+        return writingTo(new DirectorySink(directory));
+    }
+
+    /**
+     * Returns a runner that also writes the serialized documents into {@code sink}, e.g. an
+     * {@link io.fluxzero.tools.jsondoclet.sink.ArchiveSink}. The sink is not closed by the runner. An
+     * {@link io.fluxzero.tools.jsondoclet.sink.AtomicDirectorySink} is finished as under {@code --atomic}: it is
+     * committed when the run succeeds or has {@linkplain Result#partialOutput() partial output}, and otherwise
+     * keeps the error report beside its target.
+     */
+    public JsonDocletRunner writingTo(OutputSink sink) {
+        return new JsonDocletRunner(sourceFiles, options, sink);
+    }
+
+    /**
+     * Runs the doclet, calling {@code listener} for every generated document. Calls are made one at a time,
+     * but not necessarily from the calling thread.
+     *
+     * @return the outcome of the run; {@link Result#documents()} is empty
+     */
+    public Result run(DocumentListener listener) {
+        DocumentationTool tool = ToolProvider.getSystemDocumentationTool();
+        if (tool == null) {
+            throw new IllegalStateException("System documentation tool is not available");
+        }
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        String sessionId = UUID.randomUUID().toString();
+        JsonDoclet.openSession(sessionId, listener, sink);
+        try (StandardJavaFileManager fileManager =
+                     tool.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            List<String> arguments = new ArrayList<>();
+            arguments.add("--session");
+            arguments.add(sessionId);
+            arguments.addAll(options);
+
+            boolean success = tool.getTask(Writer.nullWriter(),
+                    fileManager,
+                    diagnostics,
+                    JsonDoclet.class,
+                    arguments,
+                    fileManager.getJavaFileObjectsFromPaths(sourceFiles)).call();
+            List<String> errors = diagnostics.getDiagnostics().stream()
+                    .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                    .map(diagnostic -> diagnostic.getMessage(null))
+                    .toList();
+            return new Result(success, JsonDoclet.hasPartialOutput(sessionId), errors, Map.of());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close the javadoc file manager", e);
+        } finally {
+            JsonDoclet.closeSession(sessionId);
+        }
+    }
+
+    /**
+     * Runs the doclet and keeps every generated document in memory.
+     *
+     * @return the outcome of the run, with the documents keyed by their path relative to the output root
+     */
+    public Result collect() {
+        Map<String, Object> documents = new LinkedHashMap<>();
+        Result result = run(documents::put);
+        return new Result(result.success(), result.partialOutput(), result.errors(),
+                Collections.unmodifiableMap(documents));
+    }
+
+    /**
+     * Outcome of a run.
+     *
+     * @param success whether javadoc and the doclet completed without errors
+     * @param partialOutput whether the run failed only because single elements could not be documented under
+     *        {@code --continue-on-error}; everything else was generated, together with {@code errors.json}
+     * @param errors error diagnostics reported during the run
+     * @param documents generated documents keyed by path relative to the output root, in generation order
+     */
+    public record Result(boolean success, boolean partialOutput, List<String> errors, Map<String, Object> documents) {
+        /**
+         * Returns the type documents among {@link #documents()}; types split into member chunks only carry their
+         * member summaries.
+         */
+        public List<TypeDocumentation> types() {
+            return documents.values().stream()
+                    .filter(TypeDocumentation.class::isInstance)
+                    .map(TypeDocumentation.class::cast)
+                    .toList();
+        }
+    }
+}
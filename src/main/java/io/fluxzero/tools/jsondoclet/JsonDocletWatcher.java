@@ -0,0 +1,584 @@
+package io.fluxzero.tools.jsondoclet;
+
+import io.fluxzero.tools.jsondoclet.model.DirectoryIndex;
+import io.fluxzero.tools.jsondoclet.model.DirectoryIndex.IndexFileEntry;
+import io.fluxzero.tools.jsondoclet.model.DirectoryIndex.SubdirectoryEntry;
+import io.fluxzero.tools.jsondoclet.model.TypeDocumentation;
+import io.fluxzero.tools.jsondoclet.reader.DocumentationReader;
+import io.fluxzero.tools.jsondoclet.sink.DirectorySink;
+import io.fluxzero.tools.jsondoclet.util.JsonWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps an output tree up to date while the sources below one or more source roots are edited.
+ * <p>
+ * After one full run, or after {@linkplain #load() loading} the output of an earlier one, changed compilation
+ * units are collected from a {@link WatchService}, debounced, and documented in-process through
+ * {@link JsonDocletRunner} together with their dependents: the files declaring direct or indirect subtypes of
+ * the changed types, whose inherited members may have changed with them. Only the affected type files are
+ * rewritten or deleted, and their entries are merged into the existing
+ * {@code index.json} files, so the time to refresh the output grows with the edit rather than the project.
+ * <p>
+ * Types are attributed to the file {@code <package>/<TopLevelType>.java} below a source root, or to the file
+ * named by their source position with {@code --source-positions}. Options that produce documents spanning the
+ * whole tree ({@code --dedupe-docs}, {@code --query-indexes}, {@code --index-stats}, {@code --type-signatures})
+ * cannot be kept correct by partial runs and are rejected, as are options selecting the output
+ * ({@code -d}, {@code --archive}, {@code --atomic}).
+ */
+public final class JsonDocletWatcher implements Closeable {
+    private static final String INDEX_FILE = "index.json";
+    private static final Set<String> UNSUPPORTED_OPTIONS = Set.of(
+            "-d", "--archive", "--atomic", "--session", "--dedupe-docs", "--query-indexes", "--index-stats",
+            "--type-signatures");
+
+    private final List<Path> sourceRoots;
+    private final Path outputDirectory;
+    private final List<String> options;
+    private final DirectorySink sink;
+    private final boolean prettyPrint;
+    private final boolean omitDefaults;
+
+    private final Map<String, TypeDocumentation> types = new HashMap<>();
+    private final Map<String, DirectoryIndex> indexes = new HashMap<>();
+    private final Map<Path, Set<String>> outputsBySource = new HashMap<>();
+    private volatile WatchService watchService;
+    private volatile boolean closed;
+
+    private JsonDocletWatcher(List<Path> sourceRoots, Path outputDirectory, List<String> options) {
+        this.sourceRoots = sourceRoots;
+        this.outputDirectory = outputDirectory;
+        this.options = options;
+        this.sink = new DirectorySink(outputDirectory);
+        this.prettyPrint = options.contains("--pretty");
+        this.omitDefaults = options.contains("--omit-defaults");
+    }
+
+    /**
+     * Creates a watcher documenting every {@code .java} file below {@code sourceRoots} into {@code outputDirectory}.
+     *
+     * @param options doclet and javadoc options passed to every run; {@code --source-path} is added automatically
+     * @throws IllegalArgumentException if an option cannot be combined with partial regeneration
+     */
+    public static JsonDocletWatcher create(Collection<Path> sourceRoots, Path outputDirectory, List<String> options) {
+        for (String option : options) {
+            if (UNSUPPORTED_OPTIONS.contains(option)) {
+                throw new IllegalArgumentException(option + " cannot be used in watch mode");
+            }
+        }
+        List<Path> roots = sourceRoots.stream().map(root -> root.toAbsolutePath().normalize()).toList();
+        return new JsonDocletWatcher(roots, outputDirectory, List.copyOf(options));
+    }
+
+    /**
+     * Command line entry point that generates the output once and then keeps it up to date until interrupted.
+     * <p>
+     * Usage: {@code JsonDocletWatcher <output-dir> <source-root>... [-- <doclet-option>...]}. Exits with {@code 2}
+     * when the arguments are invalid or the first run fails.
+     */
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    static int run(String[] args) {
+        int separator = List.of(args).indexOf("--");
+        List<String> paths = List.of(args).subList(0, separator < 0 ? args.length : separator);
+        List<String> options = separator < 0 ? List.of() : List.of(args).subList(separator + 1, args.length);
+        if (paths.size() < 2) {
+            System.err.println("Usage: JsonDocletWatcher <output-dir> <source-root>... [-- <doclet-option>...]");
+            return 2;
+        }
+
+        List<Path> roots = paths.subList(1, paths.size()).stream().map(Path::of).toList();
+        try (JsonDocletWatcher watcher = create(roots, Path.of(paths.get(0)), options)) {
+            JsonDocletRunner.Result result = watcher.generateAll();
+            if (!result.success()) {
+                result.errors().forEach(System.err::println);
+                return 2;
+            }
+            System.out.println("Documented " + watcher.types.size() + " types, watching " + roots);
+            watcher.watch(Duration.ofMillis(200), update -> {
+                if (update.success()) {
+                    System.out.println("Regenerated " + update.sourceFiles().size() + " source files: "
+                            + update.writtenFiles().size() + " files written, " + update.deletedFiles().size()
+                            + " deleted");
+                } else {
+                    update.errors().forEach(System.err::println);
+                }
+            });
+            return 0;
+        } catch (IllegalArgumentException | IOException | UncheckedIOException e) {
+            System.err.println("Watch mode failed: " + e.getMessage());
+            return 2;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+    }
+
+    /**
+     * Documents every source file and writes the complete output tree, replacing the state of earlier runs.
+     */
+    public synchronized JsonDocletRunner.Result generateAll() throws IOException {
+        types.clear();
+        indexes.clear();
+        outputsBySource.clear();
+        List<Path> sourceFiles = new ArrayList<>();
+        for (Path root : sourceRoots) {
+            sourceFiles.addAll(javaFiles(root));
+        }
+
+        Map<String, Object> documents = new LinkedHashMap<>();
+        JsonDocletRunner.Result result = runner(sourceFiles).run(documents::put);
+        if (!result.success()) {
+            return result;
+        }
+        for (Map.Entry<String, Object> document : documents.entrySet()) {
+            if (document.getValue() instanceof DirectoryIndex index) {
+                indexes.put(directoryOf(document.getKey()), index);
+            } else {
+                register(document.getKey(), document.getValue());
+            }
+            write(document.getKey(), document.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Reads the state of an output tree written by an earlier run over the same source roots and options, so that
+     * {@link #regenerate} can update it without a full run; replaces the state of earlier runs. Build tools use
+     * this to document only the sources changed since their last build.
+     *
+     * @return {@code false} when the output directory holds no output, which then needs {@link #generateAll()}
+     */
+    public synchronized boolean load() throws IOException {
+        types.clear();
+        indexes.clear();
+        outputsBySource.clear();
+        if (!Files.isRegularFile(outputDirectory.resolve(INDEX_FILE))) {
+            return false;
+        }
+        DocumentationReader reader = DocumentationReader.of(outputDirectory);
+        Deque<String> pending = new ArrayDeque<>(List.of(""));
+        while (!pending.isEmpty()) {
+            String directory = pending.pop();
+            DirectoryIndex index = reader.readIndex(Path.of(directory));
+            indexes.put(directory, index);
+            for (IndexFileEntry entry : index.getFiles()) {
+                String typeFile = join(directory, entry.file());
+                register(typeFile, reader.readType(Path.of(typeFile)));
+            }
+            for (SubdirectoryEntry subdirectory : index.getSubdirectories()) {
+                pending.push(join(directory, subdirectory.path()));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Regenerates the output of the given source files and their dependents. Deleted files have their types
+     * removed from the output; files outside the source roots and non-Java files are ignored.
+     *
+     * @return what was written and deleted; when the run fails the output is left untouched
+     */
+    public synchronized Update regenerate(Collection<Path> changedFiles) throws IOException {
+        Set<Path> affected = new LinkedHashSet<>();
+        for (Path file : changedFiles) {
+            Path normalized = file.toAbsolutePath().normalize();
+            Optional<Path> root = sourceRoots.stream().filter(normalized::startsWith).findFirst();
+            if (normalized.toString().endsWith(".java") && root.isPresent()) {
+                affected.add(normalized);
+                // types of a file deleted before the output was loaded are attributed to the first source root
+                Path attributed = sourceRoots.get(0).resolve(root.get().relativize(normalized));
+                if (!Files.exists(normalized) && outputsBySource.containsKey(attributed)) {
+                    affected.add(attributed);
+                }
+            }
+        }
+        affected.addAll(dependentsOf(affected));
+        List<Path> existing = affected.stream().filter(Files::isRegularFile).sorted().toList();
+
+        Map<String, Object> documents = new LinkedHashMap<>();
+        if (!existing.isEmpty()) {
+            JsonDocletRunner.Result result = runner(existing).run(documents::put);
+            if (!result.success()) {
+                return new Update(false, result.errors(), List.copyOf(affected), List.of(), List.of());
+            }
+        }
+
+        Set<String> previousOutputs = new HashSet<>();
+        for (Path file : affected) {
+            for (String typeFile : outputsBySource.getOrDefault(file, Set.of())) {
+                previousOutputs.add(typeFile);
+                TypeDocumentation previous = types.remove(typeFile);
+                if (previous != null && previous.memberChunks() != null) {
+                    previous.memberChunks().forEach(chunk -> previousOutputs.add(siblingOf(typeFile, chunk)));
+                }
+            }
+            outputsBySource.remove(file);
+        }
+
+        Map<String, DirectoryIndex> partialIndexes = new HashMap<>();
+        List<String> written = new ArrayList<>();
+        for (Map.Entry<String, Object> document : documents.entrySet()) {
+            if (document.getValue() instanceof DirectoryIndex index) {
+                partialIndexes.put(directoryOf(document.getKey()), index);
+            } else {
+                register(document.getKey(), document.getValue());
+                write(document.getKey(), document.getValue());
+                written.add(document.getKey());
+            }
+        }
+
+        Set<String> removedFiles = new HashSet<>(previousOutputs);
+        removedFiles.addAll(written);
+        List<String> deleted = new ArrayList<>();
+        for (String stale : previousOutputs.stream().sorted().toList()) {
+            if (!documents.containsKey(stale)) {
+                Files.deleteIfExists(outputDirectory.resolve(stale));
+                deleted.add(stale);
+            }
+        }
+        mergeIndexes(partialIndexes, removedFiles, written, deleted);
+        return new Update(true, List.of(), List.copyOf(affected), List.copyOf(written), List.copyOf(deleted));
+    }
+
+    /**
+     * Watches the source roots and regenerates the output whenever changes have settled for {@code debounce},
+     * until {@link #close()} is called or the thread is interrupted. A failed update is retried together with
+     * the next change.
+     *
+     * @param listener receives the outcome of every regeneration
+     */
+    public void watch(Duration debounce, Consumer<Update> listener) throws IOException, InterruptedException {
+        Map<WatchKey, Path> directories = new HashMap<>();
+        Set<Path> pending = new LinkedHashSet<>();
+        try (WatchService service = FileSystems.getDefault().newWatchService()) {
+            watchService = service;
+            if (closed) {
+                return;
+            }
+            for (Path root : sourceRoots) {
+                registerTree(service, root, directories);
+            }
+            while (!closed) {
+                WatchKey key = pending.isEmpty()
+                        ? service.take()
+                        : service.poll(debounce.toMillis(), TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    Update update = regenerate(pending);
+                    pending.clear();
+                    listener.accept(update);
+                    if (!update.success()) {
+                        collectChanges(service, service.take(), directories, pending);
+                        pending.addAll(update.sourceFiles());
+                    }
+                    continue;
+                }
+                collectChanges(service, key, directories, pending);
+            }
+        } catch (ClosedWatchServiceException e) {
+            // closed from another thread
+        } finally {
+            watchService = null;
+        }
+    }
+
+    /**
+     * Stops a running {@link #watch} call.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        WatchService service = watchService;
+        if (service != null) {
+            service.close();
+        }
+    }
+
+    private void collectChanges(WatchService service, WatchKey key, Map<WatchKey, Path> directories, Set<Path> pending)
+            throws IOException {
+        Path directory = directories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                pending.addAll(outputsBySource.keySet());
+                for (Path root : sourceRoots) {
+                    pending.addAll(javaFiles(root));
+                }
+                continue;
+            }
+            if (directory == null) {
+                continue;
+            }
+            Path child = directory.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+                    && Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                registerTree(service, child, directories);
+                pending.addAll(javaFiles(child));
+            } else if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE && !child.toString().endsWith(".java")) {
+                outputsBySource.keySet().stream().filter(source -> source.startsWith(child)).forEach(pending::add);
+            } else {
+                pending.add(child);
+            }
+        }
+        if (!key.reset()) {
+            directories.remove(key);
+        }
+    }
+
+    private void registerTree(WatchService service, Path root, Map<WatchKey, Path> directories) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try (Stream<Path> stream = Files.walk(root)) {
+            for (Path directory : stream.filter(Files::isDirectory).toList()) {
+                directories.put(directory.register(service,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE,
+                        StandardWatchEventKinds.ENTRY_MODIFY), directory);
+            }
+        }
+    }
+
+    private JsonDocletRunner runner(List<Path> sourceFiles) {
+        String sourcePath = sourceRoots.stream().map(Path::toString).collect(Collectors.joining(File.pathSeparator));
+        List<String> arguments = new ArrayList<>(options);
+        arguments.add("--source-path");
+        arguments.add(sourcePath);
+        return JsonDocletRunner.of(sourceFiles).withOptions(arguments.toArray(String[]::new));
+    }
+
+    /**
+     * Returns the files declaring types that extend or implement, directly or indirectly, a type declared in
+     * one of {@code files}.
+     */
+    private Set<Path> dependentsOf(Set<Path> files) {
+        Map<String, Path> sourceByType = new HashMap<>();
+        Map<Path, Set<String>> supertypesBySource = new HashMap<>();
+        for (Map.Entry<Path, Set<String>> entry : outputsBySource.entrySet()) {
+            for (String typeFile : entry.getValue()) {
+                TypeDocumentation type = types.get(typeFile);
+                if (type == null) {
+                    continue;
+                }
+                sourceByType.put(type.qualifiedName(), entry.getKey());
+                sourceByType.put(type.qualifiedName().replace('$', '.'), entry.getKey());
+                Set<String> supertypes = supertypesBySource.computeIfAbsent(entry.getKey(), ignored -> new HashSet<>());
+                if (type.superClass() != null) {
+                    supertypes.add(erasure(type.superClass()));
+                }
+                type.interfaces().forEach(supertype -> supertypes.add(erasure(supertype)));
+            }
+        }
+
+        Set<Path> reached = new HashSet<>(files);
+        Set<Path> dependents = new LinkedHashSet<>();
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Map.Entry<Path, Set<String>> entry : supertypesBySource.entrySet()) {
+                if (!reached.contains(entry.getKey()) && entry.getValue().stream()
+                        .map(sourceByType::get)
+                        .anyMatch(reached::contains)) {
+                    reached.add(entry.getKey());
+                    dependents.add(entry.getKey());
+                    changed = true;
+                }
+            }
+        }
+        return dependents;
+    }
+
+    private void register(String path, Object document) {
+        if (!(document instanceof TypeDocumentation type)) {
+            return;
+        }
+        types.put(path, type);
+        Path source = sourceOf(type);
+        if (source != null) {
+            outputsBySource.computeIfAbsent(source, ignored -> new HashSet<>()).add(path);
+        }
+    }
+
+    private Path sourceOf(TypeDocumentation type) {
+        String relativeFile;
+        if (type.source() != null) {
+            relativeFile = type.source().file();
+        } else {
+            String packageName = type.packageName() == null ? "" : type.packageName();
+            String simpleName = packageName.isEmpty()
+                    ? type.qualifiedName()
+                    : type.qualifiedName().substring(packageName.length() + 1);
+            int nested = simpleName.indexOf('$');
+            String topLevel = nested < 0 ? simpleName : simpleName.substring(0, nested);
+            relativeFile = (packageName.isEmpty() ? "" : packageName.replace('.', '/') + "/") + topLevel + ".java";
+        }
+        for (Path root : sourceRoots) {
+            Path candidate = root.resolve(relativeFile).normalize();
+            if (Files.isRegularFile(candidate)) {
+                return candidate;
+            }
+        }
+        // the file was deleted after the output was written; regenerate matches it under the first source root
+        return sourceRoots.isEmpty() ? null : sourceRoots.get(0).resolve(relativeFile).normalize();
+    }
+
+    /**
+     * Merges the indexes of a partial run into the known indexes and rewrites every index that changed,
+     * deleting indexes of directories that no longer contain any documentation.
+     */
+    private void mergeIndexes(Map<String, DirectoryIndex> partialIndexes,
+            Set<String> removedFiles,
+            List<String> written,
+            List<String> deleted) throws IOException {
+        Set<String> touched = new HashSet<>(partialIndexes.keySet());
+        removedFiles.forEach(file -> touched.add(directoryOf(file)));
+        for (String directory : List.copyOf(touched)) {
+            for (String current = directory; !current.isEmpty(); current = parentOf(current)) {
+                touched.add(parentOf(current));
+            }
+        }
+
+        List<String> deepestFirst = touched.stream()
+                .sorted(Comparator.comparingInt(JsonDocletWatcher::depthOf).reversed()
+                        .thenComparing(Comparator.naturalOrder()))
+                .toList();
+        Set<String> emptied = new HashSet<>();
+        for (String directory : deepestFirst) {
+            DirectoryIndex previous = indexes.get(directory);
+            DirectoryIndex partial = partialIndexes.get(directory);
+            DirectoryIndex index = new DirectoryIndex();
+            DirectoryIndex described = partial != null && partial.getPackage() != null ? partial : previous;
+            index.setPackage(described == null ? null : described.getPackage());
+            DirectoryIndex module = partial != null && partial.getModule() != null ? partial : previous;
+            index.setModule(module == null ? null : module.getModule());
+            if (previous != null) {
+                previous.getFiles().stream()
+                        .filter(entry -> !removedFiles.contains(join(directory, entry.file())))
+                        .forEach(index::addFile);
+            }
+            if (partial != null) {
+                partial.getFiles().forEach(index::addFile);
+            }
+            for (DirectoryIndex source : Stream.of(previous, partial).filter(Objects::nonNull).toList()) {
+                for (SubdirectoryEntry subdirectory : source.getSubdirectories()) {
+                    if (!emptied.contains(join(directory, subdirectory.path()))) {
+                        index.addSubdirectory(subdirectory);
+                    }
+                }
+            }
+            index.sortEntries();
+
+            String indexFile = join(directory, INDEX_FILE);
+            // a package whose last type was removed keeps its documentation only if the run documented it again
+            if (!directory.isEmpty() && index.getFiles().isEmpty() && index.getSubdirectories().isEmpty()
+                    && index.getModule() == null && (partial == null || partial.getPackage() == null)) {
+                emptied.add(directory);
+                if (indexes.remove(directory) != null) {
+                    Files.deleteIfExists(outputDirectory.resolve(indexFile));
+                    deleted.add(indexFile);
+                }
+            } else if (previous == null || !sameIndex(previous, index)) {
+                indexes.put(directory, index);
+                write(indexFile, index);
+                written.add(indexFile);
+            }
+        }
+    }
+
+    private boolean sameIndex(DirectoryIndex first, DirectoryIndex second) {
+        return first.getFiles().equals(second.getFiles())
+                && first.getSubdirectories().equals(second.getSubdirectories())
+                && Objects.equals(first.getPackage(), second.getPackage())
+                && Objects.equals(first.getModule(), second.getModule());
+    }
+
+    private void write(String path, Object document) throws IOException {
+        sink.createDirectories(directoryOf(path));
+        sink.write(path, JsonWriter.toBytes(document, prettyPrint, omitDefaults));
+    }
+
+    private static List<Path> javaFiles(Path root) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return List.of();
+        }
+        try (Stream<Path> stream = Files.walk(root)) {
+            return stream.filter(path -> path.toString().endsWith(".java") && Files.isRegularFile(path))
+                    .map(path -> path.toAbsolutePath().normalize())
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static String erasure(String type) {
+        int typeArguments = type.indexOf('<');
+        return typeArguments < 0 ? type : type.substring(0, typeArguments);
+    }
+
+    private static String directoryOf(String path) {
+        int slash = path.lastIndexOf('/');
+        return slash < 0 ? "" : path.substring(0, slash);
+    }
+
+    private static String parentOf(String directory) {
+        return directoryOf(directory);
+    }
+
+    private static String siblingOf(String path, String fileName) {
+        return join(directoryOf(path), fileName);
+    }
+
+    private static String join(String directory, String name) {
+        return directory.isEmpty() ? name : directory + "/" + name;
+    }
+
+    private static int depthOf(String directory) {
+        return directory.isEmpty() ? 0 : directory.split("/").length;
+    }
+
+    /**
+     * Outcome of one regeneration.
+     *
+     * @param success whether javadoc and the doclet completed without errors; otherwise nothing was changed
+     * @param errors error diagnostics reported during the run
+     * @param sourceFiles changed source files together with their dependents
+     * @param writtenFiles output files written, relative to the output directory
+     * @param deletedFiles output files deleted because their types no longer exist
+     */
+    public record Update(boolean success,
+            List<String> errors,
+            List<Path> sourceFiles,
+            List<String> writtenFiles,
+            List<String> deletedFiles) {
+    }
+}
@@ -4,6 +4,219 @@ import java.nio.file.Path;
 
 /**
  * Immutable configuration for JSON doclet execution.
+ * <p>
+ * Create instances through {@link #builder(Path)}, which starts from the defaults (compact output written
+ * inline, every optional feature off) and names each setting, so adding a component never shifts the
+ * arguments of existing callers.
+ *
+ * @param writerThreads number of background threads draining serialized files to disk; {@code 0} writes inline
+ * @param writeQueueCapacity maximum number of serialized files waiting for a writer thread
+ * @param dedupeDocumentation replace documentation text with keys into a shared strings artifact
+ * @param inheritedMembers add references to members inherited from supertypes to each type
+ * @param sourcePositions record the source file and line range of every type and member
+ * @param splitMemberThreshold split types declaring more members than this into chunk files; {@code 0} disables
+ * @param splitByteThreshold split types whose serialized file would exceed this many bytes; {@code 0} disables
+ * @param validate check every document against the bundled JSON schema before it is written
+ * @param moduleDirectories write each named module to its own directory with its descriptor in the module index
+ * @param emitConcurrency write each file as its own task, on virtual threads where available, with at most this
+ *        many writes in flight; {@code 0} disables
+ * @param indexStatistics add type and member counts per subtree to every directory index
+ * @param typeSignatures add a table of structured, linked type signatures to every type and member chunk file
+ * @param omitDefaults leave out {@code null} values and empty collections when serializing
+ * @param queryIndexes write deprecated, {@code @since}, annotation usage and thrown type indexes to the output root
+ * @param continueOnError keep documenting the remaining elements after one fails, instead of stopping
+ * @param constantExpressions add the source form of constant values, annotation element defaults and the
+ *        defaults of applied annotations
  */
-public record DocletConfiguration(Path outputDirectory, boolean prettyPrint, boolean includePrivate) {
+public record DocletConfiguration(Path outputDirectory,
+        boolean prettyPrint,
+        boolean includePrivate,
+        int writerThreads,
+        int writeQueueCapacity,
+        boolean dedupeDocumentation,
+        boolean inheritedMembers,
+        boolean sourcePositions,
+        int splitMemberThreshold,
+        long splitByteThreshold,
+        boolean validate,
+        boolean moduleDirectories,
+        int emitConcurrency,
+        boolean indexStatistics,
+        boolean typeSignatures,
+        boolean omitDefaults,
+        boolean queryIndexes,
+        boolean continueOnError,
+        boolean constantExpressions) {
+
+    /**
+     * Default bound for the write-behind queue.
+     */
+    public static final int DEFAULT_WRITE_QUEUE_CAPACITY = 256;
+
+    /**
+     * Number of members per chunk file when a type is split by byte size only.
+     */
+    public static final int DEFAULT_MEMBER_CHUNK_SIZE = 500;
+
+    /**
+     * Returns a builder for a configuration writing to {@code outputDirectory}, starting from the defaults.
+     */
+    public static Builder builder(Path outputDirectory) {
+        return new Builder(outputDirectory);
+    }
+
+    /**
+     * Returns whether large types are split into member chunk files.
+     */
+    public boolean splitsLargeTypes() {
+        return splitMemberThreshold > 0 || splitByteThreshold > 0;
+    }
+
+    /**
+     * Returns the number of members written to each chunk file of a split type.
+     */
+    public int memberChunkSize() {
+        return splitMemberThreshold > 0 ? splitMemberThreshold : DEFAULT_MEMBER_CHUNK_SIZE;
+    }
+
+    /**
+     * Collects the settings of a {@link DocletConfiguration} by name; see the record components for their meaning.
+     */
+    public static final class Builder {
+        private final Path outputDirectory;
+        private boolean prettyPrint;
+        private boolean includePrivate;
+        private int writerThreads;
+        private int writeQueueCapacity = DEFAULT_WRITE_QUEUE_CAPACITY;
+        private boolean dedupeDocumentation;
+        private boolean inheritedMembers;
+        private boolean sourcePositions;
+        private int splitMemberThreshold;
+        private long splitByteThreshold;
+        private boolean validate;
+        private boolean moduleDirectories;
+        private int emitConcurrency;
+        private boolean indexStatistics;
+        private boolean typeSignatures;
+        private boolean omitDefaults;
+        private boolean queryIndexes;
+        private boolean continueOnError;
+        private boolean constantExpressions;
+
+        private Builder(Path outputDirectory) {
+            this.outputDirectory = outputDirectory;
+        }
+
+        public Builder prettyPrint(boolean prettyPrint) {
+            this.prettyPrint = prettyPrint;
+            return this;
+        }
+
+        public Builder includePrivate(boolean includePrivate) {
+            this.includePrivate = includePrivate;
+            return this;
+        }
+
+        public Builder writerThreads(int writerThreads) {
+            this.writerThreads = writerThreads;
+            return this;
+        }
+
+        public Builder writeQueueCapacity(int writeQueueCapacity) {
+            this.writeQueueCapacity = writeQueueCapacity;
+            return this;
+        }
+
+        public Builder dedupeDocumentation(boolean dedupeDocumentation) {
+            this.dedupeDocumentation = dedupeDocumentation;
+            return this;
+        }
+
+        public Builder inheritedMembers(boolean inheritedMembers) {
+            this.inheritedMembers = inheritedMembers;
+            return this;
+        }
+
+        public Builder sourcePositions(boolean sourcePositions) {
+            this.sourcePositions = sourcePositions;
+            return this;
+        }
+
+        public Builder splitMemberThreshold(int splitMemberThreshold) {
+            this.splitMemberThreshold = splitMemberThreshold;
+            return this;
+        }
+
+        public Builder splitByteThreshold(long splitByteThreshold) {
+            this.splitByteThreshold = splitByteThreshold;
+            return this;
+        }
+
+        public Builder validate(boolean validate) {
+            this.validate = validate;
+            return this;
+        }
+
+        public Builder moduleDirectories(boolean moduleDirectories) {
+            this.moduleDirectories = moduleDirectories;
+            return this;
+        }
+
+        public Builder emitConcurrency(int emitConcurrency) {
+            this.emitConcurrency = emitConcurrency;
+            return this;
+        }
+
+        public Builder indexStatistics(boolean indexStatistics) {
+            this.indexStatistics = indexStatistics;
+            return this;
+        }
+
+        public Builder typeSignatures(boolean typeSignatures) {
+            this.typeSignatures = typeSignatures;
+            return this;
+        }
+
+        public Builder omitDefaults(boolean omitDefaults) {
+            this.omitDefaults = omitDefaults;
+            return this;
+        }
+
+        public Builder queryIndexes(boolean queryIndexes) {
+            this.queryIndexes = queryIndexes;
+            return this;
+        }
+
+        public Builder continueOnError(boolean continueOnError) {
+            this.continueOnError = continueOnError;
+            return this;
+        }
+
+        public Builder constantExpressions(boolean constantExpressions) {
+            this.constantExpressions = constantExpressions;
+            return this;
+        }
+
+        public DocletConfiguration build() {
+            return new DocletConfiguration(outputDirectory,
+                    prettyPrint,
+                    includePrivate,
+                    writerThreads,
+                    writeQueueCapacity,
+                    dedupeDocumentation,
+                    inheritedMembers,
+                    sourcePositions,
+                    splitMemberThreshold,
+                    splitByteThreshold,
+                    validate,
+                    moduleDirectories,
+                    emitConcurrency,
+                    indexStatistics,
+                    typeSignatures,
+                    omitDefaults,
+                    queryIndexes,
+                    continueOnError,
+                    constantExpressions);
+        }
+    }
 }
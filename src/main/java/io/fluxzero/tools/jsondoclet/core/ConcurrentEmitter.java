@@ -0,0 +1,125 @@
+package io.fluxzero.tools.jsondoclet.core;
+
+import io.fluxzero.tools.jsondoclet.sink.OutputSink;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Emitter that writes every document as its own task, with at most {@code limit} writes in flight.
+ * <p>
+ * Writing many small files is bound by filesystem latency rather than CPU, so tasks run on virtual threads
+ * when the runtime provides them (JDK 21+). The doclet is compiled for release 17, so the virtual-thread
+ * executor is looked up reflectively; on older runtimes a platform pool of {@code limit} threads is used.
+ * Documents are still serialized on the traversal thread, which keeps reusing its serializer buffer instead
+ * of allocating one per short-lived thread.
+ */
+final class ConcurrentEmitter implements FileEmitter {
+    private final OutputSink sink;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final Semaphore permits;
+    private final int limit;
+    private final Queue<String> failures = new ConcurrentLinkedQueue<>();
+
+    private ConcurrentEmitter(OutputSink sink, ExecutorService executor, boolean virtualThreads, int limit) {
+        this.sink = sink;
+        this.executor = executor;
+        this.virtualThreads = virtualThreads;
+        this.permits = new Semaphore(limit);
+        this.limit = limit;
+    }
+
+    /**
+     * Creates an emitter writing into {@code sink} for the current runtime, preferring virtual threads.
+     */
+    static ConcurrentEmitter create(OutputSink sink, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Emit concurrency must be positive: " + limit);
+        }
+        ExecutorService virtualExecutor = virtualThreadExecutor();
+        if (virtualExecutor != null) {
+            return new ConcurrentEmitter(sink, virtualExecutor, true, limit);
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return new ConcurrentEmitter(sink, Executors.newFixedThreadPool(limit, task -> {
+            Thread thread = new Thread(task, "json-doclet-emitter-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }), false, limit);
+    }
+
+    /**
+     * Returns whether writes run on virtual threads rather than a platform thread pool.
+     */
+    boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Starts writing the document on its own task, blocking while {@code limit} writes are in flight.
+     */
+    @Override
+    public void submit(String path, byte[] content) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while queueing " + path, e);
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    sink.write(path, content);
+                } catch (IOException | RuntimeException e) {
+                    failures.add("Failed to write " + path + ": " + e.getMessage());
+                } catch (Throwable e) {
+                    // An Error would otherwise only end the task, and the run would report success without the file
+                    failures.add("Failed to write " + path + ": " + e);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public List<String> awaitCompletion() {
+        try {
+            permits.acquire(limit);
+            permits.release(limit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failures.add("Interrupted while waiting for pending writes");
+        } finally {
+            executor.shutdown();
+        }
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return List.copyOf(failures);
+    }
+
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        } catch (InvocationTargetException e) {
+            // JDK 19 and 20 expose the method but reject it unless preview features are enabled
+            return null;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package io.fluxzero.tools.jsondoclet.core;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.SimpleAnnotationValueVisitor14;
+
+/**
+ * Renders constant values and annotation element defaults in their Java source form, such as {@code 10L},
+ * {@code 'x'} or {@code {"a", "b"}}.
+ * <p>
+ * The defaults of an annotation type are collected once per run and shared by its member documentation and
+ * every place the annotation is applied. Like the rest of the language model access, this class must only be
+ * used from the traversal thread.
+ */
+final class ConstantExpressions {
+    private final Elements elements;
+    private final Map<TypeElement, Map<String, String>> defaultsByAnnotationType = new HashMap<>();
+    private final SourceFormVisitor sourceForm = new SourceFormVisitor();
+
+    ConstantExpressions(Elements elements) {
+        this.elements = elements;
+    }
+
+    /**
+     * Returns the source form of the field's compile-time constant, or {@code null} when it has none.
+     */
+    String expressionOf(VariableElement field) {
+        Object value = field.getConstantValue();
+        return value == null ? null : elements.getConstantExpression(value);
+    }
+
+    /**
+     * Returns the source form of the default value of an annotation type element, or {@code null} when the
+     * method is not an annotation element or has no default.
+     */
+    String defaultOf(TypeElement declaringType, ExecutableElement method) {
+        if (method.getDefaultValue() == null) {
+            return null;
+        }
+        return defaultsOf(declaringType).get(method.getSimpleName().toString());
+    }
+
+    /**
+     * Returns the defaults of the elements the applied annotation does not set explicitly, sorted by element
+     * name, or {@code null} when every element is set or has no default.
+     */
+    Map<String, String> appliedDefaultsOf(AnnotationMirror mirror) {
+        Map<String, String> defaults = defaultsOf((TypeElement) mirror.getAnnotationType().asElement());
+        if (defaults.isEmpty()) {
+            return null;
+        }
+        if (mirror.getElementValues().isEmpty()) {
+            return defaults;
+        }
+        Set<String> explicit = mirror.getElementValues().keySet().stream()
+                .map(element -> element.getSimpleName().toString())
+                .collect(Collectors.toSet());
+        Map<String, String> remaining = new LinkedHashMap<>(defaults);
+        remaining.keySet().removeAll(explicit);
+        return remaining.isEmpty() ? null : Collections.unmodifiableMap(remaining);
+    }
+
+    private Map<String, String> defaultsOf(TypeElement annotationType) {
+        Map<String, String> cached = defaultsByAnnotationType.get(annotationType);
+        if (cached != null) {
+            return cached;
+        }
+        Map<String, String> defaults = new LinkedHashMap<>();
+        ElementFilter.methodsIn(annotationType.getEnclosedElements()).stream()
+                .filter(element -> element.getDefaultValue() != null)
+                .sorted(Comparator.comparing(element -> element.getSimpleName().toString()))
+                .forEach(element -> defaults.put(element.getSimpleName().toString(),
+                        sourceFormOf(element.getDefaultValue())));
+        Map<String, String> result = defaults.isEmpty() ? Map.of() : Collections.unmodifiableMap(defaults);
+        defaultsByAnnotationType.put(annotationType, result);
+        return result;
+    }
+
+    private String sourceFormOf(AnnotationValue value) {
+        return value.accept(sourceForm, null);
+    }
+
+    /**
+     * Formats an annotation value as it would be written in source, with qualified enum and class names.
+     */
+    private final class SourceFormVisitor extends SimpleAnnotationValueVisitor14<String, Void> {
+        @Override
+        protected String defaultAction(Object value, Void ignored) {
+            return elements.getConstantExpression(value);
+        }
+
+        @Override
+        public String visitType(TypeMirror type, Void ignored) {
+            return type + ".class";
+        }
+
+        @Override
+        public String visitEnumConstant(VariableElement constant, Void ignored) {
+            return ((TypeElement) constant.getEnclosingElement()).getQualifiedName() + "." + constant.getSimpleName();
+        }
+
+        @Override
+        public String visitAnnotation(AnnotationMirror annotation, Void ignored) {
+            return annotation.toString();
+        }
+
+        @Override
+        public String visitArray(List<? extends AnnotationValue> values, Void ignored) {
+            return values.stream().map(value -> value.accept(this, null)).collect(Collectors.joining(", ", "{", "}"));
+        }
+    }
+}
@@ -1,40 +1,62 @@
 package io.fluxzero.tools.jsondoclet.core;
 
 import io.fluxzero.tools.jsondoclet.config.DocletConfiguration;
+import io.fluxzero.tools.jsondoclet.core.MemberSplitter.MemberEntry;
 import io.fluxzero.tools.jsondoclet.model.AnnotationDocumentation;
 import io.fluxzero.tools.jsondoclet.model.ConstructorDocumentation;
 import io.fluxzero.tools.jsondoclet.model.DirectoryIndex;
 import io.fluxzero.tools.jsondoclet.model.DirectoryIndex.IndexFileEntry;
 import io.fluxzero.tools.jsondoclet.model.DirectoryIndex.SubdirectoryEntry;
+import io.fluxzero.tools.jsondoclet.model.DocumentationStrings;
+import io.fluxzero.tools.jsondoclet.model.ElementIndex;
+import io.fluxzero.tools.jsondoclet.model.ErrorReport;
+import io.fluxzero.tools.jsondoclet.model.ErrorReport.ElementError;
 import io.fluxzero.tools.jsondoclet.model.EnumConstantDocumentation;
 import io.fluxzero.tools.jsondoclet.model.FieldDocumentation;
+import io.fluxzero.tools.jsondoclet.model.InheritedMemberDocumentation;
+import io.fluxzero.tools.jsondoclet.model.MemberChunk;
 import io.fluxzero.tools.jsondoclet.model.MethodDocumentation;
 import io.fluxzero.tools.jsondoclet.model.MethodDocumentation.MethodParameter;
+import io.fluxzero.tools.jsondoclet.model.ModuleDocumentation;
+import io.fluxzero.tools.jsondoclet.model.ModuleDocumentation.ModuleRequires;
+import io.fluxzero.tools.jsondoclet.model.ModuleDocumentation.PackageDirective;
+import io.fluxzero.tools.jsondoclet.model.ModuleDocumentation.ServiceProvider;
 import io.fluxzero.tools.jsondoclet.model.NestedTypeDocumentation;
 import io.fluxzero.tools.jsondoclet.model.PackageDocumentation;
 import io.fluxzero.tools.jsondoclet.model.RecordComponentDocumentation;
+import io.fluxzero.tools.jsondoclet.model.SourcePosition;
 import io.fluxzero.tools.jsondoclet.model.TypeDocumentation;
+import io.fluxzero.tools.jsondoclet.model.TypeSignature;
+import io.fluxzero.tools.jsondoclet.sink.DirectorySink;
+import io.fluxzero.tools.jsondoclet.sink.OutputSink;
 import io.fluxzero.tools.jsondoclet.util.JsonWriter;
+import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.AnnotationValue;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ExecutableElement;
-import javax.lang.model.element.Modifier;
+import javax.lang.model.element.ModuleElement;
 import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.Parameterizable;
+import javax.lang.model.element.QualifiedNameable;
+import javax.lang.model.element.RecordComponentElement;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.TypeParameterElement;
 import javax.lang.model.element.VariableElement;
@@ -50,18 +72,77 @@ import jdk.javadoc.doclet.Reporter;
  * Coordinates traversal and writing of documentation artifacts.
  */
 public final class DocGenerationTask {
+    /**
+     * Name of the shared documentation strings artifact written to the output root in deduplication mode.
+     */
+    public static final String DOCUMENTATION_STRINGS_FILE = "doc-strings.json";
+
+    /**
+     * Name of the error report written to the output root when elements could not be documented.
+     */
+    public static final String ERROR_REPORT_FILE = "errors.json";
+
     private final DocletConfiguration configuration;
     private final DocletEnvironment environment;
     private final Reporter reporter;
     private final Map<Path, DirectoryIndex> indexes = new HashMap<>();
+    private final Map<Path, Long> memberCounts;
+    private final DocumentationStore documentationStore;
+    private final InheritedMemberResolver inheritedMemberResolver;
+    private final SourcePositionResolver sourcePositionResolver;
+    private final OutputValidator validator;
+    private final TypeSignatureTable typeSignatures;
+    private final ConstantExpressions constantExpressions;
+    private final QueryIndexCollector queryIndexes;
+    private final DocumentListener listener;
+    private final List<ElementError> failures = new ArrayList<>();
+    private boolean partialOutput;
+    private final OutputSink sink;
+    private volatile boolean valid = true;
+    private FileEmitter emitter;
 
     /**
      * Creates a new task bound to the supplied doclet execution context.
      */
     public DocGenerationTask(DocletConfiguration configuration, DocletEnvironment environment, Reporter reporter) {
+        this(configuration, environment, reporter, null, new DirectorySink(configuration.outputDirectory()));
+    }
+
+    /**
+     * Creates a new task that writes into {@code sink} and also hands every document to {@code listener}.
+     *
+     * @param listener receives each document with its path relative to the output root, or {@code null}
+     * @param sink receives the serialized documents, or {@code null} to only notify the listener
+     */
+    public DocGenerationTask(DocletConfiguration configuration,
+            DocletEnvironment environment,
+            Reporter reporter,
+            DocumentListener listener,
+            OutputSink sink) {
         this.configuration = configuration;
         this.environment = environment;
         this.reporter = reporter;
+        this.documentationStore = configuration.dedupeDocumentation() ? new DocumentationStore() : null;
+        this.inheritedMemberResolver = configuration.inheritedMembers()
+                ? new InheritedMemberResolver(environment.getElementUtils(), environment.getTypeUtils())
+                : null;
+        this.sourcePositionResolver = configuration.sourcePositions()
+                ? new SourcePositionResolver(environment.getDocTrees(), environment.getElementUtils(),
+                        environment.getJavaFileManager())
+                : null;
+        this.validator = configuration.validate() ? OutputValidator.load() : null;
+        this.memberCounts = configuration.indexStatistics() ? new HashMap<>() : null;
+        this.constantExpressions = configuration.constantExpressions()
+                ? new ConstantExpressions(environment.getElementUtils())
+                : null;
+        this.typeSignatures = configuration.typeSignatures()
+                ? new TypeSignatureTable(environment.getTypeUtils(), this::linkOf)
+                : null;
+        this.queryIndexes = configuration.queryIndexes()
+                ? new QueryIndexCollector(documentationStore != null ? documentationStore::resolve : UnaryOperator.identity())
+                : null;
+        this.listener = listener;
+        this.sink = sink;
     }
 
     /**
@@ -73,11 +154,14 @@ public final class DocGenerationTask {
         Elements elements = environment.getElementUtils();
         Set<? extends Element> includedElements = environment.getIncludedElements();
 
+        Set<ModuleElement> modules = new HashSet<>();
         List<PackageElement> packages = new ArrayList<>();
         List<TypeElement> types = new ArrayList<>();
 
         for (Element element : includedElements) {
-            if (element instanceof PackageElement pkg) {
+            if (element instanceof ModuleElement module) {
+                modules.add(module);
+            } else if (element instanceof PackageElement pkg) {
                 packages.add(pkg);
             } else if (element instanceof TypeElement type) {
                 Element enclosing = type.getEnclosingElement();
@@ -88,23 +172,141 @@ public final class DocGenerationTask {
         }
 
         packages.sort(Comparator.comparing(pkg -> pkg.getQualifiedName().toString()));
+        if (configuration.moduleDirectories()) {
+            packages.forEach(pkg -> modules.add(elements.getModuleOf(pkg)));
+            types.forEach(type -> modules.add(elements.getModuleOf(type)));
+        }
+        List<ModuleElement> namedModules = modules.stream()
+                .filter(module -> module != null && !module.isUnnamed())
+                .sorted(Comparator.comparing(module -> module.getQualifiedName().toString()))
+                .toList();
         types.sort(Comparator.comparing(type -> type.getQualifiedName().toString()));
 
-        boolean ok = processPackages(packages, elements) && processTypes(types, elements);
-        if (!ok) {
-            return false;
+        if (validator != null) {
+            validator.drift().forEach(drift -> reportInvalid("Schema drift: " + drift));
         }
+        emitter = createEmitter();
+        boolean ok = false;
+        try {
+            createDirectories(configuration.outputDirectory());
+            ok = processModules(namedModules, elements)
+                    && processPackages(packages, elements)
+                    && processTypes(types, elements)
+                    && writeIndexes()
+                    && writeDocumentationStrings()
+                    && writeQueryIndexes();
+            ok &= writeErrorReport();
+        } finally {
+            ok &= awaitPendingWrites();
+        }
+        partialOutput = ok && valid && !failures.isEmpty() && configuration.continueOnError();
+        return ok && valid && failures.isEmpty();
+    }
 
-        return writeIndexes();
+    /**
+     * Returns whether the last {@link #execute()} failed only because single elements could not be documented
+     * under {@code --continue-on-error}. The output then holds every other element and lists the failed ones in
+     * {@value #ERROR_REPORT_FILE}, so it is worth keeping.
+     */
+    public boolean hasPartialOutput() {
+        return partialOutput;
+    }
+
+    private FileEmitter createEmitter() {
+        if (sink == null) {
+            return null;
+        }
+        if (configuration.emitConcurrency() > 0) {
+            ConcurrentEmitter concurrentEmitter = ConcurrentEmitter.create(sink, configuration.emitConcurrency());
+            reporter.print(Diagnostic.Kind.NOTE, "Emitting files on "
+                    + (concurrentEmitter.usesVirtualThreads() ? "virtual threads" : "a platform thread pool")
+                    + ", at most " + configuration.emitConcurrency() + " concurrent writes");
+            return concurrentEmitter;
+        }
+        if (configuration.writerThreads() > 0) {
+            return new WriteBehindStage(sink, configuration.writerThreads(), configuration.writeQueueCapacity());
+        }
+        return null;
+    }
+
+    private boolean awaitPendingWrites() {
+        if (emitter == null) {
+            return true;
+        }
+        List<String> failures = emitter.awaitCompletion();
+        emitter = null;
+        failures.forEach(failure -> reporter.print(Diagnostic.Kind.ERROR, failure));
+        return failures.isEmpty();
+    }
+
+    private boolean processModules(List<ModuleElement> modules, Elements elements) {
+        if (!configuration.moduleDirectories()) {
+            return true;
+        }
+        return processElements("module", modules, module -> {
+            Path moduleDir = configuration.outputDirectory().resolve(module.getQualifiedName().toString());
+            createDirectories(moduleDir);
+            DirectoryIndex index = indexes.computeIfAbsent(moduleDir, ignored -> new DirectoryIndex());
+            index.setModule(buildModuleDocumentation(module, elements));
+            registerAncestors(moduleDir);
+        });
+    }
+
+    private ModuleDocumentation buildModuleDocumentation(ModuleElement module, Elements elements) {
+        List<? extends ModuleElement.Directive> directives = module.getDirectives();
+        List<ModuleRequires> requires = ElementFilter.requiresIn(directives).stream()
+                .map(directive -> new ModuleRequires(directive.getDependency().getQualifiedName().toString(),
+                        directive.isTransitive(),
+                        directive.isStatic()))
+                .sorted(Comparator.comparing(ModuleRequires::module))
+                .toList();
+        List<PackageDirective> exports = ElementFilter.exportsIn(directives).stream()
+                .map(directive -> toPackageDirective(directive.getPackage(), directive.getTargetModules()))
+                .sorted(Comparator.comparing(PackageDirective::packageName))
+                .toList();
+        List<PackageDirective> opens = ElementFilter.opensIn(directives).stream()
+                .map(directive -> toPackageDirective(directive.getPackage(), directive.getTargetModules()))
+                .sorted(Comparator.comparing(PackageDirective::packageName))
+                .toList();
+        List<String> uses = ElementFilter.usesIn(directives).stream()
+                .map(directive -> elements.getBinaryName(directive.getService()).toString())
+                .sorted()
+                .toList();
+        List<ServiceProvider> provides = ElementFilter.providesIn(directives).stream()
+                .map(directive -> new ServiceProvider(elements.getBinaryName(directive.getService()).toString(),
+                        directive.getImplementations().stream()
+                                .map(implementation -> elements.getBinaryName(implementation).toString())
+                                .sorted()
+                                .toList()))
+                .sorted(Comparator.comparing(ServiceProvider::service))
+                .toList();
+
+        return new ModuleDocumentation(module.getQualifiedName().toString(),
+                module.isOpen(),
+                annotationsOf(module),
+                documentationOf(module, elements),
+                requires,
+                exports,
+                opens,
+                uses,
+                provides);
+    }
+
+    private PackageDirective toPackageDirective(PackageElement pkg, List<? extends ModuleElement> targets) {
+        List<String> targetNames = targets == null ? List.of() : targets.stream()
+                .map(target -> target.getQualifiedName().toString())
+                .sorted()
+                .toList();
+        return new PackageDirective(pkg.getQualifiedName().toString(), targetNames);
     }
 
     private boolean processPackages(List<PackageElement> packages, Elements elements) {
-        return processElements(packages, pkg -> {
+        return processElements("package", packages, pkg -> {
             Path packageDir = packageDirectory(pkg);
             createDirectories(packageDir);
 
             String qualifiedName = pkg.getQualifiedName().toString();
-            String docComment = elements.getDocComment(pkg);
+            String docComment = documentationOf(pkg, elements);
 
             PackageDocumentation payload = new PackageDocumentation(pkg.getSimpleName().toString(), qualifiedName, docComment);
             DirectoryIndex index = indexes.computeIfAbsent(packageDir, ignored -> new DirectoryIndex());
@@ -113,18 +315,30 @@ public final class DocGenerationTask {
         });
     }
 
+    /**
+     * Writes every type followed by its nested types, depth first; each type is its own unit of failure.
+     */
     private boolean processTypes(List<TypeElement> types, Elements elements) {
-        return processElements(types, type -> writeTypeRecursively(type, elements));
+        List<TypeElement> allTypes = new ArrayList<>();
+        types.forEach(type -> addWithNestedTypes(type, allTypes));
+        return processElements("type", allTypes, type -> writeTypeFile(type, elements));
     }
 
-    private void writeTypeRecursively(TypeElement type, Elements elements) {
+    private void addWithNestedTypes(TypeElement type, List<TypeElement> allTypes) {
+        allTypes.add(type);
+        ElementFilter.typesIn(type.getEnclosedElements()).stream()
+                .sorted(Comparator.comparing(nested -> nested.getQualifiedName().toString()))
+                .forEach(nested -> addWithNestedTypes(nested, allTypes));
+    }
+
+    private void writeTypeFile(TypeElement type, Elements elements) {
         Path packageDir = packageDirectory(type);
         createDirectories(packageDir);
 
-        TypeDocumentation payload = buildTypeDocumentation(type, elements);
         Path typeFile = packageDir.resolve(typeFileName(type));
-        if (!writeJson(typeFile, payload)) {
-            throw new RuntimeException("Failed to write type documentation for " + payload.qualifiedName());
+        TypeDocumentation payload = writeType(type, elements, typeFile);
+        if (queryIndexes != null) {
+            queryIndexes.addType(payload, relativePath(typeFile), elements.isDeprecated(type));
         }
 
         registerFile(packageDir, new IndexFileEntry(typeFile.getFileName().toString(),
@@ -132,50 +346,227 @@ public final class DocGenerationTask {
                 payload.qualifiedName(),
                 payload.kind()));
         registerAncestors(packageDir);
+        if (memberCounts != null) {
+            memberCounts.merge(packageDir, memberCount(payload), Long::sum);
+        }
+    }
 
-        ElementFilter.typesIn(type.getEnclosedElements()).stream()
-                .sorted(Comparator.comparing(nested -> nested.getQualifiedName().toString()))
-                .forEach(nested -> writeTypeRecursively(nested, elements));
+    private TypeDocumentation writeType(TypeElement type, Elements elements, Path typeFile) {
+        if (configuration.splitMemberThreshold() > 0) {
+            List<MemberEntry> members = memberEntries(type, elements);
+            if (members.size() > configuration.splitMemberThreshold()) {
+                return writeSplitType(buildTypeDocumentation(type, elements, false), members, typeFile);
+            }
+        }
+
+        TypeDocumentation payload = buildTypeDocumentation(type, elements, true);
+        boolean written;
+        if (configuration.splitByteThreshold() > 0) {
+            validate(typeFile, payload);
+            byte[] content = serialize(payload);
+            if (content.length > configuration.splitByteThreshold()) {
+                return writeSplitType(payload, memberEntries(payload), typeFile);
+            }
+            publish(typeFile, payload);
+            written = writeBytes(typeFile, content);
+        } else {
+            written = writeJson(typeFile, payload);
+        }
+        if (!written) {
+            throw new RuntimeException("Failed to write type documentation for " + payload.qualifiedName());
+        }
+        return payload;
     }
 
-    private <T> boolean processElements(Collection<T> elements, Consumer<T> consumer) {
-        try {
-            elements.forEach(consumer);
-            return true;
-        } catch (RuntimeException ex) {
-            reporter.print(Diagnostic.Kind.ERROR, ex.getMessage());
-            return false;
+    /**
+     * Writes the member details of a large type into chunk files next to the type file, which keeps only a
+     * summary of the members. Chunk records are built on the traversal thread, as the language model is not
+     * thread-safe, and serialized in parallel waves of at most one chunk per processor.
+     */
+    private TypeDocumentation writeSplitType(TypeDocumentation header, List<MemberEntry> members, Path typeFile) {
+        MemberSplitter splitter = new MemberSplitter(members, configuration.memberChunkSize());
+        String baseName = typeFile.getFileName().toString();
+        baseName = baseName.substring(0, baseName.length() - ".json".length());
+
+        List<String> chunkFiles = new ArrayList<>(splitter.chunkCount());
+        int waveSize = Math.max(1, Runtime.getRuntime().availableProcessors());
+        List<CompletableFuture<byte[]>> wave = new ArrayList<>(waveSize);
+        for (int chunk = 0; chunk < splitter.chunkCount(); chunk++) {
+            chunkFiles.add(baseName + ".members-" + chunk + ".json");
+            MemberChunk payload = withTypeSignatures(splitter.chunk(header.qualifiedName(), chunk));
+            validate(typeFile.resolveSibling(chunkFiles.get(chunk)), payload);
+            publish(typeFile.resolveSibling(chunkFiles.get(chunk)), payload);
+            if (queryIndexes != null) {
+                queryIndexes.addChunk(payload, relativePath(typeFile));
+            }
+            wave.add(CompletableFuture.supplyAsync(() -> serialize(payload)));
+            if (wave.size() == waveSize) {
+                writeChunks(typeFile, chunkFiles, chunk + 1 - wave.size(), wave);
+            }
+        }
+        writeChunks(typeFile, chunkFiles, chunkFiles.size() - wave.size(), wave);
+
+        TypeDocumentation payload = new TypeDocumentation(header.name(),
+                header.qualifiedName(),
+                header.packageName(),
+                header.kind(),
+                header.modifiers(),
+                header.annotations(),
+                header.documentation(),
+                header.typeParameters(),
+                header.superClass(),
+                header.interfaces(),
+                List.of(),
+                List.of(),
+                List.of(),
+                List.of(),
+                List.of(),
+                header.nestedTypes(),
+                header.inheritedMembers(),
+                header.source(),
+                splitter.summaries(),
+                List.copyOf(chunkFiles),
+                typeSignaturesOf(header.superClass(), header.interfaces(), List.of(), List.of(), List.of(), List.of()));
+        if (!writeJson(typeFile, payload)) {
+            throw new RuntimeException("Failed to write type documentation for " + payload.qualifiedName());
+        }
+        return payload;
+    }
+
+    private void writeChunks(Path typeFile, List<String> chunkFiles, int firstChunk, List<CompletableFuture<byte[]>> wave) {
+        for (int i = 0; i < wave.size(); i++) {
+            Path chunkFile = typeFile.resolveSibling(chunkFiles.get(firstChunk + i));
+            byte[] content;
+            try {
+                content = wave.get(i).join();
+            } catch (CompletionException e) {
+                throw new RuntimeException("Failed to serialize " + chunkFile + ": " + e.getCause().getMessage(), e);
+            }
+            if (!writeBytes(chunkFile, content)) {
+                throw new RuntimeException("Failed to write member chunk " + chunkFile);
+            }
+        }
+        wave.clear();
+    }
+
+    private List<MemberEntry> memberEntries(TypeElement type, Elements elements) {
+        List<MemberEntry> members = new ArrayList<>();
+        for (VariableElement field : sortedFields(type)) {
+            String name = field.getSimpleName().toString();
+            members.add(new MemberEntry("field", name, name, () -> toFieldDocumentation(type, field, elements)));
+        }
+        for (ExecutableElement constructor : sortedConstructors(type)) {
+            String name = type.getSimpleName().toString();
+            members.add(new MemberEntry("constructor", name, signatureOf(name, constructor),
+                    () -> toConstructorDocumentation(type, constructor, elements)));
+        }
+        for (ExecutableElement method : sortedMethods(type)) {
+            String name = method.getSimpleName().toString();
+            members.add(new MemberEntry("method", name, signatureOf(name, method),
+                    () -> toMethodDocumentation(type, method, elements)));
+        }
+        for (VariableElement constant : sortedEnumConstants(type)) {
+            String name = constant.getSimpleName().toString();
+            members.add(new MemberEntry("enumConstant", name, name,
+                    () -> toEnumConstantDocumentation(type, constant, elements)));
+        }
+        for (RecordComponentElement component : sortedRecordComponents(type)) {
+            String name = component.getSimpleName().toString();
+            members.add(new MemberEntry("recordComponent", name, name,
+                    () -> toRecordComponentDocumentation(type, component, elements)));
+        }
+        return members;
+    }
+
+    private List<MemberEntry> memberEntries(TypeDocumentation payload) {
+        List<MemberEntry> members = new ArrayList<>();
+        payload.fields().forEach(field -> members.add(
+                new MemberEntry("field", field.name(), field.name(), () -> field)));
+        payload.constructors().forEach(constructor -> members.add(
+                new MemberEntry("constructor", constructor.name(),
+                        signatureOf(constructor.name(), constructor.parameters()), () -> constructor)));
+        payload.methods().forEach(method -> members.add(
+                new MemberEntry("method", method.name(), signatureOf(method.name(), method.parameters()), () -> method)));
+        payload.enumConstants().forEach(constant -> members.add(
+                new MemberEntry("enumConstant", constant.name(), constant.name(), () -> constant)));
+        payload.recordComponents().forEach(component -> members.add(
+                new MemberEntry("recordComponent", component.name(), component.name(), () -> component)));
+        return members;
+    }
+
+    private String signatureOf(String name, ExecutableElement executable) {
+        return executable.getParameters().stream()
+                .map(parameter -> parameter.asType().toString())
+                .collect(Collectors.joining(",", name + "(", ")"));
+    }
+
+    private String signatureOf(String name, List<MethodParameter> parameters) {
+        return parameters.stream()
+                .map(MethodParameter::type)
+                .collect(Collectors.joining(",", name + "(", ")"));
+    }
+
+    private long memberCount(TypeDocumentation payload) {
+        if (payload.memberSummaries() != null) {
+            return payload.memberSummaries().size();
         }
+        return payload.fields().size()
+                + payload.constructors().size()
+                + payload.methods().size()
+                + payload.enumConstants().size()
+                + payload.recordComponents().size();
     }
 
-    private TypeDocumentation buildTypeDocumentation(TypeElement type, Elements elements) {
+    /**
+     * Runs {@code consumer} for each element, recording a failure under the element's name. Stops at the first
+     * failure unless {@code --continue-on-error} is set, in which case the remaining elements are still processed
+     * and the run fails at the end.
+     */
+    private <T extends QualifiedNameable> boolean processElements(String kind, Collection<T> elements, Consumer<T> consumer) {
+        for (T element : elements) {
+            try {
+                consumer.accept(element);
+            } catch (RuntimeException ex) {
+                String name = element.getQualifiedName().toString();
+                String message = ex.getMessage() != null ? ex.getMessage() : ex.toString();
+                failures.add(new ElementError(kind, name, message, ex.getClass().getName()));
+                reportError("Failed to document " + kind + " " + name + ": " + message);
+                if (!configuration.continueOnError()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private TypeDocumentation buildTypeDocumentation(TypeElement type, Elements elements, boolean includeMembers) {
         String qualifiedName = elements.getBinaryName(type).toString();
         String packageName = elements.getPackageOf(type).getQualifiedName().toString();
         String kind = type.getKind().name().toLowerCase();
-        String documentation = elements.getDocComment(type);
+        String documentation = documentationOf(type, elements);
 
         List<String> modifiers = modifiersOf(type);
         List<AnnotationDocumentation> annotations = annotationsOf(type);
-        List<String> typeParameters = type.getTypeParameters().stream()
-                .map(TypeParameterElement::toString)
-                .toList();
+        List<String> typeParameters = typeParametersOf(type);
 
         TypeMirror superClassMirror = type.getSuperclass();
         String superClass = superClassMirror != null && superClassMirror.getKind() != TypeKind.NONE
-                ? superClassMirror.toString()
+                ? typeNameOf(superClassMirror)
                 : null;
 
-        List<String> interfaces = type.getInterfaces().stream()
-                .map(Object::toString)
-                .sorted()
-                .toList();
+        List<String> interfaces = sortedTypeNames(type.getInterfaces());
 
-        List<FieldDocumentation> fields = extractFields(type, elements);
-        List<ConstructorDocumentation> constructors = extractConstructors(type, elements);
-        List<MethodDocumentation> methods = extractMethods(type, elements);
-        List<EnumConstantDocumentation> enumConstants = extractEnumConstants(type, elements);
-        List<RecordComponentDocumentation> recordComponents = extractRecordComponents(type, elements);
+        List<FieldDocumentation> fields = includeMembers ? extractFields(type, elements) : List.of();
+        List<ConstructorDocumentation> constructors = includeMembers ? extractConstructors(type, elements) : List.of();
+        List<MethodDocumentation> methods = includeMembers ? extractMethods(type, elements) : List.of();
+        List<EnumConstantDocumentation> enumConstants = includeMembers ? extractEnumConstants(type, elements) : List.of();
+        List<RecordComponentDocumentation> recordComponents = includeMembers
+                ? extractRecordComponents(type, elements)
+                : List.of();
         List<NestedTypeDocumentation> nestedTypes = extractNestedTypes(type, elements);
+        List<InheritedMemberDocumentation> inheritedMembers = inheritedMemberResolver != null
+                ? inheritedMemberResolver.resolve(type)
+                : null;
 
         return new TypeDocumentation(type.getSimpleName().toString(),
                 qualifiedName,
@@ -192,29 +583,106 @@ public final class DocGenerationTask {
                 methods,
                 enumConstants,
                 recordComponents,
-                nestedTypes);
+                nestedTypes,
+                inheritedMembers,
+                positionOf(type),
+                null,
+                null,
+                typeSignaturesOf(superClass, interfaces, fields, constructors, methods, recordComponents));
+    }
+
+    private MemberChunk withTypeSignatures(MemberChunk chunk) {
+        if (typeSignatures == null) {
+            return chunk;
+        }
+        return new MemberChunk(chunk.qualifiedName(),
+                chunk.chunk(),
+                chunk.fields(),
+                chunk.constructors(),
+                chunk.methods(),
+                chunk.enumConstants(),
+                chunk.recordComponents(),
+                typeSignaturesOf(null, List.of(), chunk.fields(), chunk.constructors(), chunk.methods(),
+                        chunk.recordComponents()));
+    }
+
+    /**
+     * Collects the signature table for every type string referenced by the given parts of a document.
+     */
+    private Map<String, TypeSignature> typeSignaturesOf(String superClass,
+            List<String> interfaces,
+            List<FieldDocumentation> fields,
+            List<ConstructorDocumentation> constructors,
+            List<MethodDocumentation> methods,
+            List<RecordComponentDocumentation> recordComponents) {
+        if (typeSignatures == null) {
+            return null;
+        }
+        Set<String> keys = new HashSet<>(interfaces);
+        if (superClass != null) {
+            keys.add(superClass);
+        }
+        fields.forEach(field -> keys.add(field.type()));
+        for (ConstructorDocumentation constructor : constructors) {
+            constructor.parameters().forEach(parameter -> keys.add(parameter.type()));
+            keys.addAll(constructor.thrownTypes());
+        }
+        for (MethodDocumentation method : methods) {
+            keys.add(method.returnType());
+            method.parameters().forEach(parameter -> keys.add(parameter.type()));
+            keys.addAll(method.thrownTypes());
+        }
+        recordComponents.forEach(component -> keys.add(component.type()));
+        return typeSignatures.tableFor(keys);
+    }
+
+    private String typeNameOf(TypeMirror type) {
+        return typeSignatures != null ? typeSignatures.intern(type) : type.toString();
+    }
+
+    private String linkOf(TypeElement type) {
+        if (!environment.isIncluded(type)) {
+            return null;
+        }
+        Path file = configuration.outputDirectory().relativize(packageDirectory(type)).resolve(typeFileName(type));
+        return file.toString().replace(File.separatorChar, '/');
     }
 
     private List<FieldDocumentation> extractFields(TypeElement type, Elements elements) {
-        String qualifiedTypeName = elements.getBinaryName(type).toString();
+        return SharedLists.compact(sortedFields(type).stream()
+                .map(field -> toFieldDocumentation(type, field, elements))
+                .toList());
+    }
+
+    private List<VariableElement> sortedFields(TypeElement type) {
         return ElementFilter.fieldsIn(type.getEnclosedElements()).stream()
                 .filter(field -> field.getKind() == ElementKind.FIELD)
                 .sorted(Comparator.comparing(field -> field.getSimpleName().toString()))
-                .map(field -> new FieldDocumentation(
-                        field.getSimpleName().toString(),
-                        qualifiedTypeName + "." + field.getSimpleName(),
-                        field.asType().toString(),
-                        modifiersOf(field),
-                        annotationsOf(field),
-                        elements.getDocComment(field),
-                        field.getConstantValue()))
                 .toList();
     }
 
+    private FieldDocumentation toFieldDocumentation(TypeElement declaringType, VariableElement field, Elements elements) {
+        return markDeprecation(field, elements, new FieldDocumentation(
+                field.getSimpleName().toString(),
+                elements.getBinaryName(declaringType) + "." + field.getSimpleName(),
+                typeNameOf(field.asType()),
+                modifiersOf(field),
+                annotationsOf(field),
+                documentationOf(field, elements),
+                field.getConstantValue(),
+                constantExpressions != null ? constantExpressions.expressionOf(field) : null,
+                positionOf(declaringType, field)));
+    }
+
     private List<ConstructorDocumentation> extractConstructors(TypeElement type, Elements elements) {
+        return SharedLists.compact(sortedConstructors(type).stream()
+                .map(constructor -> toConstructorDocumentation(type, constructor, elements))
+                .toList());
+    }
+
+    private List<ExecutableElement> sortedConstructors(TypeElement type) {
         return ElementFilter.constructorsIn(type.getEnclosedElements()).stream()
                 .sorted(methodComparator())
-                .map(constructor -> toConstructorDocumentation(type, constructor, elements))
                 .toList();
     }
 
@@ -224,22 +692,15 @@ public final class DocGenerationTask {
         String constructorName = declaringType.getSimpleName().toString();
         String qualifiedTypeName = elements.getBinaryName(declaringType).toString();
         String qualifiedConstructorName = qualifiedTypeName + "#" + constructorName;
-        String documentation = elements.getDocComment(constructor);
+        String documentation = documentationOf(constructor, elements);
 
         List<String> modifiers = modifiersOf(constructor);
         List<AnnotationDocumentation> annotations = annotationsOf(constructor);
-        List<String> typeParameters = constructor.getTypeParameters().stream()
-                .map(TypeParameterElement::toString)
-                .toList();
-        List<MethodParameter> parameters = constructor.getParameters().stream()
-                .map(parameter -> toParameterDocumentation(constructor, parameter))
-                .toList();
-        List<String> thrownTypes = constructor.getThrownTypes().stream()
-                .map(Object::toString)
-                .sorted()
-                .toList();
+        List<String> typeParameters = typeParametersOf(constructor);
+        List<MethodParameter> parameters = parametersOf(constructor);
+        List<String> thrownTypes = sortedTypeNames(constructor.getThrownTypes());
 
-        return new ConstructorDocumentation(constructorName,
+        return markDeprecation(constructor, elements, new ConstructorDocumentation(constructorName,
                 qualifiedConstructorName,
                 modifiers,
                 annotations,
@@ -247,13 +708,19 @@ public final class DocGenerationTask {
                 parameters,
                 thrownTypes,
                 constructor.isVarArgs(),
-                documentation);
+                documentation,
+                positionOf(declaringType, constructor)));
     }
 
     private List<MethodDocumentation> extractMethods(TypeElement type, Elements elements) {
+        return SharedLists.compact(sortedMethods(type).stream()
+                .map(method -> toMethodDocumentation(type, method, elements))
+                .toList());
+    }
+
+    private List<ExecutableElement> sortedMethods(TypeElement type) {
         return ElementFilter.methodsIn(type.getEnclosedElements()).stream()
                 .sorted(methodComparator())
-                .map(method -> toMethodDocumentation(type, method, elements))
                 .toList();
     }
 
@@ -266,55 +733,83 @@ public final class DocGenerationTask {
 
         List<String> modifiers = modifiersOf(method);
         List<AnnotationDocumentation> annotations = annotationsOf(method);
-        List<String> typeParameters = method.getTypeParameters().stream()
-                .map(TypeParameterElement::toString)
-                .toList();
-        List<MethodParameter> parameters = method.getParameters().stream()
-                .map(parameter -> toParameterDocumentation(method, parameter))
-                .toList();
-        List<String> thrownTypes = method.getThrownTypes().stream()
-                .map(Object::toString)
-                .sorted()
-                .toList();
+        List<String> typeParameters = typeParametersOf(method);
+        List<MethodParameter> parameters = parametersOf(method);
+        List<String> thrownTypes = sortedTypeNames(method.getThrownTypes());
 
-        return new MethodDocumentation(methodName,
+        return markDeprecation(method, elements, new MethodDocumentation(methodName,
                 qualifiedMethodName,
-                method.getReturnType().toString(),
+                typeNameOf(method.getReturnType()),
                 modifiers,
                 annotations,
                 typeParameters,
                 parameters,
                 thrownTypes,
                 method.isVarArgs(),
-                elements.getDocComment(method));
+                documentationOf(method, elements),
+                constantExpressions != null ? constantExpressions.defaultOf(declaringType, method) : null,
+                positionOf(declaringType, method)));
     }
 
     private List<EnumConstantDocumentation> extractEnumConstants(TypeElement type, Elements elements) {
-        String qualifiedTypeName = elements.getBinaryName(type).toString();
+        return SharedLists.compact(sortedEnumConstants(type).stream()
+                .map(constant -> toEnumConstantDocumentation(type, constant, elements))
+                .toList());
+    }
+
+    private List<VariableElement> sortedEnumConstants(TypeElement type) {
         return ElementFilter.fieldsIn(type.getEnclosedElements()).stream()
                 .filter(field -> field.getKind() == ElementKind.ENUM_CONSTANT)
                 .sorted(Comparator.comparing(field -> field.getSimpleName().toString()))
-                .map(constant -> new EnumConstantDocumentation(
-                        constant.getSimpleName().toString(),
-                        qualifiedTypeName + "." + constant.getSimpleName(),
-                        annotationsOf(constant),
-                        elements.getDocComment(constant)))
                 .toList();
     }
 
+    private EnumConstantDocumentation toEnumConstantDocumentation(TypeElement declaringType,
+            VariableElement constant,
+            Elements elements) {
+        return markDeprecation(constant, elements, new EnumConstantDocumentation(
+                constant.getSimpleName().toString(),
+                elements.getBinaryName(declaringType) + "." + constant.getSimpleName(),
+                annotationsOf(constant),
+                documentationOf(constant, elements),
+                positionOf(declaringType, constant)));
+    }
+
     private List<RecordComponentDocumentation> extractRecordComponents(TypeElement type, Elements elements) {
+        return SharedLists.compact(sortedRecordComponents(type).stream()
+                .map(component -> toRecordComponentDocumentation(type, component, elements))
+                .toList());
+    }
+
+    private List<RecordComponentElement> sortedRecordComponents(TypeElement type) {
         return ElementFilter.recordComponentsIn(type.getEnclosedElements()).stream()
                 .sorted(Comparator.comparing(component -> component.getSimpleName().toString()))
-                .map(component -> new RecordComponentDocumentation(
-                        component.getSimpleName().toString(),
-                        component.asType().toString(),
-                        annotationsOf(component),
-                        elements.getDocComment(component)))
                 .toList();
     }
 
+    private RecordComponentDocumentation toRecordComponentDocumentation(TypeElement declaringType,
+            RecordComponentElement component,
+            Elements elements) {
+        return markDeprecation(component, elements, new RecordComponentDocumentation(
+                component.getSimpleName().toString(),
+                typeNameOf(component.asType()),
+                annotationsOf(component),
+                documentationOf(component, elements),
+                positionOf(declaringType, component)));
+    }
+
+    /**
+     * Reports a deprecated member to the query indexes, which cannot tell tag-only deprecation from the model.
+     */
+    private <T> T markDeprecation(Element element, Elements elements, T member) {
+        if (queryIndexes != null && elements.isDeprecated(element)) {
+            queryIndexes.markDeprecated(member);
+        }
+        return member;
+    }
+
     private List<NestedTypeDocumentation> extractNestedTypes(TypeElement type, Elements elements) {
-        return ElementFilter.typesIn(type.getEnclosedElements()).stream()
+        return SharedLists.compact(ElementFilter.typesIn(type.getEnclosedElements()).stream()
                 .sorted(Comparator.comparing(nested -> nested.getSimpleName().toString()))
                 .map(nested -> new NestedTypeDocumentation(
                         nested.getSimpleName().toString(),
@@ -322,19 +817,46 @@ public final class DocGenerationTask {
                         nested.getKind().name().toLowerCase(),
                         modifiersOf(nested),
                         annotationsOf(nested)))
-                .toList();
+                .toList());
     }
 
-    private MethodParameter toParameterDocumentation(ExecutableElement executable, VariableElement parameter) {
+    private List<MethodParameter> parametersOf(ExecutableElement executable) {
+        List<? extends VariableElement> parameters = executable.getParameters();
+        if (parameters.isEmpty()) {
+            return List.of();
+        }
+        List<MethodParameter> result = new ArrayList<>(parameters.size());
+        for (int i = 0; i < parameters.size(); i++) {
+            boolean isVarArgsParam = executable.isVarArgs() && i == parameters.size() - 1;
+            result.add(toParameterDocumentation(parameters.get(i), isVarArgsParam));
+        }
+        return List.copyOf(result);
+    }
+
+    private MethodParameter toParameterDocumentation(VariableElement parameter, boolean isVarArgsParam) {
         List<AnnotationDocumentation> annotations = annotationsOf(parameter);
-        boolean isVarArgsParam = executable.isVarArgs()
-                && executable.getParameters().indexOf(parameter) == executable.getParameters().size() - 1;
         return new MethodParameter(parameter.getSimpleName().toString(),
-                parameter.asType().toString(),
+                typeNameOf(parameter.asType()),
                 isVarArgsParam,
                 annotations);
     }
 
+    private List<String> typeParametersOf(Parameterizable element) {
+        return SharedLists.compact(element.getTypeParameters().stream()
+                .map(TypeParameterElement::toString)
+                .toList());
+    }
+
+    private List<String> sortedTypeNames(List<? extends TypeMirror> types) {
+        if (types.isEmpty()) {
+            return List.of();
+        }
+        return types.stream()
+                .map(this::typeNameOf)
+                .sorted()
+                .toList();
+    }
+
     private Comparator<ExecutableElement> methodComparator() {
         return Comparator
                 .comparing((ExecutableElement method) -> method.getSimpleName().toString())
@@ -344,14 +866,15 @@ public final class DocGenerationTask {
     }
 
     private List<String> modifiersOf(Element element) {
-        return element.getModifiers().stream()
-                .map(Modifier::toString)
-                .sorted()
-                .toList();
+        return SharedLists.modifiers(element.getModifiers());
     }
 
     private List<AnnotationDocumentation> annotationsOf(Element element) {
-        return element.getAnnotationMirrors().stream()
+        List<? extends AnnotationMirror> mirrors = element.getAnnotationMirrors();
+        if (mirrors.isEmpty()) {
+            return List.of();
+        }
+        return mirrors.stream()
                 .map(this::toAnnotationDocumentation)
                 .toList();
     }
@@ -361,7 +884,8 @@ public final class DocGenerationTask {
         mirror.getElementValues().entrySet().stream()
                 .sorted(Map.Entry.comparingByKey(Comparator.comparing(e -> e.getSimpleName().toString())))
                 .forEach(entry -> values.put(entry.getKey().getSimpleName().toString(), formatAnnotationValue(entry.getValue())));
-        return new AnnotationDocumentation(mirror.getAnnotationType().toString(), values);
+        return new AnnotationDocumentation(mirror.getAnnotationType().toString(), values,
+                constantExpressions != null ? constantExpressions.appliedDefaultsOf(mirror) : null);
     }
 
     private String formatAnnotationValue(AnnotationValue value) {
@@ -369,34 +893,128 @@ public final class DocGenerationTask {
     }
 
     private boolean writeIndexes() {
+        return new IndexFinalizer(configuration.outputDirectory(), indexes, memberCounts).finish(this::writeJson);
+    }
+
+    private boolean writeDocumentationStrings() {
+        if (documentationStore == null) {
+            return true;
+        }
+        Path stringsFile = configuration.outputDirectory().resolve(DOCUMENTATION_STRINGS_FILE);
+        return writeJson(stringsFile, new DocumentationStrings("sha-256", documentationStore.snapshot()));
+    }
+
+    private boolean writeQueryIndexes() {
+        if (queryIndexes == null) {
+            return true;
+        }
         boolean success = true;
-        for (Map.Entry<Path, DirectoryIndex> entry : indexes.entrySet()) {
-            Path directory = entry.getKey();
-            DirectoryIndex index = entry.getValue();
-            Path indexFile = directory.resolve("index.json");
-            if (!writeJson(indexFile, index)) {
-                success = false;
-            }
+        for (Map.Entry<String, ElementIndex> index : queryIndexes.finish().entrySet()) {
+            success &= writeJson(configuration.outputDirectory().resolve(index.getKey()), index.getValue());
         }
         return success;
     }
 
+    private boolean writeErrorReport() {
+        if (failures.isEmpty()) {
+            return true;
+        }
+        Path reportFile = configuration.outputDirectory().resolve(ERROR_REPORT_FILE);
+        return writeJson(reportFile, new ErrorReport(configuration.continueOnError(), List.copyOf(failures)));
+    }
+
     private boolean writeJson(Path path, Object payload) {
+        validate(path, payload);
+        publish(path, payload);
+        if (sink == null) {
+            return true;
+        }
+        return writeBytes(path, serialize(payload));
+    }
+
+    private byte[] serialize(Object payload) {
+        return JsonWriter.toBytes(payload, configuration.prettyPrint(), configuration.omitDefaults());
+    }
+
+    private void validate(Path path, Object payload) {
+        if (validator != null) {
+            Path relative = configuration.outputDirectory().relativize(path);
+            validator.validate(payload).forEach(violation -> reportInvalid(relative + ": " + violation));
+        }
+    }
+
+    private void publish(Path path, Object payload) {
+        if (listener != null) {
+            String relative = relativePath(path);
+            synchronized (listener) {
+                listener.documentGenerated(relative, payload);
+            }
+        }
+    }
+
+    private String relativePath(Path path) {
+        return configuration.outputDirectory().relativize(path).toString().replace(File.separatorChar, '/');
+    }
+
+    private void reportInvalid(String message) {
+        valid = false;
+        reportError(message);
+    }
+
+    /**
+     * Reports an error from any thread; index files are written concurrently.
+     */
+    private synchronized void reportError(String message) {
+        reporter.print(Diagnostic.Kind.ERROR, message);
+    }
+
+    private boolean writeBytes(Path path, byte[] content) {
+        if (sink == null) {
+            return true;
+        }
+        if (emitter != null) {
+            emitter.submit(relativePath(path), content);
+            return true;
+        }
         try {
-            JsonWriter.write(path, payload, configuration.prettyPrint());
+            sink.write(relativePath(path), content);
             return true;
         } catch (IOException e) {
-            reporter.print(Diagnostic.Kind.ERROR, "Failed to write " + path + ": " + e.getMessage());
+            reportError("Failed to write " + path + ": " + e.getMessage());
             return false;
         }
     }
 
+    private String documentationOf(Element element, Elements elements) {
+        String documentation = elements.getDocComment(element);
+        return documentationStore != null ? documentationStore.reference(documentation) : documentation;
+    }
+
+    private SourcePosition positionOf(TypeElement type) {
+        return sourcePositionResolver != null ? sourcePositionResolver.positionOf(type) : null;
+    }
+
+    private SourcePosition positionOf(TypeElement type, Element member) {
+        return sourcePositionResolver != null ? sourcePositionResolver.positionOf(type, member) : null;
+    }
+
     private Path packageDirectory(PackageElement pkg) {
+        Path root = moduleDirectory(pkg);
         String qualifiedName = pkg.getQualifiedName().toString();
         if (qualifiedName.isEmpty()) {
-            return configuration.outputDirectory();
+            return root;
         }
-        return configuration.outputDirectory().resolve(qualifiedName.replace('.', '/'));
+        return root.resolve(qualifiedName.replace('.', '/'));
+    }
+
+    private Path moduleDirectory(PackageElement pkg) {
+        if (configuration.moduleDirectories()) {
+            ModuleElement module = environment.getElementUtils().getModuleOf(pkg);
+            if (module != null && !module.isUnnamed()) {
+                return configuration.outputDirectory().resolve(module.getQualifiedName().toString());
+            }
+        }
+        return configuration.outputDirectory();
     }
 
     private Path packageDirectory(TypeElement type) {
@@ -427,11 +1045,11 @@ public final class DocGenerationTask {
     }
 
     private void createDirectories(Path directory) {
-        if (directory == null) {
+        if (directory == null || sink == null) {
             return;
         }
         try {
-            Files.createDirectories(directory);
+            sink.createDirectories(relativePath(directory));
         } catch (IOException e) {
             throw new RuntimeException("Unable to create directory " + directory + ": " + e.getMessage(), e);
         }
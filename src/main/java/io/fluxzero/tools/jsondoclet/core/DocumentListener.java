@@ -0,0 +1,16 @@
+package io.fluxzero.tools.jsondoclet.core;
+
+/**
+ * Receives every document a {@link DocGenerationTask} produces, in addition to or instead of writing it to disk.
+ */
+@FunctionalInterface
+public interface DocumentListener {
+    /**
+     * Called once per document, never concurrently with another call on the same listener.
+     *
+     * @param relativePath path of the document relative to the output root, using {@code /} as separator
+     * @param document the model that is (or would be) written to that path, e.g. a
+     *        {@link io.fluxzero.tools.jsondoclet.model.TypeDocumentation}
+     */
+    void documentGenerated(String relativePath, Object document);
+}
@@ -0,0 +1,70 @@
+package io.fluxzero.tools.jsondoclet.core;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Content-addressed store for documentation strings.
+ * <p>
+ * Each distinct text is kept once and identified by the leading 16 hex digits of its SHA-256 digest. In the
+ * unlikely event that two texts share that prefix, the full digest is used as the key for the later one.
+ */
+final class DocumentationStore {
+    private static final int SHORT_KEY_LENGTH = 16;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Map<String, String> strings = new HashMap<>();
+    private final MessageDigest digest;
+
+    DocumentationStore() {
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Stores {@code text} and returns its reference key, or {@code null} when {@code text} is {@code null}.
+     */
+    String reference(String text) {
+        if (text == null) {
+            return null;
+        }
+        String fullKey = toHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        String shortKey = fullKey.substring(0, SHORT_KEY_LENGTH);
+        String existing = strings.putIfAbsent(shortKey, text);
+        if (existing == null || existing.equals(text)) {
+            return shortKey;
+        }
+        strings.putIfAbsent(fullKey, text);
+        return fullKey;
+    }
+
+    /**
+     * Resolves a key returned by {@link #reference(String)}.
+     */
+    String resolve(String key) {
+        return key == null ? null : strings.get(key);
+    }
+
+    /**
+     * Returns all stored strings sorted by key.
+     */
+    Map<String, String> snapshot() {
+        return new TreeMap<>(strings);
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
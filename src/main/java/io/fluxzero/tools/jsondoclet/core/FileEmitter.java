@@ -0,0 +1,22 @@
+package io.fluxzero.tools.jsondoclet.core;
+
+import java.util.List;
+
+/**
+ * Asynchronous stage writing serialized documents to the output sink off the traversal thread.
+ */
+interface FileEmitter {
+    /**
+     * Hands a serialized document over for writing, blocking while the stage is saturated.
+     *
+     * @param path document path relative to the output root
+     */
+    void submit(String path, byte[] content);
+
+    /**
+     * Waits until every submitted document has been written and releases the stage's threads.
+     *
+     * @return failure messages for documents that could not be written, in no particular order
+     */
+    List<String> awaitCompletion();
+}
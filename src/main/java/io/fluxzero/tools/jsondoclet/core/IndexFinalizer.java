@@ -0,0 +1,82 @@
+package io.fluxzero.tools.jsondoclet.core;
+
+import io.fluxzero.tools.jsondoclet.model.DirectoryIndex;
+import io.fluxzero.tools.jsondoclet.model.DirectoryIndex.IndexStatistics;
+import io.fluxzero.tools.jsondoclet.model.DirectoryIndex.SubdirectoryEntry;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.BiPredicate;
+
+/**
+ * Finalizes the directory indexes collected during traversal and hands them to a writer.
+ * <p>
+ * Directories are grouped by depth in a single sorted pass and processed deepest level first: each level's
+ * entries are sorted and its aggregate counts derived from the already finished level below, after which
+ * the whole level is written in parallel. The resulting files do not depend on traversal or hash order.
+ */
+final class IndexFinalizer {
+    private final Path root;
+    private final Map<Path, DirectoryIndex> indexes;
+    private final Map<Path, Long> memberCounts;
+
+    /**
+     * @param memberCounts number of members of the types directly in each directory, or {@code null} to skip
+     *        aggregate counts
+     */
+    IndexFinalizer(Path root, Map<Path, DirectoryIndex> indexes, Map<Path, Long> memberCounts) {
+        this.root = root;
+        this.indexes = indexes;
+        this.memberCounts = memberCounts;
+    }
+
+    /**
+     * Sorts, optionally aggregates and writes every index, bottom-up.
+     *
+     * @param writer writes one index to the given file and returns whether that succeeded; must be thread-safe
+     * @return {@code true} when every index was written
+     */
+    boolean finish(BiPredicate<Path, DirectoryIndex> writer) {
+        NavigableMap<Integer, List<Path>> levels = new TreeMap<>(Comparator.reverseOrder());
+        indexes.keySet().stream()
+                .sorted()
+                .forEach(directory -> levels.computeIfAbsent(depthOf(directory), ignored -> new ArrayList<>())
+                        .add(directory));
+
+        boolean success = true;
+        for (List<Path> level : levels.values()) {
+            for (Path directory : level) {
+                DirectoryIndex index = indexes.get(directory);
+                index.sortEntries();
+                if (memberCounts != null) {
+                    index.setStatistics(aggregate(directory, index));
+                }
+            }
+            success &= level.parallelStream()
+                    .map(directory -> writer.test(directory.resolve("index.json"), indexes.get(directory)))
+                    .reduce(true, Boolean::logicalAnd);
+        }
+        return success;
+    }
+
+    private IndexStatistics aggregate(Path directory, DirectoryIndex index) {
+        long types = index.getFiles().size();
+        long members = memberCounts.getOrDefault(directory, 0L);
+        for (SubdirectoryEntry subdirectory : index.getSubdirectories()) {
+            DirectoryIndex child = indexes.get(directory.resolve(subdirectory.path()));
+            if (child != null && child.getStatistics() != null) {
+                types += child.getStatistics().types();
+                members += child.getStatistics().members();
+            }
+        }
+        return new IndexStatistics(types, members);
+    }
+
+    private int depthOf(Path directory) {
+        return directory.equals(root) ? 0 : root.relativize(directory).getNameCount();
+    }
+}
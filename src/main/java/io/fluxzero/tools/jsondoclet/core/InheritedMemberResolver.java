@@ -0,0 +1,214 @@
+package io.fluxzero.tools.jsondoclet.core;
+
+import io.fluxzero.tools.jsondoclet.model.InheritedMemberDocumentation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+/**
+ * Resolves the methods and fields a type inherits from its supertypes.
+ * <p>
+ * The members visible on each supertype are computed once and memoized, so a base class shared by many
+ * subclasses is walked a single time regardless of how many types extend it.
+ */
+final class InheritedMemberResolver {
+    private final Elements elements;
+    private final Types types;
+    private final Map<TypeElement, List<Element>> visibleMembers = new IdentityHashMap<>();
+    private final Map<TypeElement, List<Element>> inheritedMembers = new IdentityHashMap<>();
+
+    InheritedMemberResolver(Elements elements, Types types) {
+        this.elements = elements;
+        this.types = types;
+    }
+
+    /**
+     * Returns references to the members {@code type} inherits, sorted by kind, name, signature and declaring type.
+     */
+    List<InheritedMemberDocumentation> resolve(TypeElement type) {
+        return inherited(type).stream()
+                .map(member -> toDocumentation(type, member))
+                .sorted(Comparator.comparing(InheritedMemberDocumentation::kind)
+                        .thenComparing(InheritedMemberDocumentation::name)
+                        .thenComparing(InheritedMemberDocumentation::signature)
+                        .thenComparing(InheritedMemberDocumentation::declaringType))
+                .toList();
+    }
+
+    private List<Element> inherited(TypeElement type) {
+        List<Element> cached = inheritedMembers.get(type);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<ExecutableElement> declaredMethods = ElementFilter.methodsIn(type.getEnclosedElements());
+        Set<String> declaredFields = ElementFilter.fieldsIn(type.getEnclosedElements()).stream()
+                .map(field -> field.getSimpleName().toString())
+                .collect(Collectors.toSet());
+        PackageElement typePackage = elements.getPackageOf(type);
+
+        Set<Element> candidates = new LinkedHashSet<>();
+        for (TypeElement supertype : directSupertypes(type)) {
+            for (Element member : visible(supertype)) {
+                if (isAccessibleFrom(member, typePackage)
+                        && !isOverriddenOrHidden(member, type, declaredMethods, declaredFields)) {
+                    candidates.add(member);
+                }
+            }
+        }
+
+        List<Element> result = removeOverriddenCandidates(type, candidates);
+        inheritedMembers.put(type, result);
+        return result;
+    }
+
+    private List<Element> visible(TypeElement type) {
+        List<Element> cached = visibleMembers.get(type);
+        if (cached != null) {
+            return cached;
+        }
+        boolean isInterface = type.getKind().isInterface();
+        List<Element> members = new ArrayList<>();
+        for (Element member : type.getEnclosedElements()) {
+            if (member.getModifiers().contains(Modifier.PRIVATE)) {
+                continue;
+            }
+            if (member.getKind() == ElementKind.METHOD) {
+                if (!(isInterface && member.getModifiers().contains(Modifier.STATIC))) {
+                    members.add(member);
+                }
+            } else if (member.getKind() == ElementKind.FIELD) {
+                members.add(member);
+            }
+        }
+        members.addAll(inherited(type));
+        List<Element> result = Collections.unmodifiableList(members);
+        visibleMembers.put(type, result);
+        return result;
+    }
+
+    private List<TypeElement> directSupertypes(TypeElement type) {
+        List<TypeElement> supertypes = new ArrayList<>();
+        addSupertype(supertypes, type.getSuperclass());
+        type.getInterfaces().forEach(mirror -> addSupertype(supertypes, mirror));
+        return supertypes;
+    }
+
+    private void addSupertype(List<TypeElement> supertypes, TypeMirror mirror) {
+        if (mirror != null && mirror.getKind() == TypeKind.DECLARED
+                && ((DeclaredType) mirror).asElement() instanceof TypeElement element) {
+            supertypes.add(element);
+        }
+    }
+
+    private boolean isAccessibleFrom(Element member, PackageElement typePackage) {
+        Set<Modifier> modifiers = member.getModifiers();
+        if (modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.PROTECTED)) {
+            return true;
+        }
+        Element declaringType = member.getEnclosingElement();
+        return declaringType.getKind().isInterface() || elements.getPackageOf(declaringType).equals(typePackage);
+    }
+
+    private boolean isOverriddenOrHidden(Element member,
+            TypeElement type,
+            List<ExecutableElement> declaredMethods,
+            Set<String> declaredFields) {
+        if (member instanceof ExecutableElement method) {
+            for (ExecutableElement declared : declaredMethods) {
+                if (declared.getSimpleName().equals(method.getSimpleName())
+                        && (elements.overrides(declared, method, type) || hasSameErasedParameters(declared, method))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return declaredFields.contains(member.getSimpleName().toString());
+    }
+
+    private List<Element> removeOverriddenCandidates(TypeElement type, Set<Element> candidates) {
+        Map<String, List<ExecutableElement>> methodsByName = new HashMap<>();
+        for (Element candidate : candidates) {
+            if (candidate instanceof ExecutableElement method) {
+                methodsByName.computeIfAbsent(method.getSimpleName().toString(), ignored -> new ArrayList<>())
+                        .add(method);
+            }
+        }
+
+        List<Element> result = new ArrayList<>();
+        for (Element candidate : candidates) {
+            if (candidate instanceof ExecutableElement method
+                    && isOverriddenByCandidate(type, method, methodsByName.get(method.getSimpleName().toString()))) {
+                continue;
+            }
+            result.add(candidate);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private boolean isOverriddenByCandidate(TypeElement type, ExecutableElement method, List<ExecutableElement> sameName) {
+        for (ExecutableElement other : sameName) {
+            if (other != method && !other.getEnclosingElement().equals(method.getEnclosingElement())
+                    && elements.overrides(other, method, type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasSameErasedParameters(ExecutableElement first, ExecutableElement second) {
+        List<? extends VariableElement> firstParameters = first.getParameters();
+        List<? extends VariableElement> secondParameters = second.getParameters();
+        if (firstParameters.size() != secondParameters.size()) {
+            return false;
+        }
+        for (int i = 0; i < firstParameters.size(); i++) {
+            if (!types.isSameType(types.erasure(firstParameters.get(i).asType()),
+                    types.erasure(secondParameters.get(i).asType()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private InheritedMemberDocumentation toDocumentation(TypeElement type, Element member) {
+        TypeElement declaringType = (TypeElement) member.getEnclosingElement();
+        String name = member.getSimpleName().toString();
+        String kind = member.getKind() == ElementKind.METHOD ? "method" : "field";
+        String signature = member instanceof ExecutableElement method ? methodSignature(type, method) : name;
+        return new InheritedMemberDocumentation(kind, name, signature, elements.getBinaryName(declaringType).toString());
+    }
+
+    private String methodSignature(TypeElement type, ExecutableElement method) {
+        List<? extends TypeMirror> parameterTypes;
+        try {
+            parameterTypes = ((ExecutableType) types.asMemberOf((DeclaredType) type.asType(), method)).getParameterTypes();
+        } catch (IllegalArgumentException e) {
+            parameterTypes = method.getParameters().stream().map(Element::asType).toList();
+        }
+        return method.getSimpleName() + parameterTypes.stream()
+                .map(TypeMirror::toString)
+                .collect(Collectors.joining(",", "(", ")"));
+    }
+}
@@ -0,0 +1,89 @@
+package io.fluxzero.tools.jsondoclet.core;
+
+import io.fluxzero.tools.jsondoclet.model.ConstructorDocumentation;
+import io.fluxzero.tools.jsondoclet.model.EnumConstantDocumentation;
+import io.fluxzero.tools.jsondoclet.model.FieldDocumentation;
+import io.fluxzero.tools.jsondoclet.model.MemberChunk;
+import io.fluxzero.tools.jsondoclet.model.MemberSummary;
+import io.fluxzero.tools.jsondoclet.model.MethodDocumentation;
+import io.fluxzero.tools.jsondoclet.model.RecordComponentDocumentation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Partitions the members of a large type into fixed-size chunks.
+ * <p>
+ * Member documentation is supplied lazily so a chunk's records only exist while that chunk is being
+ * serialized, instead of the whole type being materialized as a single {@code TypeDocumentation}.
+ */
+final class MemberSplitter {
+    private final List<MemberEntry> members;
+    private final int chunkSize;
+
+    MemberSplitter(List<MemberEntry> members, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Member chunk size must be positive: " + chunkSize);
+        }
+        this.members = members;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Returns the number of chunk files the members are split into.
+     */
+    int chunkCount() {
+        return (members.size() + chunkSize - 1) / chunkSize;
+    }
+
+    /**
+     * Returns the summary of every member in declaration-group order, pointing at the chunk holding its details.
+     */
+    List<MemberSummary> summaries() {
+        List<MemberSummary> summaries = new ArrayList<>(members.size());
+        for (int i = 0; i < members.size(); i++) {
+            MemberEntry member = members.get(i);
+            summaries.add(new MemberSummary(member.kind(), member.name(), member.signature(), i / chunkSize));
+        }
+        return summaries;
+    }
+
+    /**
+     * Builds the documentation records of chunk {@code index}.
+     */
+    MemberChunk chunk(String qualifiedName, int index) {
+        List<FieldDocumentation> fields = new ArrayList<>();
+        List<ConstructorDocumentation> constructors = new ArrayList<>();
+        List<MethodDocumentation> methods = new ArrayList<>();
+        List<EnumConstantDocumentation> enumConstants = new ArrayList<>();
+        List<RecordComponentDocumentation> recordComponents = new ArrayList<>();
+        int end = Math.min(members.size(), (index + 1) * chunkSize);
+        for (MemberEntry member : members.subList(index * chunkSize, end)) {
+            Object documentation = member.documentation().get();
+            if (documentation instanceof FieldDocumentation field) {
+                fields.add(field);
+            } else if (documentation instanceof ConstructorDocumentation constructor) {
+                constructors.add(constructor);
+            } else if (documentation instanceof MethodDocumentation method) {
+                methods.add(method);
+            } else if (documentation instanceof EnumConstantDocumentation constant) {
+                enumConstants.add(constant);
+            } else if (documentation instanceof RecordComponentDocumentation component) {
+                recordComponents.add(component);
+            } else {
+                throw new IllegalStateException("Unsupported member documentation " + documentation);
+            }
+        }
+        return new MemberChunk(qualifiedName, index, List.copyOf(fields), List.copyOf(constructors),
+                List.copyOf(methods), List.copyOf(enumConstants), List.copyOf(recordComponents), null);
+    }
+
+    /**
+     * A member to be split, with its documentation built on demand.
+     *
+     * @param kind member kind as written to {@link MemberSummary#kind()}
+     * @param signature method or constructor name followed by its parameter types; the name for other members
+     */
+    record MemberEntry(String kind, String name, String signature, Supplier<?> documentation) {
+    }
+}
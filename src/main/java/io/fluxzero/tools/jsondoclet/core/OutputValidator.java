@@ -0,0 +1,430 @@
+package io.fluxzero.tools.jsondoclet.core;
+
+import io.fluxzero.tools.jsondoclet.model.DirectoryIndex;
+import io.fluxzero.tools.jsondoclet.model.DocumentationStrings;
+import io.fluxzero.tools.jsondoclet.model.ElementIndex;
+import io.fluxzero.tools.jsondoclet.model.ErrorReport;
+import io.fluxzero.tools.jsondoclet.model.MemberChunk;
+import io.fluxzero.tools.jsondoclet.model.OmitWhenNull;
+import io.fluxzero.tools.jsondoclet.model.TypeDocumentation;
+import io.fluxzero.tools.jsondoclet.util.JsonReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Validates documents against {@code json-doclet.schema.json} before they are written.
+ * <p>
+ * The schema is compiled once into a check per model class by pairing every record component with its schema
+ * property. Everything the Java types already guarantee (property names, value types, array element types) is
+ * verified a single time during compilation and reported as {@linkplain #drift() drift}; per document only
+ * what the types cannot guarantee is checked: nullness, enumerations and numeric minimums. Closed definitions
+ * ({@code additionalProperties: false}) are enforced per object by requiring exactly the compiled model class,
+ * whose property names already matched the schema. Properties are read through accessor functions bound once
+ * at compile time instead of reflective calls.
+ */
+final class OutputValidator {
+    /**
+     * Classpath location of the bundled schema.
+     */
+    static final String SCHEMA_RESOURCE = "/json-doclet.schema.json";
+
+    private static final String DEFINITION_PREFIX = "#/$defs/";
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType FUNCTION_TYPE = MethodType.methodType(Function.class);
+    private static final List<Class<?>> DOCUMENT_TYPES = List.of(
+            TypeDocumentation.class, DirectoryIndex.class, DocumentationStrings.class, MemberChunk.class,
+            ElementIndex.class, ErrorReport.class);
+
+    private final Map<String, Map<String, Object>> definitions;
+    private final Map<Class<?>, ObjectCheck> checks = new HashMap<>();
+    private final List<String> drift = new ArrayList<>();
+
+    @SuppressWarnings("unchecked")
+    OutputValidator(Map<String, Object> schema) {
+        this.definitions = (Map<String, Map<String, Object>>) schema.getOrDefault("$defs", Map.of());
+        DOCUMENT_TYPES.forEach(this::compileObject);
+        for (Object alternative : (List<Object>) schema.getOrDefault("oneOf", List.of())) {
+            String name = definitionName(((Map<String, Object>) alternative).get("$ref"));
+            if (checks.keySet().stream().noneMatch(type -> type.getSimpleName().equals(name))) {
+                drift.add(name + ": document type in the schema is not produced by the doclet");
+            }
+        }
+    }
+
+    /**
+     * Loads and compiles the schema bundled with the doclet.
+     */
+    @SuppressWarnings("unchecked")
+    static OutputValidator load() {
+        try (InputStream stream = OutputValidator.class.getResourceAsStream(SCHEMA_RESOURCE)) {
+            if (stream == null) {
+                throw new IllegalStateException("Schema resource " + SCHEMA_RESOURCE + " is missing");
+            }
+            JsonReader reader = new JsonReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+            return new OutputValidator((Map<String, Object>) reader.readValue());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read schema " + SCHEMA_RESOURCE, e);
+        }
+    }
+
+    /**
+     * Returns mismatches between the model records and the schema found while compiling, e.g. a record
+     * component without a schema property. Empty when both agree.
+     */
+    List<String> drift() {
+        return List.copyOf(drift);
+    }
+
+    /**
+     * Checks a document about to be written.
+     *
+     * @return violations as {@code <pointer>: <message>}, empty when the document is valid
+     */
+    List<String> validate(Object document) {
+        ObjectCheck check = checks.get(document.getClass());
+        if (check == null) {
+            return List.of("#: no schema definition for " + document.getClass().getSimpleName());
+        }
+        List<String> violations = new ArrayList<>(0);
+        check.check(document, "#", violations);
+        return violations;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ObjectCheck compileObject(Class<?> type) {
+        ObjectCheck check = checks.get(type);
+        if (check != null) {
+            return check;
+        }
+        String name = type.getSimpleName();
+        Map<String, Object> definition = definitions.get(name);
+        check = new ObjectCheck(type, definition != null && Boolean.FALSE.equals(
+                definition.get("additionalProperties")));
+        checks.put(type, check);
+        if (definition == null) {
+            drift.add(name + ": no schema definition");
+            return check;
+        }
+        Map<String, Map<String, Object>> schemaProperties =
+                (Map<String, Map<String, Object>>) definition.getOrDefault("properties", Map.of());
+        Collection<Object> required = (Collection<Object>) definition.getOrDefault("required", List.of());
+
+        Set<String> produced = new HashSet<>();
+        for (ModelProperty property : propertiesOf(type)) {
+            String where = name + "." + property.name();
+            produced.add(property.name());
+            Map<String, Object> propertySchema = schemaProperties.get(property.name());
+            if (propertySchema == null) {
+                drift.add(where + ": not declared in the schema");
+                continue;
+            }
+            boolean isRequired = required.contains(property.name());
+            if (isRequired && property.omitWhenNull()) {
+                drift.add(where + ": omitted when null but required by the schema");
+            }
+            check.properties.add(new PropertyCheck(property.name(),
+                    getterOf(property.accessor()),
+                    property.omitWhenNull() && !isRequired,
+                    allowsNull(propertySchema),
+                    compileValue(property.type(), propertySchema, where)));
+        }
+        for (String schemaProperty : schemaProperties.keySet()) {
+            if (!produced.contains(schemaProperty)) {
+                drift.add(name + "." + schemaProperty + ": declared in the schema but not produced by the model");
+            }
+        }
+        return check;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ValueCheck compileValue(Type type, Map<String, Object> schema, String where) {
+        Class<?> raw = rawType(type);
+        Object reference = schema.get("$ref");
+        if (reference != null) {
+            String name = definitionName(reference);
+            if (!raw.getSimpleName().equals(name)) {
+                drift.add(where + ": schema references " + name + " but the model uses " + raw.getSimpleName());
+                return null;
+            }
+            return compileObject(raw);
+        }
+
+        Set<String> types = typesOf(schema);
+        if (types.isEmpty()) {
+            return null;
+        }
+        if (raw == Object.class) {
+            return new JsonTypeCheck(types);
+        }
+        if (raw == String.class || raw == char.class || raw == Character.class) {
+            requireType(types, where, raw, "string");
+            List<Object> allowed = (List<Object>) schema.get("enum");
+            return allowed != null ? new EnumCheck(new LinkedHashSet<>(allowed)) : null;
+        }
+        if (raw == int.class || raw == Integer.class || raw == long.class || raw == Long.class) {
+            if (!types.contains("integer") && !types.contains("number")) {
+                requireType(types, where, raw, "integer");
+            }
+            Object minimum = schema.get("minimum");
+            return minimum instanceof Number number ? new MinimumCheck(number.longValue()) : null;
+        }
+        if (raw == boolean.class || raw == Boolean.class) {
+            requireType(types, where, raw, "boolean");
+            return null;
+        }
+        if (List.class.isAssignableFrom(raw) || raw.isArray()) {
+            requireType(types, where, raw, "array");
+            Map<String, Object> items = (Map<String, Object>) schema.getOrDefault("items", Map.of());
+            Type elementType = raw.isArray() ? raw.getComponentType() : typeArgument(type, 0);
+            ValueCheck element = compileValue(elementType, items, where + "[]");
+            boolean nullable = items.isEmpty() || allowsNull(items);
+            return element == null && nullable ? null : new ElementsCheck(element, nullable);
+        }
+        if (Map.class.isAssignableFrom(raw)) {
+            requireType(types, where, raw, "object");
+            Object additional = schema.get("additionalProperties");
+            if (!(additional instanceof Map<?, ?>)) {
+                return null;
+            }
+            Map<String, Object> values = (Map<String, Object>) additional;
+            ValueCheck value = compileValue(typeArgument(type, 1), values, where + "{}");
+            boolean nullable = values.isEmpty() || allowsNull(values);
+            return value == null && nullable ? null : new ElementsCheck(value, nullable);
+        }
+        drift.add(where + ": model type " + raw.getSimpleName() + " has no JSON representation in the schema");
+        return null;
+    }
+
+    private void requireType(Set<String> types, String where, Class<?> raw, String jsonType) {
+        if (!types.contains(jsonType)) {
+            drift.add(where + ": model type " + raw.getSimpleName() + " is written as " + jsonType
+                    + " but the schema allows " + types);
+        }
+    }
+
+    private static List<ModelProperty> propertiesOf(Class<?> type) {
+        List<ModelProperty> properties = new ArrayList<>();
+        if (type.isRecord()) {
+            for (RecordComponent component : type.getRecordComponents()) {
+                properties.add(new ModelProperty(component.getName(),
+                        component.getAccessor(),
+                        component.getGenericType(),
+                        component.isAnnotationPresent(OmitWhenNull.class)));
+            }
+        } else if (type == DirectoryIndex.class) {
+            properties.add(beanProperty("module", "getModule", true));
+            properties.add(beanProperty("package", "getPackage", true));
+            properties.add(beanProperty("files", "getFiles", false));
+            properties.add(beanProperty("subdirectories", "getSubdirectories", false));
+            properties.add(beanProperty("statistics", "getStatistics", true));
+        }
+        return properties;
+    }
+
+    private static ModelProperty beanProperty(String name, String getter, boolean omitWhenNull) {
+        try {
+            Method accessor = DirectoryIndex.class.getMethod(getter);
+            return new ModelProperty(name, accessor, accessor.getGenericReturnType(), omitWhenNull);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("DirectoryIndex has no " + getter + "()", e);
+        }
+    }
+
+    /**
+     * Binds an accessor to a {@link Function}, which the JIT can inline unlike a reflective call.
+     */
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> getterOf(Method accessor) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle handle = lookup.unreflect(accessor);
+            CallSite site = LambdaMetafactory.metafactory(lookup, "apply", FUNCTION_TYPE, GETTER_TYPE, handle,
+                    handle.type().wrap());
+            return (Function<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot bind " + accessor, e);
+        }
+    }
+
+    private static String definitionName(Object reference) {
+        String value = String.valueOf(reference);
+        return value.startsWith(DEFINITION_PREFIX) ? value.substring(DEFINITION_PREFIX.length()) : value;
+    }
+
+    private static Set<String> typesOf(Map<String, Object> schema) {
+        Object type = schema.get("type");
+        if (type instanceof String single) {
+            return Set.of(single);
+        }
+        if (type instanceof List<?> list) {
+            Set<String> types = new HashSet<>();
+            list.forEach(value -> types.add(String.valueOf(value)));
+            return types;
+        }
+        return Set.of();
+    }
+
+    private static boolean allowsNull(Map<String, Object> schema) {
+        return typesOf(schema).contains("null");
+    }
+
+    private static String jsonTypeOf(Object value) {
+        if (value instanceof CharSequence || value instanceof Character || value instanceof Enum<?>) {
+            return "string";
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return "integer";
+        }
+        if (value instanceof Number) {
+            return "number";
+        }
+        if (value instanceof Boolean) {
+            return "boolean";
+        }
+        if (value instanceof Collection<?> || value.getClass().isArray()) {
+            return "array";
+        }
+        return "object";
+    }
+
+    private static Class<?> rawType(Type type) {
+        if (type instanceof Class<?> clazz) {
+            return clazz;
+        }
+        if (type instanceof ParameterizedType parameterized) {
+            return (Class<?>) parameterized.getRawType();
+        }
+        if (type instanceof WildcardType wildcard) {
+            return rawType(wildcard.getUpperBounds()[0]);
+        }
+        return Object.class;
+    }
+
+    private static Type typeArgument(Type type, int index) {
+        if (type instanceof ParameterizedType parameterized) {
+            return parameterized.getActualTypeArguments()[index];
+        }
+        return Object.class;
+    }
+
+    private interface ValueCheck {
+        void check(Object value, String path, List<String> violations);
+    }
+
+    private record ModelProperty(String name, Method accessor, Type type, boolean omitWhenNull) {
+    }
+
+    private static final class ObjectCheck implements ValueCheck {
+        private final Class<?> type;
+        private final boolean closed;
+        private final List<PropertyCheck> properties = new ArrayList<>();
+
+        ObjectCheck(Class<?> type, boolean closed) {
+            this.type = type;
+            this.closed = closed;
+        }
+
+        @Override
+        public void check(Object value, String path, List<String> violations) {
+            if (closed && value.getClass() != type) {
+                violations.add(path + ": " + value.getClass().getSimpleName() + " may write properties not declared by "
+                        + type.getSimpleName());
+                return;
+            }
+            for (PropertyCheck property : properties) {
+                property.check(value, path, violations);
+            }
+        }
+    }
+
+    private record PropertyCheck(String name, Function<Object, Object> getter, boolean omittable,
+                                 boolean nullable, ValueCheck value) {
+        void check(Object owner, String path, List<String> violations) {
+            Object propertyValue = getter.apply(owner);
+            if (propertyValue == null) {
+                if (!omittable && !nullable) {
+                    violations.add(path + "/" + name + ": must not be null");
+                }
+            } else if (value != null) {
+                value.check(propertyValue, path + "/" + name, violations);
+            }
+        }
+    }
+
+    private record ElementsCheck(ValueCheck element, boolean nullable) implements ValueCheck {
+        @Override
+        public void check(Object value, String path, List<String> violations) {
+            if (value instanceof List<?> list) {
+                for (int i = 0; i < list.size(); i++) {
+                    checkElement(list.get(i), path + "/" + i, violations);
+                }
+            } else if (value instanceof Map<?, ?> map) {
+                map.forEach((key, entry) -> checkElement(entry, path + "/" + key, violations));
+            } else if (value instanceof Object[] array) {
+                for (int i = 0; i < array.length; i++) {
+                    checkElement(array[i], path + "/" + i, violations);
+                }
+            }
+        }
+
+        private void checkElement(Object value, String path, List<String> violations) {
+            if (value == null) {
+                if (!nullable) {
+                    violations.add(path + ": must not be null");
+                }
+            } else if (element != null) {
+                element.check(value, path, violations);
+            }
+        }
+    }
+
+    private record EnumCheck(Set<Object> allowed) implements ValueCheck {
+        @Override
+        public void check(Object value, String path, List<String> violations) {
+            if (!allowed.contains(value.toString())) {
+                violations.add(path + ": '" + value + "' is not one of " + allowed);
+            }
+        }
+    }
+
+    private record MinimumCheck(long minimum) implements ValueCheck {
+        @Override
+        public void check(Object value, String path, List<String> violations) {
+            if (((Number) value).longValue() < minimum) {
+                violations.add(path + ": " + value + " is less than the minimum " + minimum);
+            }
+        }
+    }
+
+    private record JsonTypeCheck(Set<String> types) implements ValueCheck {
+        @Override
+        public void check(Object value, String path, List<String> violations) {
+            String type = jsonTypeOf(value);
+            if (!types.contains(type) && !("integer".equals(type) && types.contains("number"))) {
+                violations.add(path + ": " + type + " is not one of " + types);
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package io.fluxzero.tools.jsondoclet.core;
+
+import io.fluxzero.tools.jsondoclet.model.AnnotationDocumentation;
+import io.fluxzero.tools.jsondoclet.model.ConstructorDocumentation;
+import io.fluxzero.tools.jsondoclet.model.ElementIndex;
+import io.fluxzero.tools.jsondoclet.model.ElementIndex.IndexedElement;
+import io.fluxzero.tools.jsondoclet.model.EnumConstantDocumentation;
+import io.fluxzero.tools.jsondoclet.model.FieldDocumentation;
+import io.fluxzero.tools.jsondoclet.model.MemberChunk;
+import io.fluxzero.tools.jsondoclet.model.MethodDocumentation;
+import io.fluxzero.tools.jsondoclet.model.MethodDocumentation.MethodParameter;
+import io.fluxzero.tools.jsondoclet.model.RecordComponentDocumentation;
+import io.fluxzero.tools.jsondoclet.model.TypeDocumentation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the secondary query indexes from the type and member chunk models as they are written, so questions
+ * like "all deprecated APIs" or "everything since 3.2" are answered by one small file instead of a full scan.
+ * <p>
+ * Elements deprecated only through the {@code @deprecated} tag carry no annotation on their model, so the
+ * traversal thread reports them through {@link #markDeprecated(Object)} and the {@code deprecated} flag of
+ * {@link #addType(TypeDocumentation, String, boolean)}.
+ */
+final class QueryIndexCollector {
+    /**
+     * Names of the indexes; each is written to {@code <name>-index.json} in the output root.
+     */
+    static final List<String> INDEXES = List.of("deprecated", "since", "annotation", "throws");
+
+    private static final String DEPRECATED = "java.lang.Deprecated";
+    private static final Pattern SINCE_TAG = Pattern.compile("(?m)^\\s*@since\\s+(\\S.*?)\\s*$");
+    private static final Comparator<IndexedElement> ELEMENT_ORDER = Comparator.comparing(IndexedElement::qualifiedName)
+            .thenComparing(element -> element.signature() != null ? element.signature() : "")
+            .thenComparing(IndexedElement::kind);
+
+    private final UnaryOperator<String> documentationResolver;
+    private final Map<String, Map<String, List<IndexedElement>>> indexes = new LinkedHashMap<>();
+    private final Set<Object> deprecatedMembers = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * @param documentationResolver maps the {@code documentation} value of a model to its text, which differs
+     *        from the value itself when documentation is deduplicated
+     */
+    QueryIndexCollector(UnaryOperator<String> documentationResolver) {
+        this.documentationResolver = documentationResolver;
+        for (String index : INDEXES) {
+            indexes.put(index, new TreeMap<>());
+        }
+    }
+
+    /**
+     * Marks a member model whose element is deprecated, as decided by
+     * {@link javax.lang.model.util.Elements#isDeprecated}. The mark is consumed when the model is added.
+     */
+    void markDeprecated(Object member) {
+        deprecatedMembers.add(member);
+    }
+
+    /**
+     * Records the type and the members it carries; members of split types are added through
+     * {@link #addChunk(MemberChunk, String)}.
+     *
+     * @param deprecated whether the type element is deprecated, by annotation or by tag
+     */
+    void addType(TypeDocumentation type, String file, boolean deprecated) {
+        add(new IndexedElement("type", type.qualifiedName(), null, visibilityOf(type.modifiers()), file),
+                type.annotations(), type.documentation(), List.of(), deprecated);
+        addMembers(type.qualifiedName(), file, type.fields(), type.constructors(), type.methods(),
+                type.enumConstants(), type.recordComponents());
+    }
+
+    /**
+     * Records the members of one chunk of a split type.
+     */
+    void addChunk(MemberChunk chunk, String typeFile) {
+        addMembers(chunk.qualifiedName(), typeFile, chunk.fields(), chunk.constructors(), chunk.methods(),
+                chunk.enumConstants(), chunk.recordComponents());
+    }
+
+    /**
+     * Returns the finished indexes by file name, with every group sorted by element.
+     */
+    Map<String, ElementIndex> finish() {
+        Map<String, ElementIndex> result = new LinkedHashMap<>();
+        indexes.forEach((index, groups) -> {
+            Map<String, List<IndexedElement>> sorted = new TreeMap<>();
+            groups.forEach((key, elements) -> sorted.put(key, elements.stream().sorted(ELEMENT_ORDER).toList()));
+            result.put(index + "-index.json", new ElementIndex(index, sorted));
+        });
+        return result;
+    }
+
+    private void addMembers(String typeName,
+            String file,
+            List<FieldDocumentation> fields,
+            List<ConstructorDocumentation> constructors,
+            List<MethodDocumentation> methods,
+            List<EnumConstantDocumentation> enumConstants,
+            List<RecordComponentDocumentation> recordComponents) {
+        for (FieldDocumentation field : fields) {
+            add(new IndexedElement("field", field.qualifiedName(), null, visibilityOf(field.modifiers()), file),
+                    field.annotations(), field.documentation(), List.of(), deprecatedMembers.remove(field));
+        }
+        for (ConstructorDocumentation constructor : constructors) {
+            add(new IndexedElement("constructor", constructor.qualifiedName(),
+                            signatureOf(constructor.name(), constructor.parameters()),
+                            visibilityOf(constructor.modifiers()), file),
+                    constructor.annotations(), constructor.documentation(), constructor.thrownTypes(),
+                    deprecatedMembers.remove(constructor));
+        }
+        for (MethodDocumentation method : methods) {
+            add(new IndexedElement("method", method.qualifiedName(), signatureOf(method.name(), method.parameters()),
+                            visibilityOf(method.modifiers()), file),
+                    method.annotations(), method.documentation(), method.thrownTypes(),
+                    deprecatedMembers.remove(method));
+        }
+        for (EnumConstantDocumentation constant : enumConstants) {
+            add(new IndexedElement("enumConstant", constant.qualifiedName(), null, "public", file),
+                    constant.annotations(), constant.documentation(), List.of(), deprecatedMembers.remove(constant));
+        }
+        for (RecordComponentDocumentation component : recordComponents) {
+            add(new IndexedElement("recordComponent", typeName + "." + component.name(), null, "public", file),
+                    component.annotations(), component.documentation(), List.of(),
+                    deprecatedMembers.remove(component));
+        }
+    }
+
+    private void add(IndexedElement element,
+            List<AnnotationDocumentation> annotations,
+            String documentation,
+            List<String> thrownTypes,
+            boolean deprecated) {
+        boolean annotatedDeprecated = false;
+        for (AnnotationDocumentation annotation : annotations) {
+            group("annotation", annotation.annotationType()).add(element);
+            if (DEPRECATED.equals(annotation.annotationType())) {
+                boolean forRemoval = "true".equals(annotation.values().get("forRemoval"));
+                group("deprecated", forRemoval ? "forRemoval" : "deprecated").add(element);
+                annotatedDeprecated = true;
+            }
+        }
+        if (deprecated && !annotatedDeprecated) {
+            group("deprecated", "deprecated").add(element);
+        }
+        String text = documentationResolver.apply(documentation);
+        if (text != null) {
+            Matcher since = SINCE_TAG.matcher(text);
+            if (since.find()) {
+                group("since", since.group(1)).add(element);
+            }
+        }
+        for (String thrownType : thrownTypes) {
+            group("throws", thrownType).add(element);
+        }
+    }
+
+    private List<IndexedElement> group(String index, String key) {
+        return indexes.get(index).computeIfAbsent(key, ignored -> new ArrayList<>());
+    }
+
+    private static String signatureOf(String name, List<MethodParameter> parameters) {
+        return name + parameters.stream().map(MethodParameter::type).collect(Collectors.joining(",", "(", ")"));
+    }
+
+    private static String visibilityOf(List<String> modifiers) {
+        for (String visibility : List.of("public", "protected", "private")) {
+            if (modifiers.contains(visibility)) {
+                return visibility;
+            }
+        }
+        return "package";
+    }
+}
@@ -0,0 +1,45 @@
+package io.fluxzero.tools.jsondoclet.core;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.lang.model.element.Modifier;
+
+/**
+ * Canonical immutable lists shared between model records.
+ * <p>
+ * A codebase uses only a handful of modifier combinations, so each combination is keyed by a bitmask over
+ * {@link Modifier} ordinals and mapped to one shared list. Empty collections collapse to the {@code List.of()}
+ * singleton, which keeps the many models held in flight by parallel writes from each carrying their own copies.
+ */
+final class SharedLists {
+    private static final Map<Long, List<String>> MODIFIER_LISTS = new ConcurrentHashMap<>();
+
+    private SharedLists() {
+    }
+
+    /**
+     * Returns the shared, alphabetically sorted list of modifier keywords for {@code modifiers}.
+     */
+    static List<String> modifiers(Set<Modifier> modifiers) {
+        if (modifiers.isEmpty()) {
+            return List.of();
+        }
+        long mask = 0;
+        for (Modifier modifier : modifiers) {
+            mask |= 1L << modifier.ordinal();
+        }
+        return MODIFIER_LISTS.computeIfAbsent(mask, ignored -> modifiers.stream()
+                .map(Modifier::toString)
+                .sorted()
+                .toList());
+    }
+
+    /**
+     * Returns {@code list}, or the shared empty list when it has no elements.
+     */
+    static <T> List<T> compact(List<T> list) {
+        return list.isEmpty() ? List.of() : list;
+    }
+}
@@ -0,0 +1,205 @@
+package io.fluxzero.tools.jsondoclet.core;
+
+import com.sun.source.tree.BlockTree;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.LineMap;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.DocTrees;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.SourcePositions;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.TreeScanner;
+import com.sun.source.util.Trees;
+import io.fluxzero.tools.jsondoclet.model.SourcePosition;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+/**
+ * Maps declarations to their source file and line range.
+ * <p>
+ * The tree path of each type is looked up once and its member trees are indexed by element, so members
+ * never trigger a rescan of the compilation unit. Line numbers come from a {@link LineMap} cached per
+ * compilation unit, making every lookup a binary search. End positions are taken from the compiler's trees.
+ * The javadoc tool only records them when a diagnostic listener is installed, so otherwise each compilation
+ * unit is parsed once more by the system compiler, which always does, and its declarations are matched to
+ * the javadoc trees by start offset.
+ * <p>
+ * The file is the path of the compilation unit relative to the source path root it was found in, so secondary
+ * top-level types and sources outside the {@code <package>/<Type>.java} layout map to the file that declares
+ * them.
+ */
+final class SourcePositionResolver {
+    private final DocTrees docTrees;
+    private final Elements elements;
+    private final JavaFileManager fileManager;
+    private final SourcePositions sourcePositions;
+    private final Map<CompilationUnitTree, LineMap> lineMaps = new IdentityHashMap<>();
+    private final Map<CompilationUnitTree, String> fileNames = new IdentityHashMap<>();
+    private final Map<CompilationUnitTree, Map<Long, Long>> endPositions = new IdentityHashMap<>();
+
+    private TypeElement currentType;
+    private CompilationUnitTree currentUnit;
+    private final Map<Element, Tree> memberTrees = new IdentityHashMap<>();
+    private final Map<String, Tree> recordComponentTrees = new HashMap<>();
+
+    SourcePositionResolver(DocTrees docTrees, Elements elements, JavaFileManager fileManager) {
+        this.docTrees = docTrees;
+        this.elements = elements;
+        this.fileManager = fileManager;
+        this.sourcePositions = docTrees.getSourcePositions();
+    }
+
+    /**
+     * Returns the position of {@code type}, or {@code null} when it has no source (e.g. loaded from a class file).
+     */
+    SourcePosition positionOf(TypeElement type) {
+        if (!index(type)) {
+            return null;
+        }
+        return position(docTrees.getTree(type));
+    }
+
+    /**
+     * Returns the position of a member of {@code type}, or {@code null} for members without source such as
+     * implicitly declared constructors.
+     */
+    SourcePosition positionOf(TypeElement type, Element member) {
+        if (!index(type) || elements.getOrigin(member) != Elements.Origin.EXPLICIT) {
+            return null;
+        }
+        Tree tree = member.getKind() == ElementKind.RECORD_COMPONENT
+                ? recordComponentTrees.get(member.getSimpleName().toString())
+                : memberTrees.get(member);
+        return position(tree);
+    }
+
+    private boolean index(TypeElement type) {
+        if (type == currentType) {
+            return currentUnit != null;
+        }
+        currentType = type;
+        currentUnit = null;
+        memberTrees.clear();
+        recordComponentTrees.clear();
+
+        TreePath path = docTrees.getPath(type);
+        if (path == null || !(path.getLeaf() instanceof ClassTree classTree)) {
+            return false;
+        }
+        currentUnit = path.getCompilationUnit();
+        for (Tree member : classTree.getMembers()) {
+            Element element = docTrees.getElement(new TreePath(path, member));
+            if (element != null) {
+                memberTrees.put(element, member);
+            }
+            if (member instanceof VariableTree variable) {
+                recordComponentTrees.put(variable.getName().toString(), member);
+            }
+        }
+        return true;
+    }
+
+    private SourcePosition position(Tree tree) {
+        if (tree == null || currentUnit == null) {
+            return null;
+        }
+        long start = sourcePositions.getStartPosition(currentUnit, tree);
+        if (start == Diagnostic.NOPOS) {
+            return null;
+        }
+        long end = sourcePositions.getEndPosition(currentUnit, tree);
+        if (end == Diagnostic.NOPOS) {
+            end = endPositions.computeIfAbsent(currentUnit, SourcePositionResolver::parseEndPositions)
+                    .getOrDefault(start, Diagnostic.NOPOS);
+        }
+        LineMap lineMap = lineMaps.computeIfAbsent(currentUnit, CompilationUnitTree::getLineMap);
+        long startLine = lineMap.getLineNumber(start);
+        long endLine = end == Diagnostic.NOPOS ? startLine : lineMap.getLineNumber(Math.max(start, end - 1));
+        return new SourcePosition(fileNames.computeIfAbsent(currentUnit, this::fileName), startLine, endLine);
+    }
+
+    /**
+     * Parses the source file of {@code unit} with end positions and returns the end offset of every class,
+     * method and field declaration keyed by its start offset; empty when no system compiler is available.
+     */
+    static Map<Long, Long> parseEndPositions(CompilationUnitTree unit) {
+        Map<Long, Long> ends = new HashMap<>();
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            return ends;
+        }
+        JavacTask task = (JavacTask) compiler.getTask(null, null, diagnostic -> { }, List.of("-proc:none"), null,
+                List.of(unit.getSourceFile()));
+        SourcePositions positions = Trees.instance(task).getSourcePositions();
+        Iterable<? extends CompilationUnitTree> parsed;
+        try {
+            parsed = task.parse();
+        } catch (IOException e) {
+            return ends;
+        }
+        for (CompilationUnitTree parsedUnit : parsed) {
+            new TreeScanner<Void, Void>() {
+                @Override
+                public Void visitClass(ClassTree tree, Void ignored) {
+                    record(tree);
+                    return super.visitClass(tree, ignored);
+                }
+
+                @Override
+                public Void visitMethod(MethodTree tree, Void ignored) {
+                    return record(tree);
+                }
+
+                @Override
+                public Void visitVariable(VariableTree tree, Void ignored) {
+                    return record(tree);
+                }
+
+                @Override
+                public Void visitBlock(BlockTree tree, Void ignored) {
+                    // initializer blocks declare nothing that is documented
+                    return null;
+                }
+
+                private Void record(Tree tree) {
+                    ends.putIfAbsent(positions.getStartPosition(parsedUnit, tree),
+                            positions.getEndPosition(parsedUnit, tree));
+                    return null;
+                }
+            }.scan(parsedUnit, null);
+        }
+        return ends;
+    }
+
+    private String fileName(CompilationUnitTree unit) {
+        JavaFileObject source = unit.getSourceFile();
+        String binaryName = fileManager.hasLocation(StandardLocation.SOURCE_PATH)
+                ? fileManager.inferBinaryName(StandardLocation.SOURCE_PATH, source)
+                : null;
+        if (binaryName != null) {
+            return binaryName.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension;
+        }
+        String path = source.toUri().getPath();
+        String simpleName = path != null ? path.substring(path.lastIndexOf('/') + 1) : source.getName();
+        PackageElement pkg = elements.getPackageOf(currentType);
+        String packageName = pkg != null ? pkg.getQualifiedName().toString() : "";
+        return packageName.isEmpty() ? simpleName : packageName.replace('.', '/') + "/" + simpleName;
+    }
+}
@@ -0,0 +1,243 @@
+package io.fluxzero.tools.jsondoclet.core;
+
+import io.fluxzero.tools.jsondoclet.model.TypeSignature;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.NoType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.SimpleTypeVisitor14;
+import javax.lang.model.util.Types;
+
+/**
+ * Interns structured {@link TypeSignature}s by the string form of the type they describe.
+ * <p>
+ * Each distinct signature is built once per run by a {@link javax.lang.model.type.TypeVisitor}; files then
+ * receive only the slice of the table their signatures reach. A type variable only means something within its
+ * declaration, so it is keyed by its declaring element, e.g. {@code com.example.Box#T} or
+ * {@code com.example.Box#map(java.util.function.Function)#U}, as is every type that contains one. Like the rest
+ * of the language model access, this class must only be used from the traversal thread.
+ */
+final class TypeSignatureTable {
+    private final Types types;
+    private final Function<TypeElement, String> linker;
+    private final Map<String, TypeSignature> signatures = new HashMap<>();
+    private final SignatureVisitor visitor = new SignatureVisitor();
+    private final KeyVisitor keys = new KeyVisitor();
+
+    /**
+     * @param linker returns the link target for a documented type, or {@code null} for types outside the run
+     */
+    TypeSignatureTable(Types types, Function<TypeElement, String> linker) {
+        this.types = types;
+        this.linker = linker;
+    }
+
+    /**
+     * Registers {@code type} and everything it references, returning its key: the type's string form, with type
+     * variables qualified by their declaring element.
+     */
+    String intern(TypeMirror type) {
+        String key = type.accept(keys, null);
+        if (!signatures.containsKey(key)) {
+            signatures.put(key, null);
+            signatures.put(key, type.accept(visitor, null));
+        }
+        return key;
+    }
+
+    /**
+     * Returns the signatures of {@code keys} and all types they reference, sorted by key, or {@code null} when
+     * no key is known.
+     */
+    Map<String, TypeSignature> tableFor(Collection<String> keys) {
+        Map<String, TypeSignature> table = new TreeMap<>();
+        Deque<String> pending = new ArrayDeque<>(keys);
+        while (!pending.isEmpty()) {
+            String key = pending.pop();
+            TypeSignature signature = signatures.get(key);
+            if (signature == null || table.putIfAbsent(key, signature) != null) {
+                continue;
+            }
+            if (signature.typeArguments() != null) {
+                pending.addAll(signature.typeArguments());
+            }
+            addIfPresent(pending, signature.elementType());
+            addIfPresent(pending, signature.extendsBound());
+            addIfPresent(pending, signature.superBound());
+        }
+        return table.isEmpty() ? null : table;
+    }
+
+    private static void addIfPresent(Deque<String> pending, String key) {
+        if (key != null) {
+            pending.add(key);
+        }
+    }
+
+    /**
+     * Returns the element declaring a type variable: its class as {@code com.example.Box}, or its method or
+     * constructor as {@code com.example.Box#map(java.util.function.Function)} with erased parameter types.
+     */
+    private String declarationOf(TypeVariable variable) {
+        Element generic = variable.asElement() instanceof TypeParameterElement parameter
+                ? parameter.getGenericElement()
+                : null;
+        if (generic instanceof TypeElement type) {
+            return type.getQualifiedName().toString();
+        }
+        if (generic instanceof ExecutableElement executable
+                && executable.getEnclosingElement() instanceof TypeElement owner) {
+            String name = executable.getKind() == ElementKind.CONSTRUCTOR
+                    ? owner.getSimpleName().toString()
+                    : executable.getSimpleName().toString();
+            return owner.getQualifiedName() + "#" + name + executable.getParameters().stream()
+                    .map(parameter -> erasureOf(parameter.asType()))
+                    .collect(Collectors.joining(",", "(", ")"));
+        }
+        return null;
+    }
+
+    private String erasureOf(TypeMirror type) {
+        try {
+            return types.erasure(type).toString();
+        } catch (IllegalArgumentException e) {
+            return type.toString();
+        }
+    }
+
+    /**
+     * Renders a type's key. Types without type variables keep their plain string form; only the parts of a
+     * type that contain type variables are rendered here, in the same notation.
+     */
+    private final class KeyVisitor extends SimpleTypeVisitor14<String, Void> {
+        @Override
+        public String visitDeclared(DeclaredType type, Void unused) {
+            if (!containsTypeVariable(type)) {
+                return type.toString();
+            }
+            TypeMirror enclosing = type.getEnclosingType();
+            String name = enclosing.getKind() == TypeKind.DECLARED && containsTypeVariable(enclosing)
+                    ? enclosing.accept(this, null) + "." + type.asElement().getSimpleName()
+                    : erasureOf(type);
+            List<? extends TypeMirror> arguments = type.getTypeArguments();
+            return arguments.isEmpty()
+                    ? name
+                    : arguments.stream().map(argument -> argument.accept(this, null))
+                            .collect(Collectors.joining(",", name + "<", ">"));
+        }
+
+        @Override
+        public String visitArray(ArrayType type, Void unused) {
+            return containsTypeVariable(type) ? type.getComponentType().accept(this, null) + "[]" : type.toString();
+        }
+
+        @Override
+        public String visitWildcard(WildcardType type, Void unused) {
+            if (type.getExtendsBound() != null) {
+                return "? extends " + type.getExtendsBound().accept(this, null);
+            }
+            if (type.getSuperBound() != null) {
+                return "? super " + type.getSuperBound().accept(this, null);
+            }
+            return "?";
+        }
+
+        @Override
+        public String visitTypeVariable(TypeVariable type, Void unused) {
+            String declaration = declarationOf(type);
+            return declaration != null ? declaration + "#" + type : type.toString();
+        }
+
+        @Override
+        protected String defaultAction(TypeMirror type, Void unused) {
+            return type.toString();
+        }
+
+        private boolean containsTypeVariable(TypeMirror type) {
+            return switch (type.getKind()) {
+                case TYPEVAR -> true;
+                case ARRAY -> containsTypeVariable(((ArrayType) type).getComponentType());
+                case WILDCARD -> {
+                    WildcardType wildcard = (WildcardType) type;
+                    yield wildcard.getExtendsBound() != null && containsTypeVariable(wildcard.getExtendsBound())
+                            || wildcard.getSuperBound() != null && containsTypeVariable(wildcard.getSuperBound());
+                }
+                case DECLARED -> {
+                    DeclaredType declared = (DeclaredType) type;
+                    yield declared.getTypeArguments().stream().anyMatch(this::containsTypeVariable)
+                            || containsTypeVariable(declared.getEnclosingType());
+                }
+                default -> false;
+            };
+        }
+    }
+
+    private final class SignatureVisitor extends SimpleTypeVisitor14<TypeSignature, Void> {
+        @Override
+        public TypeSignature visitDeclared(DeclaredType type, Void unused) {
+            List<? extends TypeMirror> arguments = type.getTypeArguments();
+            List<String> argumentKeys = arguments.isEmpty()
+                    ? null
+                    : arguments.stream().map(TypeSignatureTable.this::intern).toList();
+            String link = type.asElement() instanceof TypeElement element ? linker.apply(element) : null;
+            return new TypeSignature("declared", erasureOf(type), link, argumentKeys, null, null, null, null);
+        }
+
+        @Override
+        public TypeSignature visitArray(ArrayType type, Void unused) {
+            int depth = 0;
+            TypeMirror element = type;
+            while (element instanceof ArrayType array) {
+                depth++;
+                element = array.getComponentType();
+            }
+            return new TypeSignature("array", erasureOf(type), null, null, depth, intern(element), null, null);
+        }
+
+        @Override
+        public TypeSignature visitWildcard(WildcardType type, Void unused) {
+            String extendsBound = type.getExtendsBound() != null ? intern(type.getExtendsBound()) : null;
+            String superBound = type.getSuperBound() != null ? intern(type.getSuperBound()) : null;
+            return new TypeSignature("wildcard", "?", null, null, null, null, extendsBound, superBound);
+        }
+
+        @Override
+        public TypeSignature visitTypeVariable(TypeVariable type, Void unused) {
+            // bounds are not expanded: they may refer back to the variable itself (T extends Comparable<T>)
+            return new TypeSignature("typeVariable", erasureOf(type), null, null, null, null, null, null);
+        }
+
+        @Override
+        public TypeSignature visitPrimitive(PrimitiveType type, Void unused) {
+            return new TypeSignature("primitive", type.toString(), null, null, null, null, null, null);
+        }
+
+        @Override
+        public TypeSignature visitNoType(NoType type, Void unused) {
+            return new TypeSignature("void", type.toString(), null, null, null, null, null, null);
+        }
+
+        @Override
+        protected TypeSignature defaultAction(TypeMirror type, Void unused) {
+            return new TypeSignature("other", erasureOf(type), null, null, null, null, null, null);
+        }
+    }
+}
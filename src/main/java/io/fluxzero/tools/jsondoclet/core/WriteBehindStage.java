@@ -0,0 +1,131 @@
+package io.fluxzero.tools.jsondoclet.core;
+
+import io.fluxzero.tools.jsondoclet.sink.OutputSink;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded write-behind stage that drains serialized documents to the output sink on background threads.
+ * <p>
+ * Producers block in {@link #submit(String, byte[])} once the queue is full, which caps the number of
+ * serialized documents held in memory regardless of how slow the sink is. When a writer thread hits an
+ * {@link Error}, such as running out of memory, the stage is marked broken: writers keep taking documents off the
+ * queue but discard them, and further submissions fail fast instead of waiting for space.
+ */
+final class WriteBehindStage implements FileEmitter {
+    private static final PendingWrite END_OF_STREAM = new PendingWrite(null, null);
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    private final OutputSink sink;
+    private final BlockingQueue<PendingWrite> queue;
+    private final List<Thread> workers = new ArrayList<>();
+    private final Queue<String> failures = new ConcurrentLinkedQueue<>();
+    private volatile Throwable brokenBy;
+
+    /**
+     * Starts {@code threads} writer threads draining a queue holding at most {@code capacity} documents into
+     * {@code sink}.
+     */
+    WriteBehindStage(OutputSink sink, int threads, int capacity) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Writer thread count must be positive: " + threads);
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Write queue capacity must be positive: " + capacity);
+        }
+        this.sink = sink;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(this::drain, "json-doclet-writer-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Queues a serialized document for writing, blocking while the queue is full.
+     *
+     * @throws IllegalStateException if a writer thread failed with an {@link Error}
+     */
+    @Override
+    public void submit(String path, byte[] content) {
+        PendingWrite write = new PendingWrite(path, content);
+        try {
+            do {
+                checkNotBroken(path);
+            } while (!queue.offer(write, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while queueing " + path, e);
+        }
+    }
+
+    /**
+     * Waits until every queued document has been written and stops the writer threads.
+     *
+     * @return failure messages for documents that could not be written, in no particular order
+     */
+    @Override
+    public List<String> awaitCompletion() {
+        try {
+            for (int i = 0; i < workers.size(); i++) {
+                while (!queue.offer(END_OF_STREAM, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (workers.stream().noneMatch(Thread::isAlive)) {
+                        failures.add("Writer threads stopped with " + queue.size() + " documents pending");
+                        return List.copyOf(failures);
+                    }
+                }
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failures.add("Interrupted while waiting for pending writes");
+        }
+        return List.copyOf(failures);
+    }
+
+    private void drain() {
+        while (true) {
+            PendingWrite write;
+            try {
+                write = queue.take();
+            } catch (InterruptedException e) {
+                failures.add("Writer thread " + Thread.currentThread().getName() + " interrupted");
+                return;
+            }
+            if (write == END_OF_STREAM) {
+                return;
+            }
+            if (brokenBy != null) {
+                continue;
+            }
+            try {
+                sink.write(write.path(), write.content());
+            } catch (IOException | RuntimeException e) {
+                failures.add("Failed to write " + write.path() + ": " + e.getMessage());
+            } catch (Throwable e) {
+                brokenBy = e;
+                failures.add("Failed to write " + write.path() + ", discarding remaining writes: " + e);
+            }
+        }
+    }
+
+    private void checkNotBroken(String path) {
+        Throwable cause = brokenBy;
+        if (cause != null) {
+            throw new IllegalStateException("Cannot queue " + path + ", a writer thread failed: " + cause, cause);
+        }
+    }
+
+    private record PendingWrite(String path, byte[] content) {
+    }
+}
@@ -0,0 +1,40 @@
+package io.fluxzero.tools.jsondoclet.diff;
+
+import java.util.List;
+
+/**
+ * Single difference between two doclet output trees.
+ *
+ * @param change one of {@link #ADDED}, {@link #REMOVED} or {@link #CHANGED}
+ * @param kind element kind, e.g. {@code class}, {@code method} or {@code field}
+ * @param qualifiedName qualified name of the type or member
+ * @param signature member signature distinguishing overloads; {@code null} for types
+ * @param attributes attribute level differences for {@link #CHANGED} elements; empty otherwise
+ */
+public record ApiChange(String change,
+        String kind,
+        String qualifiedName,
+        String signature,
+        List<AttributeChange> attributes) {
+
+    /**
+     * Element exists only in the new output.
+     */
+    public static final String ADDED = "added";
+
+    /**
+     * Element exists only in the old output.
+     */
+    public static final String REMOVED = "removed";
+
+    /**
+     * Element exists in both outputs with differing attributes.
+     */
+    public static final String CHANGED = "changed";
+
+    /**
+     * Old and new value of a single attribute such as {@code modifiers} or {@code returnType}.
+     */
+    public record AttributeChange(String attribute, Object oldValue, Object newValue) {
+    }
+}
@@ -0,0 +1,443 @@
+package io.fluxzero.tools.jsondoclet.diff;
+
+import io.fluxzero.tools.jsondoclet.diff.ApiChange.AttributeChange;
+import io.fluxzero.tools.jsondoclet.model.DocumentationStrings;
+import io.fluxzero.tools.jsondoclet.util.JsonReader;
+import io.fluxzero.tools.jsondoclet.util.JsonWriter;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Streams two doclet output trees and reports added, removed and changed types and members.
+ * <p>
+ * Both trees are walked directory by directory through their {@code index.json} files, merge-joining
+ * entries in sorted order. Only one pair of type files is held in memory at a time, so memory use does not
+ * grow with the size of the documented API. A tree is either an output directory or an archive written with
+ * {@code --archive}, which is read through a zip file system. Documentation written with {@code --dedupe-docs}
+ * is resolved through the tree's {@code doc-strings.json}, so texts are compared rather than their keys.
+ */
+public final class ApiDiff {
+    private static final String INDEX_FILE = "index.json";
+    private static final String DOCUMENTATION_STRINGS_FILE = "doc-strings.json";
+    private static final String DOCUMENTATION = "documentation";
+
+    private static final List<String> TYPE_ATTRIBUTES = List.of(
+            "kind", "modifiers", "annotations", "typeParameters", "superClass", "interfaces", DOCUMENTATION);
+
+    private static final List<MemberGroup> MEMBER_GROUPS = List.of(
+            new MemberGroup("fields", "field",
+                    List.of("type", "modifiers", "annotations", "constantValue", DOCUMENTATION)),
+            new MemberGroup("constructors", "constructor",
+                    List.of("modifiers", "annotations", "typeParameters", "parameters", "thrownTypes", "varArgs",
+                            DOCUMENTATION)),
+            new MemberGroup("methods", "method",
+                    List.of("returnType", "modifiers", "annotations", "typeParameters", "parameters", "thrownTypes",
+                            "varArgs", "defaultValue", DOCUMENTATION)),
+            new MemberGroup("enumConstants", "enumConstant",
+                    List.of("annotations", DOCUMENTATION)),
+            new MemberGroup("recordComponents", "recordComponent",
+                    List.of("type", "annotations", DOCUMENTATION)));
+
+    private final Consumer<ApiChange> listener;
+    private final Map<String, String> oldStrings;
+    private final Map<String, String> newStrings;
+    private long changeCount;
+
+    private ApiDiff(Consumer<ApiChange> listener, Map<String, String> oldStrings, Map<String, String> newStrings) {
+        this.listener = listener;
+        this.oldStrings = oldStrings;
+        this.newStrings = newStrings;
+    }
+
+    /**
+     * Compares two output directories or archives, passing each difference to {@code listener} as soon as it
+     * is found.
+     *
+     * @return number of reported changes
+     */
+    public static long compare(Path oldRoot, Path newRoot, Consumer<ApiChange> listener) throws IOException {
+        Objects.requireNonNull(listener, "listener");
+        try (OutputTree oldTree = OutputTree.open(oldRoot); OutputTree newTree = OutputTree.open(newRoot)) {
+            ApiDiff diff = new ApiDiff(listener, oldTree.strings(), newTree.strings());
+            diff.compareDirectories(oldTree.root(), newTree.root());
+            return diff.changeCount;
+        }
+    }
+
+    /**
+     * Command line entry point writing one JSON object per change (JSON Lines).
+     * <p>
+     * Usage: {@code ApiDiff <old-output> <new-output> [--output <file>]}, where each output is a directory or
+     * an archive. Exits with {@code 0} when
+     * both trees describe the same API, {@code 1} when differences were found and {@code 2} on errors.
+     */
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    static int run(String[] args) {
+        Path output = null;
+        List<Path> roots = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("--output".equals(args[i]) && i + 1 < args.length) {
+                output = Path.of(args[++i]);
+            } else {
+                roots.add(Path.of(args[i]));
+            }
+        }
+        if (roots.size() != 2) {
+            System.err.println("Usage: ApiDiff <old-output> <new-output> [--output <file>]");
+            return 2;
+        }
+
+        try (OutputStream out = new BufferedOutputStream(
+                output != null ? Files.newOutputStream(output) : System.out)) {
+            long changes = compare(roots.get(0), roots.get(1), change -> {
+                try {
+                    out.write(JsonWriter.toBytes(change, false));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return changes == 0 ? 0 : 1;
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("API diff failed: " + e.getMessage());
+            return 2;
+        }
+    }
+
+    private void compareDirectories(Path oldDir, Path newDir) throws IOException {
+        IndexListing oldListing = readIndex(oldDir);
+        IndexListing newListing = readIndex(newDir);
+
+        List<FileEntry> oldFiles = oldListing.files();
+        List<FileEntry> newFiles = newListing.files();
+        int i = 0;
+        int j = 0;
+        while (i < oldFiles.size() || j < newFiles.size()) {
+            int order = compareKeys(i < oldFiles.size() ? oldFiles.get(i).file() : null,
+                    j < newFiles.size() ? newFiles.get(j).file() : null);
+            if (order < 0) {
+                FileEntry removed = oldFiles.get(i++);
+                emit(ApiChange.REMOVED, removed.kind(), removed.qualifiedName(), null, List.of());
+            } else if (order > 0) {
+                FileEntry added = newFiles.get(j++);
+                emit(ApiChange.ADDED, added.kind(), added.qualifiedName(), null, List.of());
+            } else {
+                compareTypes(oldDir.resolve(oldFiles.get(i++).file()), newDir.resolve(newFiles.get(j++).file()));
+            }
+        }
+
+        List<String> oldDirs = oldListing.subdirectories();
+        List<String> newDirs = newListing.subdirectories();
+        i = 0;
+        j = 0;
+        while (i < oldDirs.size() || j < newDirs.size()) {
+            int order = compareKeys(i < oldDirs.size() ? oldDirs.get(i) : null,
+                    j < newDirs.size() ? newDirs.get(j) : null);
+            if (order < 0) {
+                compareDirectories(oldDir.resolve(oldDirs.get(i++)), null);
+            } else if (order > 0) {
+                compareDirectories(null, newDir.resolve(newDirs.get(j++)));
+            } else {
+                compareDirectories(oldDir.resolve(oldDirs.get(i++)), newDir.resolve(newDirs.get(j++)));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void compareTypes(Path oldFile, Path newFile) throws IOException {
+        Map<String, Object> oldType = readType(oldFile);
+        Map<String, Object> newType = readType(newFile);
+        String qualifiedName = (String) newType.get("qualifiedName");
+
+        List<AttributeChange> attributes = diffAttributes(oldType, newType, TYPE_ATTRIBUTES);
+        if (!attributes.isEmpty()) {
+            emit(ApiChange.CHANGED, (String) newType.get("kind"), qualifiedName, null, attributes);
+        }
+
+        for (MemberGroup group : MEMBER_GROUPS) {
+            compareMembers(qualifiedName, group,
+                    (List<Map<String, Object>>) oldType.getOrDefault(group.property(), List.of()),
+                    (List<Map<String, Object>>) newType.getOrDefault(group.property(), List.of()));
+        }
+    }
+
+    /**
+     * Reads a type file, merging the members of split types back in from their chunk files.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> readType(Path file) throws IOException {
+        Map<String, Object> type = (Map<String, Object>) JsonReader.readTree(file);
+        if (!(type.get("memberChunks") instanceof List<?> chunkFiles)) {
+            return type;
+        }
+        Map<String, Object> merged = new LinkedHashMap<>(type);
+        for (MemberGroup group : MEMBER_GROUPS) {
+            merged.put(group.property(), new ArrayList<>((List<Object>) type.getOrDefault(group.property(), List.of())));
+        }
+        for (Object chunkFile : chunkFiles) {
+            Map<String, Object> chunk = (Map<String, Object>) JsonReader.readTree(file.resolveSibling(chunkFile.toString()));
+            for (MemberGroup group : MEMBER_GROUPS) {
+                ((List<Object>) merged.get(group.property()))
+                        .addAll((List<Object>) chunk.getOrDefault(group.property(), List.of()));
+            }
+        }
+        return merged;
+    }
+
+    private void compareMembers(String typeName,
+            MemberGroup group,
+            List<Map<String, Object>> oldMembers,
+            List<Map<String, Object>> newMembers) {
+        boolean executable = group.attributes().contains("parameters");
+        Function<Map<String, Object>, String> signature = member -> signatureOf(member, executable);
+        List<Map<String, Object>> oldSorted = sortedBy(oldMembers, signature);
+        List<Map<String, Object>> newSorted = sortedBy(newMembers, signature);
+
+        int i = 0;
+        int j = 0;
+        while (i < oldSorted.size() || j < newSorted.size()) {
+            Map<String, Object> oldMember = i < oldSorted.size() ? oldSorted.get(i) : null;
+            Map<String, Object> newMember = j < newSorted.size() ? newSorted.get(j) : null;
+            int order = compareKeys(oldMember != null ? signature.apply(oldMember) : null,
+                    newMember != null ? signature.apply(newMember) : null);
+            if (order < 0) {
+                emit(ApiChange.REMOVED, group.kind(), memberName(typeName, oldMember), signature.apply(oldMember), List.of());
+                i++;
+            } else if (order > 0) {
+                emit(ApiChange.ADDED, group.kind(), memberName(typeName, newMember), signature.apply(newMember), List.of());
+                j++;
+            } else {
+                List<AttributeChange> attributes = diffAttributes(oldMember, newMember, group.attributes());
+                if (!attributes.isEmpty()) {
+                    emit(ApiChange.CHANGED, group.kind(), memberName(typeName, newMember), signature.apply(newMember),
+                            attributes);
+                }
+                i++;
+                j++;
+            }
+        }
+    }
+
+    private List<AttributeChange> diffAttributes(Map<String, Object> oldValues,
+            Map<String, Object> newValues,
+            List<String> attributes) {
+        List<AttributeChange> changes = new ArrayList<>();
+        for (String attribute : attributes) {
+            Object oldValue = valueOf(oldValues, attribute, oldStrings);
+            Object newValue = valueOf(newValues, attribute, newStrings);
+            if (!Objects.equals(withoutDefaults(oldValue), withoutDefaults(newValue))) {
+                changes.add(new AttributeChange(attribute, oldValue, newValue));
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Returns the attribute, with deduplicated documentation replaced by its text.
+     */
+    private static Object valueOf(Map<String, Object> values, String attribute, Map<String, String> strings) {
+        Object value = values.get(attribute);
+        if (DOCUMENTATION.equals(attribute) && value instanceof String key) {
+            return strings.getOrDefault(key, key);
+        }
+        return value;
+    }
+
+    /**
+     * Drops {@code null} properties and maps empty arrays and objects to {@code null} at every nesting level,
+     * so trees written with and without {@code --omit-defaults} compare equal.
+     */
+    private static Object withoutDefaults(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> result = new LinkedHashMap<>();
+            map.forEach((key, entry) -> {
+                Object normalized = withoutDefaults(entry);
+                if (normalized != null) {
+                    result.put(key, normalized);
+                }
+            });
+            return result.isEmpty() ? null : result;
+        }
+        if (value instanceof Collection<?> collection) {
+            if (collection.isEmpty()) {
+                return null;
+            }
+            List<Object> result = new ArrayList<>(collection.size());
+            collection.forEach(element -> result.add(withoutDefaults(element)));
+            return result;
+        }
+        return value;
+    }
+
+    private void emit(String change, String kind, String qualifiedName, String signature,
+            List<AttributeChange> attributes) {
+        changeCount++;
+        listener.accept(new ApiChange(change, kind, qualifiedName, signature, attributes));
+    }
+
+    private static String signatureOf(Map<String, Object> member, boolean executable) {
+        String name = (String) member.get("name");
+        if (!executable) {
+            return name;
+        }
+        // parameters are absent for parameterless members written with --omit-defaults
+        List<?> list = member.get("parameters") instanceof List<?> parameters ? parameters : List.of();
+        StringBuilder signature = new StringBuilder(name).append('(');
+        for (int i = 0; i < list.size(); i++) {
+            if (i > 0) {
+                signature.append(',');
+            }
+            signature.append(((Map<?, ?>) list.get(i)).get("type"));
+        }
+        return signature.append(')').toString();
+    }
+
+    private static String memberName(String typeName, Map<String, Object> member) {
+        Object qualifiedName = member.get("qualifiedName");
+        return qualifiedName != null ? qualifiedName.toString() : typeName + "." + member.get("name");
+    }
+
+    private static List<Map<String, Object>> sortedBy(List<Map<String, Object>> members,
+            Function<Map<String, Object>, String> key) {
+        List<Map<String, Object>> sorted = new ArrayList<>(members);
+        sorted.sort(Comparator.comparing(key));
+        return sorted;
+    }
+
+    private static int compareKeys(String oldKey, String newKey) {
+        if (oldKey == null) {
+            return 1;
+        }
+        if (newKey == null) {
+            return -1;
+        }
+        return oldKey.compareTo(newKey);
+    }
+
+
+    private static IndexListing readIndex(Path directory) throws IOException {
+        if (directory == null || !Files.isRegularFile(directory.resolve(INDEX_FILE))) {
+            return new IndexListing(List.of(), List.of());
+        }
+        List<FileEntry> files = new ArrayList<>();
+        List<String> subdirectories = new ArrayList<>();
+        try (JsonReader reader = JsonReader.open(directory.resolve(INDEX_FILE))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "files" -> {
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            files.add(readFileEntry(reader));
+                        }
+                        reader.endArray();
+                    }
+                    case "subdirectories" -> {
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            subdirectories.add(readSubdirectoryPath(reader));
+                        }
+                        reader.endArray();
+                    }
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        files.sort(Comparator.comparing(FileEntry::file));
+        subdirectories.sort(Comparator.naturalOrder());
+        return new IndexListing(files, subdirectories);
+    }
+
+    private static FileEntry readFileEntry(JsonReader reader) throws IOException {
+        String file = null;
+        String qualifiedName = null;
+        String kind = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "file" -> file = reader.nextString();
+                case "qualifiedName" -> qualifiedName = reader.nextString();
+                case "kind" -> kind = reader.nextString();
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return new FileEntry(file, qualifiedName, kind);
+    }
+
+    private static String readSubdirectoryPath(JsonReader reader) throws IOException {
+        String path = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("path".equals(reader.nextName())) {
+                path = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return path;
+    }
+
+    /**
+     * Root of an output directory or of an opened archive, with the documentation strings of the tree.
+     */
+    private record OutputTree(Path root, FileSystem archive, Map<String, String> strings) implements Closeable {
+        static OutputTree open(Path output) throws IOException {
+            FileSystem archive = Files.isRegularFile(output) ? FileSystems.newFileSystem(output) : null;
+            try {
+                Path root = archive != null ? archive.getPath("/") : output;
+                if (!Files.isRegularFile(root.resolve(INDEX_FILE))) {
+                    throw new IOException("Not a JSON doclet output directory or archive (missing " + INDEX_FILE
+                            + "): " + output);
+                }
+                Path stringsFile = root.resolve(DOCUMENTATION_STRINGS_FILE);
+                Map<String, String> strings = Files.isRegularFile(stringsFile)
+                        ? JsonReader.read(stringsFile, DocumentationStrings.class, Set.of()).strings()
+                        : Map.of();
+                return new OutputTree(root, archive, strings);
+            } catch (IOException | RuntimeException e) {
+                if (archive != null) {
+                    archive.close();
+                }
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (archive != null) {
+                archive.close();
+            }
+        }
+    }
+
+    private record MemberGroup(String property, String kind, List<String> attributes) {
+    }
+
+    private record IndexListing(List<FileEntry> files, List<String> subdirectories) {
+    }
+
+    private record FileEntry(String file, String qualifiedName, String kind) {
+    }
+}
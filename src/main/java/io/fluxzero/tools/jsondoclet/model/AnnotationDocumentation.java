@@ -4,6 +4,11 @@ import java.util.Map;
 
 /**
  * Representation of an applied annotation, including element values when present.
+ * <p>
+ * With {@code --constant-expressions}, {@code defaults} holds the source form of the default of every element
+ * that is not set explicitly; it is absent when there are none.
  */
-public record AnnotationDocumentation(String annotationType, Map<String, String> values) {
+public record AnnotationDocumentation(String annotationType,
+        Map<String, String> values,
+        @OmitWhenNull Map<String, String> defaults) {
 }
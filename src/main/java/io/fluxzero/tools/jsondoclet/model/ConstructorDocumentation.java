@@ -14,5 +14,6 @@ public record ConstructorDocumentation(String name,
         List<MethodParameter> parameters,
         List<String> thrownTypes,
         boolean varArgs,
-        String documentation) {
+        String documentation,
+        @OmitWhenNull SourcePosition source) {
 }
@@ -2,7 +2,10 @@ package io.fluxzero.tools.jsondoclet.model;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Index metadata generated per output directory.
@@ -10,7 +13,11 @@ import java.util.List;
 public final class DirectoryIndex {
     private final List<IndexFileEntry> files = new ArrayList<>();
     private final List<SubdirectoryEntry> subdirectories = new ArrayList<>();
+    private final Set<IndexFileEntry> fileSet = new HashSet<>();
+    private final Set<SubdirectoryEntry> subdirectorySet = new HashSet<>();
     private PackageDocumentation packageDocumentation;
+    private ModuleDocumentation moduleDocumentation;
+    private IndexStatistics statistics;
 
     /**
      * Files in the current directory that point to generated JSON artifacts.
@@ -30,7 +37,7 @@ public final class DirectoryIndex {
      * Adds a file entry to the index.
      */
     public void addFile(IndexFileEntry entry) {
-        if (!files.contains(entry)) {
+        if (fileSet.add(entry)) {
             files.add(entry);
         }
     }
@@ -39,11 +46,19 @@ public final class DirectoryIndex {
      * Adds a subdirectory reference to the index.
      */
     public void addSubdirectory(SubdirectoryEntry entry) {
-        if (!subdirectories.contains(entry)) {
+        if (subdirectorySet.add(entry)) {
             subdirectories.add(entry);
         }
     }
 
+    /**
+     * Sorts files by display name and subdirectories by name, independent of the order they were added in.
+     */
+    public void sortEntries() {
+        files.sort(Comparator.comparing(IndexFileEntry::name).thenComparing(IndexFileEntry::file));
+        subdirectories.sort(Comparator.comparing(SubdirectoryEntry::name).thenComparing(SubdirectoryEntry::path));
+    }
+
     /**
      * Assigns package-level documentation metadata to this directory.
      */
@@ -58,6 +73,43 @@ public final class DirectoryIndex {
         return packageDocumentation;
     }
 
+    /**
+     * Assigns the module descriptor documentation to the root directory of a module.
+     */
+    public void setModule(ModuleDocumentation documentation) {
+        this.moduleDocumentation = documentation;
+    }
+
+    /**
+     * Returns the module descriptor documentation when this directory is the root of a module, if any.
+     */
+    public ModuleDocumentation getModule() {
+        return moduleDocumentation;
+    }
+
+    /**
+     * Assigns aggregate counts for the subtree rooted at this directory.
+     */
+    public void setStatistics(IndexStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * Returns aggregate counts for the subtree rooted at this directory, if computed.
+     */
+    public IndexStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Aggregate counts over a directory and all of its subdirectories.
+     *
+     * @param types number of type files
+     * @param members number of fields, constructors, methods, enum constants and record components of those types
+     */
+    public record IndexStatistics(long types, long members) {
+    }
+
     /**
      * Simple file entry describing nearby JSON output.
      */
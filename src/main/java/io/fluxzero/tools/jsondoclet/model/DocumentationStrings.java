@@ -0,0 +1,12 @@
+package io.fluxzero.tools.jsondoclet.model;
+
+import java.util.Map;
+
+/**
+ * Shared documentation strings referenced by key when documentation deduplication is enabled.
+ *
+ * @param algorithm digest used to derive the keys
+ * @param strings documentation text by key, sorted by key
+ */
+public record DocumentationStrings(String algorithm, Map<String, String> strings) {
+}
@@ -0,0 +1,33 @@
+package io.fluxzero.tools.jsondoclet.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precomputed lookup from a key to the documented elements it applies to, written to {@code <index>-index.json}
+ * in the output root with {@code --query-indexes}.
+ *
+ * @param index {@code deprecated}, {@code since}, {@code annotation} or {@code throws}
+ * @param groups elements by key, sorted by key; for {@code deprecated} the keys are {@code forRemoval} and
+ *        {@code deprecated}, otherwise the {@code @since} value, annotation type or thrown type
+ */
+public record ElementIndex(String index, Map<String, List<IndexedElement>> groups) {
+
+    /**
+     * Reference to a type or member from an {@link ElementIndex}.
+     *
+     * @param kind {@code type}, {@code field}, {@code constructor}, {@code method}, {@code enumConstant} or
+     *        {@code recordComponent}
+     * @param qualifiedName qualified name of the type, or the {@code qualifiedName} of the member; record
+     *        components, which have none, use {@code Type.component}
+     * @param signature method or constructor name followed by its parameter types; absent for other elements
+     * @param visibility {@code public}, {@code protected}, {@code package} or {@code private}
+     * @param file type file holding the element, relative to the output root
+     */
+    public record IndexedElement(String kind,
+            String qualifiedName,
+            @OmitWhenNull String signature,
+            String visibility,
+            String file) {
+    }
+}
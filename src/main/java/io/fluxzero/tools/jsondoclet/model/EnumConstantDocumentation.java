@@ -8,5 +8,6 @@ import java.util.List;
 public record EnumConstantDocumentation(String name,
         String qualifiedName,
         List<AnnotationDocumentation> annotations,
-        String documentation) {
+        String documentation,
+        @OmitWhenNull SourcePosition source) {
 }
@@ -0,0 +1,24 @@
+package io.fluxzero.tools.jsondoclet.model;
+
+import java.util.List;
+
+/**
+ * Elements that could not be documented, written to {@code errors.json} in the output root whenever a run
+ * has failures.
+ *
+ * @param continueOnError whether the run went on after the first failure ({@code --continue-on-error})
+ * @param errors failures in the order they occurred
+ */
+public record ErrorReport(boolean continueOnError, List<ElementError> errors) {
+
+    /**
+     * Failure to document a single module, package or type; the other elements are unaffected.
+     *
+     * @param kind {@code module}, {@code package} or {@code type}
+     * @param element qualified name of the element
+     * @param message description of the failure
+     * @param exception class name of the exception that caused it
+     */
+    public record ElementError(String kind, String element, String message, String exception) {
+    }
+}
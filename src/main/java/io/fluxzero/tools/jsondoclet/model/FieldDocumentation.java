@@ -4,6 +4,9 @@ import java.util.List;
 
 /**
  * Documentation for a field declaration.
+ * <p>
+ * {@code constantExpression} is the source form of {@code constantValue} (e.g. {@code 10L} or {@code 'x'}) and
+ * is only present with {@code --constant-expressions}.
  */
 public record FieldDocumentation(String name,
         String qualifiedName,
@@ -11,5 +14,7 @@ public record FieldDocumentation(String name,
         List<String> modifiers,
         List<AnnotationDocumentation> annotations,
         String documentation,
-        Object constantValue) {
+        Object constantValue,
+        @OmitWhenNull String constantExpression,
+        @OmitWhenNull SourcePosition source) {
 }
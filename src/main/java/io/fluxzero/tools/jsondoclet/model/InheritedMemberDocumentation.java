@@ -0,0 +1,12 @@
+package io.fluxzero.tools.jsondoclet.model;
+
+/**
+ * Reference to a member a type inherits from one of its supertypes.
+ *
+ * @param kind {@code method} or {@code field}
+ * @param name simple member name
+ * @param signature method name and parameter types as seen from the inheriting type; the name for fields
+ * @param declaringType binary name of the supertype declaring the member
+ */
+public record InheritedMemberDocumentation(String kind, String name, String signature, String declaringType) {
+}
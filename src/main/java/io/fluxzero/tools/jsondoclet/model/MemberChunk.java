@@ -0,0 +1,21 @@
+package io.fluxzero.tools.jsondoclet.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Member details of one chunk of a type split with {@code --split-members} or {@code --split-bytes}.
+ *
+ * @param qualifiedName binary name of the type the members belong to
+ * @param chunk zero-based chunk index
+ * @param typeSignatures structured form of the types used by the chunk's members, with {@code --type-signatures}
+ */
+public record MemberChunk(String qualifiedName,
+        int chunk,
+        List<FieldDocumentation> fields,
+        List<ConstructorDocumentation> constructors,
+        List<MethodDocumentation> methods,
+        List<EnumConstantDocumentation> enumConstants,
+        List<RecordComponentDocumentation> recordComponents,
+        @OmitWhenNull Map<String, TypeSignature> typeSignatures) {
+}
@@ -0,0 +1,12 @@
+package io.fluxzero.tools.jsondoclet.model;
+
+/**
+ * Entry in the member summary of a type whose member details were split into chunk files.
+ *
+ * @param kind {@code field}, {@code constructor}, {@code method}, {@code enumConstant} or {@code recordComponent}
+ * @param name simple member name
+ * @param signature method or constructor name followed by its parameter types; the name for other members
+ * @param chunk index into the type's {@code memberChunks} list of the file holding the member details
+ */
+public record MemberSummary(String kind, String name, String signature, int chunk) {
+}
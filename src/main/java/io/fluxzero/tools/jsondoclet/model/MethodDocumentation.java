@@ -4,6 +4,9 @@ import java.util.List;
 
 /**
  * Documentation extracted for an individual method.
+ * <p>
+ * {@code defaultValue} is the source form of an annotation element's default and is only present with
+ * {@code --constant-expressions}.
  */
 public record MethodDocumentation(String name,
         String qualifiedName,
@@ -14,7 +17,9 @@ public record MethodDocumentation(String name,
         List<MethodParameter> parameters,
         List<String> thrownTypes,
         boolean varArgs,
-        String documentation) {
+        String documentation,
+        @OmitWhenNull String defaultValue,
+        @OmitWhenNull SourcePosition source) {
 
     /**
      * Method parameter descriptor capturing the declaration type and name.
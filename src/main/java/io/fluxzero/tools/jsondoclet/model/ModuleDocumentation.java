@@ -0,0 +1,38 @@
+package io.fluxzero.tools.jsondoclet.model;
+
+import java.util.List;
+
+/**
+ * Module descriptor documentation written to the index of a module's output directory.
+ *
+ * @param open whether the module is declared {@code open}
+ * @param uses service interfaces the module consumes
+ */
+public record ModuleDocumentation(String name,
+        boolean open,
+        List<AnnotationDocumentation> annotations,
+        String documentation,
+        List<ModuleRequires> requires,
+        List<PackageDirective> exports,
+        List<PackageDirective> opens,
+        List<String> uses,
+        List<ServiceProvider> provides) {
+
+    /**
+     * Dependency on another module.
+     */
+    public record ModuleRequires(String module, boolean transitive, boolean staticDependency) {
+    }
+
+    /**
+     * Exported or opened package, optionally qualified to a list of target modules.
+     */
+    public record PackageDirective(String packageName, List<String> targets) {
+    }
+
+    /**
+     * Service implementations the module provides.
+     */
+    public record ServiceProvider(String service, List<String> implementations) {
+    }
+}
@@ -0,0 +1,15 @@
+package io.fluxzero.tools.jsondoclet.model;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a record component that is only populated by opt-in doclet features and is left out of the JSON
+ * output entirely when its value is {@code null}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.RECORD_COMPONENT)
+public @interface OmitWhenNull {
+}
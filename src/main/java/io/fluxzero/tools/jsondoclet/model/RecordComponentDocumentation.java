@@ -8,5 +8,6 @@ import java.util.List;
 public record RecordComponentDocumentation(String name,
         String type,
         List<AnnotationDocumentation> annotations,
-        String documentation) {
+        String documentation,
+        @OmitWhenNull SourcePosition source) {
 }
@@ -0,0 +1,11 @@
+package io.fluxzero.tools.jsondoclet.model;
+
+/**
+ * Location of a declaration in its source file.
+ *
+ * @param file source file path relative to the source root, using {@code /} as separator
+ * @param startLine first line of the declaration (1-based, including annotations and modifiers)
+ * @param endLine last line of the declaration (1-based)
+ */
+public record SourcePosition(String file, long startLine, long endLine) {
+}
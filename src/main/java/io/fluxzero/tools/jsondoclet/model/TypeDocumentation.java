@@ -1,6 +1,7 @@
 package io.fluxzero.tools.jsondoclet.model;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Aggregated documentation for a single declared type.
@@ -20,5 +21,10 @@ public record TypeDocumentation(String name,
         List<MethodDocumentation> methods,
         List<EnumConstantDocumentation> enumConstants,
         List<RecordComponentDocumentation> recordComponents,
-        List<NestedTypeDocumentation> nestedTypes) {
+        List<NestedTypeDocumentation> nestedTypes,
+        @OmitWhenNull List<InheritedMemberDocumentation> inheritedMembers,
+        @OmitWhenNull SourcePosition source,
+        @OmitWhenNull List<MemberSummary> memberSummaries,
+        @OmitWhenNull List<String> memberChunks,
+        @OmitWhenNull Map<String, TypeSignature> typeSignatures) {
 }
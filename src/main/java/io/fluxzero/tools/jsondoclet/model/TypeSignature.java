@@ -0,0 +1,30 @@
+package io.fluxzero.tools.jsondoclet.model;
+
+import java.util.List;
+
+/**
+ * Structured form of a type as it appears in a signature, stored in the {@code typeSignatures} table of a type
+ * or member chunk file under its string form (e.g. {@code java.util.List<com.example.Foo>}).
+ * <p>
+ * Nested types (type arguments, array elements and wildcard bounds) are referenced by their keys in the same
+ * table, so every distinct signature is serialized once per file.
+ *
+ * @param kind {@code declared}, {@code primitive}, {@code void}, {@code array}, {@code typeVariable},
+ *        {@code wildcard} or {@code other}
+ * @param erasure erased type, e.g. {@code java.util.List}
+ * @param link type file of a documented type relative to the output root, using {@code /} as separator
+ * @param typeArguments keys of the type arguments of a parameterized type
+ * @param arrayDepth number of array dimensions
+ * @param elementType key of the innermost non-array element type of an array
+ * @param extendsBound key of the upper bound of a wildcard
+ * @param superBound key of the lower bound of a wildcard
+ */
+public record TypeSignature(String kind,
+        String erasure,
+        @OmitWhenNull String link,
+        @OmitWhenNull List<String> typeArguments,
+        @OmitWhenNull Integer arrayDepth,
+        @OmitWhenNull String elementType,
+        @OmitWhenNull String extendsBound,
+        @OmitWhenNull String superBound) {
+}
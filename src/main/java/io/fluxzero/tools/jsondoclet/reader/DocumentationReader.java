@@ -0,0 +1,185 @@
+package io.fluxzero.tools.jsondoclet.reader;
+
+import io.fluxzero.tools.jsondoclet.model.DirectoryIndex;
+import io.fluxzero.tools.jsondoclet.model.DirectoryIndex.IndexFileEntry;
+import io.fluxzero.tools.jsondoclet.model.DirectoryIndex.SubdirectoryEntry;
+import io.fluxzero.tools.jsondoclet.model.DocumentationStrings;
+import io.fluxzero.tools.jsondoclet.model.ElementIndex;
+import io.fluxzero.tools.jsondoclet.model.ErrorReport;
+import io.fluxzero.tools.jsondoclet.model.MemberChunk;
+import io.fluxzero.tools.jsondoclet.model.TypeDocumentation;
+import io.fluxzero.tools.jsondoclet.util.JsonReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Loads JSON doclet output back into the records of the {@code model} package without any third-party
+ * JSON library.
+ * <p>
+ * Files are parsed with the streaming {@link JsonReader}, and properties passed to {@link #skipping(String...)}
+ * (for example {@code documentation}) are skipped without being materialized. Streams returned by
+ * {@link #typeFiles()} and {@link #types()} walk the tree lazily through its {@code index.json} files, so
+ * only the type currently being consumed is held in memory.
+ */
+public final class DocumentationReader {
+    private static final String INDEX_FILE = "index.json";
+    private static final String DOCUMENTATION_STRINGS_FILE = "doc-strings.json";
+    private static final String ERROR_REPORT_FILE = "errors.json";
+
+    private final Path root;
+    private final Set<String> skippedProperties;
+
+    private DocumentationReader(Path root, Set<String> skippedProperties) {
+        this.root = root;
+        this.skippedProperties = skippedProperties;
+    }
+
+    /**
+     * Creates a reader for the output tree rooted at {@code outputRoot}.
+     */
+    public static DocumentationReader of(Path outputRoot) {
+        return new DocumentationReader(outputRoot, Set.of());
+    }
+
+    /**
+     * Returns a reader that skips the given properties at every nesting level, leaving the corresponding
+     * record components {@code null}.
+     */
+    public DocumentationReader skipping(String... properties) {
+        return new DocumentationReader(root, Set.of(properties));
+    }
+
+    /**
+     * Reads the {@code index.json} of a directory relative to the output root.
+     */
+    public DirectoryIndex readIndex(Path directory) throws IOException {
+        return JsonReader.read(root.resolve(directory).resolve(INDEX_FILE), DirectoryIndex.class, skippedProperties);
+    }
+
+    /**
+     * Reads a type file relative to the output root, e.g. {@code com/example/Greeter.json}.
+     */
+    public TypeDocumentation readType(Path file) throws IOException {
+        return JsonReader.read(root.resolve(file), TypeDocumentation.class, skippedProperties);
+    }
+
+    /**
+     * Reads the member chunks of a type split with {@code --split-members} or {@code --split-bytes}, in chunk
+     * order; returns an empty list for types that were not split.
+     *
+     * @param file type file relative to the output root, as passed to {@link #readType(Path)}
+     * @param type the type read from {@code file}
+     */
+    public List<MemberChunk> readMemberChunks(Path file, TypeDocumentation type) throws IOException {
+        if (type.memberChunks() == null) {
+            return List.of();
+        }
+        List<MemberChunk> chunks = new ArrayList<>(type.memberChunks().size());
+        for (String chunkFile : type.memberChunks()) {
+            chunks.add(JsonReader.read(root.resolve(file).resolveSibling(chunkFile), MemberChunk.class,
+                    skippedProperties));
+        }
+        return chunks;
+    }
+
+    /**
+     * Reads the shared documentation strings written with {@code --dedupe-docs}, or returns {@code null}
+     * when the output was generated without deduplication.
+     */
+    public DocumentationStrings readDocumentationStrings() throws IOException {
+        Path file = root.resolve(DOCUMENTATION_STRINGS_FILE);
+        return Files.isRegularFile(file) ? JsonReader.read(file, DocumentationStrings.class, Set.of()) : null;
+    }
+
+    /**
+     * Reads one of the query indexes written with {@code --query-indexes}, or returns {@code null} when the
+     * output was generated without them.
+     *
+     * @param index {@code deprecated}, {@code since}, {@code annotation} or {@code throws}
+     */
+    public ElementIndex readQueryIndex(String index) throws IOException {
+        Path file = root.resolve(index + "-index.json");
+        return Files.isRegularFile(file) ? JsonReader.read(file, ElementIndex.class, skippedProperties) : null;
+    }
+
+    /**
+     * Reads the report of elements that could not be documented, or returns {@code null} when the run had
+     * no failures.
+     */
+    public ErrorReport readErrorReport() throws IOException {
+        Path file = root.resolve(ERROR_REPORT_FILE);
+        return Files.isRegularFile(file) ? JsonReader.read(file, ErrorReport.class, Set.of()) : null;
+    }
+
+    /**
+     * Lazily lists all type files relative to the output root, directory by directory in index order.
+     */
+    public Stream<Path> typeFiles() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new TypeFileIterator(),
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.DISTINCT), false);
+    }
+
+    /**
+     * Lazily reads all types; I/O failures surface as {@link UncheckedIOException}.
+     */
+    public Stream<TypeDocumentation> types() {
+        return typeFiles().map(file -> {
+            try {
+                return readType(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read " + file, e);
+            }
+        });
+    }
+
+    private final class TypeFileIterator implements Iterator<Path> {
+        private final Deque<Path> pendingDirectories = new ArrayDeque<>(List.of(Path.of("")));
+        private final Deque<Path> pendingFiles = new ArrayDeque<>();
+
+        @Override
+        public boolean hasNext() {
+            while (pendingFiles.isEmpty() && !pendingDirectories.isEmpty()) {
+                Path directory = pendingDirectories.pop();
+                if (!Files.isRegularFile(root.resolve(directory).resolve(INDEX_FILE))) {
+                    continue;
+                }
+                DirectoryIndex index;
+                try {
+                    index = JsonReader.read(root.resolve(directory).resolve(INDEX_FILE), DirectoryIndex.class,
+                            Set.of("package"));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to read index of " + directory, e);
+                }
+                for (IndexFileEntry entry : index.getFiles()) {
+                    pendingFiles.add(directory.resolve(entry.file()));
+                }
+                List<SubdirectoryEntry> subdirectories = index.getSubdirectories();
+                for (int i = subdirectories.size() - 1; i >= 0; i--) {
+                    pendingDirectories.push(directory.resolve(subdirectories.get(i).path()));
+                }
+            }
+            return !pendingFiles.isEmpty();
+        }
+
+        @Override
+        public Path next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return pendingFiles.poll();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package io.fluxzero.tools.jsondoclet.sink;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams every document into a single zip archive instead of one file per document.
+ * <p>
+ * Entries are appended in the order documents arrive and carry a fixed timestamp, so the archive content only
+ * depends on the documentation. The archive is complete once the sink is closed.
+ */
+public final class ArchiveSink implements OutputSink {
+    private static final LocalDateTime ENTRY_TIME = LocalDateTime.of(1980, 1, 1, 0, 0);
+
+    private final ZipOutputStream out;
+    private final Set<String> entries = new HashSet<>();
+
+    /**
+     * Creates or replaces the archive at {@code archive}.
+     */
+    public ArchiveSink(Path archive) throws IOException {
+        Path parent = archive.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.out = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(archive)));
+    }
+
+    /**
+     * Appends the document as a new entry; zip archives cannot replace entries, so a path may be written once.
+     */
+    @Override
+    public synchronized void write(String relativePath, byte[] content) throws IOException {
+        if (!entries.add(relativePath)) {
+            throw new IOException("Archive already contains " + relativePath);
+        }
+        ZipEntry entry = new ZipEntry(relativePath);
+        entry.setTimeLocal(ENTRY_TIME);
+        out.putNextEntry(entry);
+        out.write(content);
+        out.closeEntry();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,151 @@
+package io.fluxzero.tools.jsondoclet.sink;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.UUID;
+
+/**
+ * Directory sink that leaves the target directory untouched until the whole run has succeeded.
+ * <p>
+ * Documents are written into a staging directory next to the target, each through a temporary file that is
+ * moved into place with {@link StandardCopyOption#ATOMIC_MOVE}, so the staging tree never holds a truncated
+ * file. {@link #commit()} then swaps the staging directory in for the target with two renames on the same
+ * filesystem; closing the sink without a commit discards the staging directory. A process that is killed
+ * mid-run leaves only a {@code .staging-*} sibling behind, never a half-rewritten target. Single staged files,
+ * such as the report of a failed run, can be kept by {@link #preserve(String)} before the sink is closed.
+ */
+public final class AtomicDirectorySink implements OutputSink {
+    private final Path target;
+    private final Path staging;
+    private boolean committed;
+
+    /**
+     * Creates the staging directory for {@code target}.
+     */
+    public AtomicDirectorySink(Path target) throws IOException {
+        Path absolute = target.toAbsolutePath().normalize();
+        this.target = absolute;
+        this.staging = absolute.resolveSibling(absolute.getFileName() + ".staging-" + UUID.randomUUID());
+        Files.createDirectories(staging);
+    }
+
+    /**
+     * Returns the directory documents are written to until {@link #commit()}.
+     */
+    public Path staging() {
+        return staging;
+    }
+
+    /**
+     * Returns where {@link #preserve(String)} keeps a staged file: {@code <target>.<file name>}, next to the
+     * target directory.
+     */
+    public Path besideTarget(String relativePath) {
+        return target.resolveSibling(target.getFileName() + "." + Path.of(relativePath).getFileName());
+    }
+
+    /**
+     * Moves a staged file out of the staging directory to {@link #besideTarget(String)}, so it survives a run
+     * that is not committed without touching the target directory.
+     *
+     * @return the location of the kept file, or {@code null} when the file was not staged
+     */
+    public synchronized Path preserve(String relativePath) throws IOException {
+        Path staged = staging.resolve(relativePath);
+        if (committed || !Files.isRegularFile(staged)) {
+            return null;
+        }
+        Path kept = besideTarget(relativePath);
+        move(staged, kept);
+        return kept;
+    }
+
+    @Override
+    public void createDirectories(String relativeDirectory) throws IOException {
+        Files.createDirectories(staging.resolve(relativeDirectory));
+    }
+
+    @Override
+    public void write(String relativePath, byte[] content) throws IOException {
+        Path destination = staging.resolve(relativePath);
+        Path temporary = Files.createTempFile(destination.getParent(), destination.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporary, content);
+            move(temporary, destination);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Replaces the target directory with the staged output and removes the previous output.
+     */
+    public synchronized void commit() throws IOException {
+        if (committed) {
+            return;
+        }
+        Path previous = null;
+        if (Files.exists(target)) {
+            previous = target.resolveSibling(target.getFileName() + ".previous-" + UUID.randomUUID());
+            move(target, previous);
+        }
+        try {
+            move(staging, target);
+        } catch (IOException e) {
+            if (previous != null) {
+                move(previous, target);
+            }
+            throw e;
+        }
+        committed = true;
+        if (previous != null) {
+            deleteTree(previous);
+        }
+    }
+
+    /**
+     * Discards the staging directory unless the output was committed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!committed) {
+            deleteTree(staging);
+        }
+    }
+
+    private static void move(Path source, Path destination) throws IOException {
+        try {
+            Files.move(source, destination, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, destination, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteTree(Path root) throws IOException {
+        if (!Files.exists(root)) {
+            return;
+        }
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path directory, IOException failure) throws IOException {
+                if (failure != null) {
+                    throw failure;
+                }
+                Files.delete(directory);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
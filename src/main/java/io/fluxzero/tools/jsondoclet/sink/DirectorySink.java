@@ -0,0 +1,36 @@
+package io.fluxzero.tools.jsondoclet.sink;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes every document to its own file below a root directory, which is the doclet's default output.
+ */
+public final class DirectorySink implements OutputSink {
+    private final Path root;
+
+    /**
+     * Creates a sink writing below {@code root}; missing directories are created on demand.
+     */
+    public DirectorySink(Path root) {
+        this.root = root;
+    }
+
+    /**
+     * Returns the directory documents are written to.
+     */
+    public Path root() {
+        return root;
+    }
+
+    @Override
+    public void createDirectories(String relativeDirectory) throws IOException {
+        Files.createDirectories(root.resolve(relativeDirectory));
+    }
+
+    @Override
+    public void write(String relativePath, byte[] content) throws IOException {
+        Files.write(root.resolve(relativePath), content);
+    }
+}
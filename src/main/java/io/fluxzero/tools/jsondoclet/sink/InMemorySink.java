@@ -0,0 +1,35 @@
+package io.fluxzero.tools.jsondoclet.sink;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Keeps every document in memory, sorted by path, e.g. for tests, benchmarks or piping output into an indexer
+ * without touching the disk.
+ */
+public final class InMemorySink implements OutputSink {
+    private final NavigableMap<String, byte[]> documents = new ConcurrentSkipListMap<>();
+
+    @Override
+    public void write(String relativePath, byte[] content) {
+        documents.put(relativePath, content);
+    }
+
+    /**
+     * Returns a live, read-only view of the documents written so far, keyed by path.
+     */
+    public Map<String, byte[]> documents() {
+        return Collections.unmodifiableMap(documents);
+    }
+
+    /**
+     * Returns the document at {@code relativePath} as UTF-8 text, or {@code null} when nothing was written there.
+     */
+    public String read(String relativePath) {
+        byte[] content = documents.get(relativePath);
+        return content != null ? new String(content, StandardCharsets.UTF_8) : null;
+    }
+}
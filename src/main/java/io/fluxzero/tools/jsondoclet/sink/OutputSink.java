@@ -0,0 +1,30 @@
+package io.fluxzero.tools.jsondoclet.sink;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Destination for serialized documents, addressed by their path relative to the output root.
+ * <p>
+ * Paths always use {@code /} as separator, e.g. {@code com/example/Greeter.json}. Documents may be written from
+ * several threads at once when a write-behind or concurrent emitter is active, so implementations must be
+ * thread-safe. Closing the sink is up to whoever created it.
+ */
+public interface OutputSink extends Closeable {
+    /**
+     * Prepares a directory before documents are written into it. Sinks without real directories ignore this.
+     *
+     * @param relativeDirectory directory relative to the output root; empty for the root itself
+     */
+    default void createDirectories(String relativeDirectory) throws IOException {
+    }
+
+    /**
+     * Writes a complete document, replacing an earlier document at the same path.
+     */
+    void write(String relativePath, byte[] content) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,735 @@
+package io.fluxzero.tools.jsondoclet.util;
+
+import io.fluxzero.tools.jsondoclet.model.DirectoryIndex;
+import io.fluxzero.tools.jsondoclet.model.DirectoryIndex.IndexFileEntry;
+import io.fluxzero.tools.jsondoclet.model.DirectoryIndex.IndexStatistics;
+import io.fluxzero.tools.jsondoclet.model.DirectoryIndex.SubdirectoryEntry;
+import io.fluxzero.tools.jsondoclet.model.ModuleDocumentation;
+import io.fluxzero.tools.jsondoclet.model.OmitWhenNull;
+import io.fluxzero.tools.jsondoclet.model.PackageDocumentation;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Minimal streaming JSON pull parser, the reading counterpart of {@link JsonWriter}.
+ * <p>
+ * Values are consumed token by token so callers can skip whole subtrees with {@link #skipValue()} without
+ * materializing them.
+ */
+public final class JsonReader implements Closeable {
+    /**
+     * Kinds of tokens returned by {@link #peek()}.
+     */
+    public enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int NONEMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+
+    private static final ClassValue<RecordBinding> RECORD_BINDINGS = new ClassValue<>() {
+        @Override
+        protected RecordBinding computeValue(Class<?> type) {
+            return new RecordBinding(type);
+        }
+    };
+
+    private final Reader in;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private int[] stack = new int[32];
+    private int stackSize = 1;
+    private Token peeked;
+    private final StringBuilder scratch = new StringBuilder();
+
+    /**
+     * Creates a reader consuming the supplied character stream.
+     */
+    public JsonReader(Reader in) {
+        this.in = in;
+        this.stack[0] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * Opens a UTF-8 encoded JSON file.
+     */
+    public static JsonReader open(Path path) throws IOException {
+        return new JsonReader(Files.newBufferedReader(path));
+    }
+
+    /**
+     * Reads a complete JSON file into maps, lists, strings, numbers, booleans and {@code null}.
+     */
+    public static Object readTree(Path path) throws IOException {
+        try (JsonReader reader = open(path)) {
+            return reader.readValue();
+        }
+    }
+
+    /**
+     * Returns the kind of the next token without consuming it.
+     */
+    public Token peek() throws IOException {
+        if (peeked != null) {
+            return peeked;
+        }
+        int context = stack[stackSize - 1];
+        int ch;
+        switch (context) {
+            case EMPTY_ARRAY -> {
+                stack[stackSize - 1] = NONEMPTY_ARRAY;
+                ch = nextNonWhitespace();
+                if (ch == ']') {
+                    return peeked = Token.END_ARRAY;
+                }
+            }
+            case NONEMPTY_ARRAY -> {
+                ch = nextNonWhitespace();
+                if (ch == ']') {
+                    return peeked = Token.END_ARRAY;
+                }
+                if (ch != ',') {
+                    throw syntaxError("Expected ',' or ']'");
+                }
+                ch = nextNonWhitespace();
+            }
+            case EMPTY_OBJECT, NONEMPTY_OBJECT -> {
+                ch = nextNonWhitespace();
+                if (ch == '}') {
+                    return peeked = Token.END_OBJECT;
+                }
+                if (context == NONEMPTY_OBJECT) {
+                    if (ch != ',') {
+                        throw syntaxError("Expected ',' or '}'");
+                    }
+                    ch = nextNonWhitespace();
+                }
+                if (ch != '"') {
+                    throw syntaxError("Expected property name");
+                }
+                stack[stackSize - 1] = DANGLING_NAME;
+                position--;
+                return peeked = Token.NAME;
+            }
+            case DANGLING_NAME -> {
+                if (nextNonWhitespace() != ':') {
+                    throw syntaxError("Expected ':'");
+                }
+                stack[stackSize - 1] = NONEMPTY_OBJECT;
+                ch = nextNonWhitespace();
+            }
+            case EMPTY_DOCUMENT -> {
+                stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+                ch = nextNonWhitespace();
+            }
+            default -> {
+                ch = nextNonWhitespace();
+                if (ch == -1) {
+                    return peeked = Token.END_DOCUMENT;
+                }
+                throw syntaxError("Multiple top-level values");
+            }
+        }
+        return peeked = valueToken(ch);
+    }
+
+    /**
+     * Consumes the opening brace of an object.
+     */
+    public void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    /**
+     * Consumes the closing brace of an object.
+     */
+    public void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        stackSize--;
+    }
+
+    /**
+     * Consumes the opening bracket of an array.
+     */
+    public void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    /**
+     * Consumes the closing bracket of an array.
+     */
+    public void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        stackSize--;
+    }
+
+    /**
+     * Returns {@code true} while the current object or array has more elements.
+     */
+    public boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    /**
+     * Consumes a property name.
+     */
+    public String nextName() throws IOException {
+        expect(Token.NAME);
+        position++;
+        return readString();
+    }
+
+    /**
+     * Consumes a string value.
+     */
+    public String nextString() throws IOException {
+        expect(Token.STRING);
+        position++;
+        return readString();
+    }
+
+    /**
+     * Consumes a string value or {@code null}.
+     */
+    public String nextStringOrNull() throws IOException {
+        if (peek() == Token.NULL) {
+            nextNull();
+            return null;
+        }
+        return nextString();
+    }
+
+    /**
+     * Consumes a boolean value.
+     */
+    public boolean nextBoolean() throws IOException {
+        expect(Token.BOOLEAN);
+        if (buffer[position] == 't') {
+            consumeLiteral("true");
+            return true;
+        }
+        consumeLiteral("false");
+        return false;
+    }
+
+    /**
+     * Consumes a {@code null} literal.
+     */
+    public void nextNull() throws IOException {
+        expect(Token.NULL);
+        consumeLiteral("null");
+    }
+
+    /**
+     * Consumes a number, returning an {@link Integer}, {@link Long} or {@link Double} depending on its form.
+     */
+    public Number nextNumber() throws IOException {
+        expect(Token.NUMBER);
+        scratch.setLength(0);
+        while (true) {
+            if (position == limit && !fill()) {
+                break;
+            }
+            char ch = buffer[position];
+            if ((ch >= '0' && ch <= '9') || ch == '-' || ch == '+' || ch == '.' || ch == 'e' || ch == 'E') {
+                scratch.append(ch);
+                position++;
+            } else {
+                break;
+            }
+        }
+        String literal = scratch.toString();
+        try {
+            if (literal.indexOf('.') < 0 && literal.indexOf('e') < 0 && literal.indexOf('E') < 0) {
+                long value = Long.parseLong(literal);
+                if (value == (int) value) {
+                    return Integer.valueOf((int) value);
+                }
+                return Long.valueOf(value);
+            }
+            return Double.valueOf(literal);
+        } catch (NumberFormatException e) {
+            throw syntaxError("Malformed number " + literal);
+        }
+    }
+
+    /**
+     * Skips the next value, including all nested values, without materializing it.
+     */
+    public void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT -> {
+                    beginObject();
+                    depth++;
+                }
+                case BEGIN_ARRAY -> {
+                    beginArray();
+                    depth++;
+                }
+                case END_OBJECT -> {
+                    endObject();
+                    depth--;
+                }
+                case END_ARRAY -> {
+                    endArray();
+                    depth--;
+                }
+                case NAME -> {
+                    peeked = null;
+                    position++;
+                    skipString();
+                }
+                case STRING -> {
+                    peeked = null;
+                    position++;
+                    skipString();
+                }
+                case NUMBER -> nextNumber();
+                case BOOLEAN -> nextBoolean();
+                case NULL -> nextNull();
+                case END_DOCUMENT -> throw syntaxError("Unexpected end of document");
+            }
+        } while (depth > 0);
+    }
+
+    /**
+     * Reads the next value into maps, lists, strings, numbers, booleans and {@code null}.
+     */
+    public Object readValue() throws IOException {
+        switch (peek()) {
+            case BEGIN_OBJECT -> {
+                Map<String, Object> map = new LinkedHashMap<>();
+                beginObject();
+                while (hasNext()) {
+                    String name = nextName();
+                    map.put(name, readValue());
+                }
+                endObject();
+                return map;
+            }
+            case BEGIN_ARRAY -> {
+                List<Object> list = new ArrayList<>();
+                beginArray();
+                while (hasNext()) {
+                    list.add(readValue());
+                }
+                endArray();
+                return list;
+            }
+            case STRING -> {
+                return nextString();
+            }
+            case NUMBER -> {
+                return nextNumber();
+            }
+            case BOOLEAN -> {
+                return nextBoolean();
+            }
+            case NULL -> {
+                nextNull();
+                return null;
+            }
+            default -> throw syntaxError("Expected a value but found " + peek());
+        }
+    }
+
+    /**
+     * Reads a complete JSON file into an instance of {@code type}, see {@link #readObject(Class, Set)}.
+     */
+    public static <T> T read(Path path, Class<T> type, Set<String> skippedProperties) throws IOException {
+        try (JsonReader reader = open(path)) {
+            return reader.readObject(type, skippedProperties);
+        }
+    }
+
+    /**
+     * Reads the next value into an instance of {@code type}: a record from the doclet model (or any record
+     * built from strings, numbers, booleans, lists, maps and other records) or {@link DirectoryIndex}.
+     * <p>
+     * Properties named in {@code skippedProperties} are skipped at any nesting level without being
+     * materialized and their components are set to {@code null}. Absent list and map components become
+     * empty collections, other absent components {@code null} (or the primitive default); unknown
+     * properties are ignored.
+     */
+    public <T> T readObject(Class<T> type, Set<String> skippedProperties) throws IOException {
+        return type.cast(readTyped(type, skippedProperties));
+    }
+
+    private Object readTyped(Type type, Set<String> skipped) throws IOException {
+        if (peek() == Token.NULL) {
+            nextNull();
+            return null;
+        }
+        Class<?> raw = rawType(type);
+        if (raw == String.class) {
+            return nextString();
+        }
+        if (raw == boolean.class || raw == Boolean.class) {
+            return nextBoolean();
+        }
+        if (raw == int.class || raw == Integer.class) {
+            return nextNumber().intValue();
+        }
+        if (raw == long.class || raw == Long.class) {
+            return nextNumber().longValue();
+        }
+        if (raw == double.class || raw == Double.class) {
+            return nextNumber().doubleValue();
+        }
+        if (raw == List.class) {
+            Type elementType = typeArgument(type, 0);
+            List<Object> list = new ArrayList<>();
+            beginArray();
+            while (hasNext()) {
+                list.add(readTyped(elementType, skipped));
+            }
+            endArray();
+            return list.isEmpty() ? List.of() : Collections.unmodifiableList(list);
+        }
+        if (raw == Map.class) {
+            Type valueType = typeArgument(type, 1);
+            Map<String, Object> map = new LinkedHashMap<>();
+            beginObject();
+            while (hasNext()) {
+                String name = nextName();
+                map.put(name, readTyped(valueType, skipped));
+            }
+            endObject();
+            return map.isEmpty() ? Map.of() : Collections.unmodifiableMap(map);
+        }
+        if (raw == DirectoryIndex.class) {
+            return readDirectoryIndex(skipped);
+        }
+        if (raw.isRecord()) {
+            return readRecord(RECORD_BINDINGS.get(raw), skipped);
+        }
+        return readValue();
+    }
+
+    private Object readRecord(RecordBinding binding, Set<String> skipped) throws IOException {
+        Object[] arguments = new Object[binding.componentTypes.length];
+        boolean[] present = new boolean[arguments.length];
+        beginObject();
+        while (hasNext()) {
+            String name = nextName();
+            Integer index = binding.indexes.get(name);
+            if (index == null || skipped.contains(name)) {
+                skipValue();
+                if (index != null) {
+                    present[index] = true;
+                }
+                continue;
+            }
+            arguments[index] = readTyped(binding.componentTypes[index], skipped);
+            present[index] = true;
+        }
+        endObject();
+        for (int i = 0; i < arguments.length; i++) {
+            if (!present[i] || (arguments[i] == null && binding.primitive[i])) {
+                arguments[i] = binding.defaultValue(i);
+            }
+        }
+        try {
+            return binding.constructor.newInstance(arguments);
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("Unable to create " + binding.constructor.getDeclaringClass().getName(), e);
+        }
+    }
+
+    private DirectoryIndex readDirectoryIndex(Set<String> skipped) throws IOException {
+        DirectoryIndex index = new DirectoryIndex();
+        beginObject();
+        while (hasNext()) {
+            String name = nextName();
+            if (skipped.contains(name)) {
+                skipValue();
+                continue;
+            }
+            switch (name) {
+                case "module" -> index.setModule((ModuleDocumentation) readTyped(ModuleDocumentation.class, skipped));
+                case "package" -> index.setPackage((PackageDocumentation) readTyped(PackageDocumentation.class, skipped));
+                case "files" -> {
+                    beginArray();
+                    while (hasNext()) {
+                        index.addFile((IndexFileEntry) readTyped(IndexFileEntry.class, skipped));
+                    }
+                    endArray();
+                }
+                case "statistics" -> index.setStatistics((IndexStatistics) readTyped(IndexStatistics.class, skipped));
+                case "subdirectories" -> {
+                    beginArray();
+                    while (hasNext()) {
+                        index.addSubdirectory((SubdirectoryEntry) readTyped(SubdirectoryEntry.class, skipped));
+                    }
+                    endArray();
+                }
+                default -> skipValue();
+            }
+        }
+        endObject();
+        return index;
+    }
+
+    private static Class<?> rawType(Type type) {
+        if (type instanceof Class<?> clazz) {
+            return clazz;
+        }
+        if (type instanceof ParameterizedType parameterized) {
+            return (Class<?>) parameterized.getRawType();
+        }
+        return Object.class;
+    }
+
+    private static Type typeArgument(Type type, int index) {
+        if (type instanceof ParameterizedType parameterized) {
+            Type argument = parameterized.getActualTypeArguments()[index];
+            if (argument instanceof WildcardType wildcard) {
+                return wildcard.getUpperBounds()[0];
+            }
+            return argument;
+        }
+        return Object.class;
+    }
+
+    /**
+     * Cached canonical constructor and component metadata of a record class.
+     */
+    private static final class RecordBinding {
+        private final Constructor<?> constructor;
+        private final Type[] componentTypes;
+        private final boolean[] primitive;
+        private final boolean[] omitWhenNull;
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        RecordBinding(Class<?> type) {
+            RecordComponent[] components = type.getRecordComponents();
+            Class<?>[] parameterTypes = new Class<?>[components.length];
+            componentTypes = new Type[components.length];
+            primitive = new boolean[components.length];
+            omitWhenNull = new boolean[components.length];
+            for (int i = 0; i < components.length; i++) {
+                parameterTypes[i] = components[i].getType();
+                componentTypes[i] = components[i].getGenericType();
+                primitive[i] = components[i].getType().isPrimitive();
+                omitWhenNull[i] = components[i].isAnnotationPresent(OmitWhenNull.class);
+                indexes.put(components[i].getName(), i);
+            }
+            try {
+                constructor = type.getDeclaredConstructor(parameterTypes);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException("No canonical constructor for " + type.getName(), e);
+            }
+        }
+
+        Object defaultValue(int index) {
+            Class<?> raw = rawType(componentTypes[index]);
+            if (raw == boolean.class) {
+                return false;
+            }
+            if (raw == int.class) {
+                return 0;
+            }
+            if (raw == long.class) {
+                return 0L;
+            }
+            if (raw == double.class) {
+                return 0.0d;
+            }
+            if (omitWhenNull[index]) {
+                return null;
+            }
+            if (raw == List.class) {
+                return List.of();
+            }
+            if (raw == Map.class) {
+                return Map.of();
+            }
+            return null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private Token valueToken(int ch) throws IOException {
+        switch (ch) {
+            case '{' -> {
+                return Token.BEGIN_OBJECT;
+            }
+            case '[' -> {
+                return Token.BEGIN_ARRAY;
+            }
+            case '"' -> {
+                position--;
+                return Token.STRING;
+            }
+            case 't', 'f' -> {
+                position--;
+                return Token.BOOLEAN;
+            }
+            case 'n' -> {
+                position--;
+                return Token.NULL;
+            }
+            case -1 -> throw syntaxError("Unexpected end of document");
+            default -> {
+                if (ch == '-' || (ch >= '0' && ch <= '9')) {
+                    position--;
+                    return Token.NUMBER;
+                }
+                throw syntaxError("Unexpected character '" + (char) ch + "'");
+            }
+        }
+    }
+
+    private void expect(Token token) throws IOException {
+        Token actual = peek();
+        if (actual != token) {
+            throw syntaxError("Expected " + token + " but found " + actual);
+        }
+        peeked = null;
+    }
+
+    private void push(int context) {
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+        stack[stackSize++] = context;
+    }
+
+    private String readString() throws IOException {
+        scratch.setLength(0);
+        while (true) {
+            int ch = read();
+            if (ch == '"') {
+                return scratch.toString();
+            }
+            if (ch == '\\') {
+                scratch.append(readEscape());
+            } else if (ch == -1) {
+                throw syntaxError("Unterminated string");
+            } else {
+                scratch.append((char) ch);
+            }
+        }
+    }
+
+    private void skipString() throws IOException {
+        while (true) {
+            int ch = read();
+            if (ch == '"') {
+                return;
+            }
+            if (ch == '\\') {
+                readEscape();
+            } else if (ch == -1) {
+                throw syntaxError("Unterminated string");
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        int ch = read();
+        switch (ch) {
+            case '"', '\\', '/' -> {
+                return (char) ch;
+            }
+            case 'b' -> {
+                return '\b';
+            }
+            case 'f' -> {
+                return '\f';
+            }
+            case 'n' -> {
+                return '\n';
+            }
+            case 'r' -> {
+                return '\r';
+            }
+            case 't' -> {
+                return '\t';
+            }
+            case 'u' -> {
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw syntaxError("Malformed unicode escape");
+                    }
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            }
+            default -> throw syntaxError("Invalid escape sequence");
+        }
+    }
+
+    private void consumeLiteral(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (read() != literal.charAt(i)) {
+                throw syntaxError("Expected " + literal);
+            }
+        }
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        while (true) {
+            int ch = read();
+            if (ch != ' ' && ch != '\n' && ch != '\r' && ch != '\t') {
+                return ch;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private boolean fill() throws IOException {
+        int count = in.read(buffer, 0, buffer.length);
+        if (count <= 0) {
+            position = 0;
+            limit = 0;
+            return false;
+        }
+        position = 0;
+        limit = count;
+        return true;
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException("Malformed JSON: " + message);
+    }
+}
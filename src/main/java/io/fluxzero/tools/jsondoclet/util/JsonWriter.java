@@ -1,22 +1,53 @@
 package io.fluxzero.tools.jsondoclet.util;
 
 import io.fluxzero.tools.jsondoclet.model.DirectoryIndex;
+import io.fluxzero.tools.jsondoclet.model.OmitWhenNull;
 import java.io.IOException;
-import java.io.Writer;
+import java.io.OutputStream;
 import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.RandomAccess;
 
 /**
  * Minimal JSON serializer tailored to the doclet's data model.
+ * <p>
+ * Each thread reuses a single {@link Serializer} whose byte buffer grows to the largest document it has
+ * written, so emitting many files produces almost no short-lived garbage.
+ * <p>
+ * With {@code omitDefaults}, record components that are {@code null} or empty collections are left out
+ * entirely; readers restore them as {@code null} and empty collections. Components annotated with
+ * {@link OmitWhenNull} keep their empty collections, because for them absence means the feature was off.
+ * <p>
+ * Pretty and compact output differ only in the separators and indentation held by a {@link Format}, chosen
+ * once per document. Lists with indexed access and primitive arrays are written without iterators or boxing.
  */
 public final class JsonWriter {
+    private static final ThreadLocal<Serializer> SERIALIZERS = ThreadLocal.withInitial(Serializer::new);
+
+    private static final ClassValue<ComponentAccessor[]> RECORD_COMPONENTS = new ClassValue<>() {
+        @Override
+        protected ComponentAccessor[] computeValue(Class<?> type) {
+            RecordComponent[] components = type.getRecordComponents();
+            ComponentAccessor[] accessors = new ComponentAccessor[components.length];
+            for (int i = 0; i < components.length; i++) {
+                accessors[i] = new ComponentAccessor(components[i]);
+            }
+            return accessors;
+        }
+    };
+
     private JsonWriter() {
     }
 
@@ -24,51 +55,270 @@ public final class JsonWriter {
      * Serializes the supplied value to the given path.
      */
     public static void write(Path path, Object value, boolean pretty) throws IOException {
-        try (Writer writer = Files.newBufferedWriter(path)) {
-            new Serializer(writer, pretty).writeValue(value);
-            writer.write('\n');
+        write(path, value, pretty, false);
+    }
+
+    /**
+     * Serializes the supplied value to the given path, optionally leaving out default-valued components.
+     */
+    public static void write(Path path, Object value, boolean pretty, boolean omitDefaults) throws IOException {
+        Serializer serializer = SERIALIZERS.get();
+        serializer.serialize(value, pretty, omitDefaults);
+        try (OutputStream out = Files.newOutputStream(path)) {
+            serializer.buffer.writeTo(out);
+        } finally {
+            serializer.release();
+        }
+    }
+
+    /**
+     * Serializes the supplied value to UTF-8 encoded bytes, including the trailing newline written by
+     * {@link #write(Path, Object, boolean)}.
+     */
+    public static byte[] toBytes(Object value, boolean pretty) {
+        return toBytes(value, pretty, false);
+    }
+
+    /**
+     * Serializes the supplied value to UTF-8 encoded bytes, optionally leaving out default-valued components.
+     */
+    public static byte[] toBytes(Object value, boolean pretty, boolean omitDefaults) {
+        Serializer serializer = SERIALIZERS.get();
+        serializer.serialize(value, pretty, omitDefaults);
+        try {
+            return serializer.buffer.toByteArray();
+        } finally {
+            serializer.release();
+        }
+    }
+
+    /**
+     * Growable UTF-8 byte buffer that is reused across documents.
+     */
+    private static final class ByteSink {
+        private static final int INITIAL_CAPACITY = 16 * 1024;
+        private static final int RETAINED_CAPACITY = 4 * 1024 * 1024;
+
+        private byte[] bytes = new byte[INITIAL_CAPACITY];
+        private int size;
+
+        void reset() {
+            size = 0;
+        }
+
+        void trim() {
+            if (bytes.length > RETAINED_CAPACITY) {
+                bytes = new byte[INITIAL_CAPACITY];
+            }
+            size = 0;
+        }
+
+        void write(byte value) {
+            ensureCapacity(1);
+            bytes[size++] = value;
+        }
+
+        void write(byte[] values) {
+            ensureCapacity(values.length);
+            System.arraycopy(values, 0, bytes, size, values.length);
+            size += values.length;
+        }
+
+        void writeAscii(String value) {
+            int length = value.length();
+            ensureCapacity(length);
+            for (int i = 0; i < length; i++) {
+                bytes[size++] = (byte) value.charAt(i);
+            }
+        }
+
+        void writeLong(long value) {
+            if (value == Long.MIN_VALUE) {
+                writeAscii(Long.toString(value));
+                return;
+            }
+            ensureCapacity(20);
+            if (value < 0) {
+                bytes[size++] = '-';
+                value = -value;
+            }
+            int digits = 1;
+            for (long remaining = value / 10; remaining != 0; remaining /= 10) {
+                digits++;
+            }
+            int position = size + digits;
+            do {
+                bytes[--position] = (byte) ('0' + (int) (value % 10));
+                value /= 10;
+            } while (value != 0);
+            size += digits;
+        }
+
+        void writeUtf8(char ch) {
+            ensureCapacity(3);
+            if (ch < 0x80) {
+                bytes[size++] = (byte) ch;
+            } else if (ch < 0x800) {
+                bytes[size++] = (byte) (0xC0 | (ch >> 6));
+                bytes[size++] = (byte) (0x80 | (ch & 0x3F));
+            } else {
+                bytes[size++] = (byte) (0xE0 | (ch >> 12));
+                bytes[size++] = (byte) (0x80 | ((ch >> 6) & 0x3F));
+                bytes[size++] = (byte) (0x80 | (ch & 0x3F));
+            }
+        }
+
+        void writeCodePoint(int codePoint) {
+            ensureCapacity(4);
+            bytes[size++] = (byte) (0xF0 | (codePoint >> 18));
+            bytes[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            bytes[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            bytes[size++] = (byte) (0x80 | (codePoint & 0x3F));
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            out.write(bytes, 0, size);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        private void ensureCapacity(int additional) {
+            int required = size + additional;
+            if (required > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(required, bytes.length * 2));
+            }
+        }
+    }
+
+    /**
+     * Separators and indentation of one output style, pre-encoded so writers never branch on the style.
+     */
+    private enum Format {
+        COMPACT("[]", "[", ",", "]", ":", false),
+        PRETTY("[ ]", "[ ", ", ", " ]", " : ", true);
+
+        private final byte[] emptyArray;
+        private final byte[] openArray;
+        private final byte[] elementSeparator;
+        private final byte[] closeArray;
+        private final byte[] keySeparator;
+        private final boolean indented;
+
+        Format(String emptyArray, String openArray, String elementSeparator, String closeArray, String keySeparator,
+                boolean indented) {
+            this.emptyArray = emptyArray.getBytes(StandardCharsets.US_ASCII);
+            this.openArray = openArray.getBytes(StandardCharsets.US_ASCII);
+            this.elementSeparator = elementSeparator.getBytes(StandardCharsets.US_ASCII);
+            this.closeArray = closeArray.getBytes(StandardCharsets.US_ASCII);
+            this.keySeparator = keySeparator.getBytes(StandardCharsets.US_ASCII);
+            this.indented = indented;
+        }
+
+        static Format of(boolean pretty) {
+            return pretty ? PRETTY : COMPACT;
+        }
+    }
+
+    /**
+     * Cached record component accessor together with its pre-encoded JSON keys.
+     */
+    private static final class ComponentAccessor {
+        private final Method accessor;
+        private final String name;
+        private final boolean omitWhenNull;
+        private final byte[][] keys = new byte[Format.values().length][];
+
+        ComponentAccessor(RecordComponent component) {
+            this.accessor = component.getAccessor();
+            this.name = component.getName();
+            this.omitWhenNull = component.isAnnotationPresent(OmitWhenNull.class);
+            for (Format format : Format.values()) {
+                keys[format.ordinal()] = ('"' + name + '"' + new String(format.keySeparator, StandardCharsets.US_ASCII))
+                        .getBytes(StandardCharsets.UTF_8);
+            }
+        }
+
+        byte[] key(Format format) {
+            return keys[format.ordinal()];
+        }
+
+        Object read(Object record) {
+            try {
+                return accessor.invoke(record);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException("Unable to read component " + name, e);
+            }
         }
     }
 
     private static final class Serializer {
-        private final Writer writer;
-        private final boolean pretty;
-        private final String indentUnit = "  ";
+        private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+        private static final String INDENT_UNIT = "  ";
+
+        private final ByteSink buffer = new ByteSink();
+        private byte[][] indents = indentsUpTo(16);
+        private Format format = Format.COMPACT;
+        private boolean omitDefaults;
         private int depth;
 
-        Serializer(Writer writer, boolean pretty) {
-            this.writer = writer;
-            this.pretty = pretty;
+        void serialize(Object value, boolean pretty, boolean omitDefaults) {
+            this.format = Format.of(pretty);
+            this.omitDefaults = omitDefaults;
+            this.depth = 0;
+            buffer.reset();
+            try {
+                writeValue(value);
+            } catch (RuntimeException e) {
+                release();
+                throw e;
+            }
+            buffer.write((byte) '\n');
+        }
+
+        void release() {
+            buffer.trim();
         }
 
-        void writeValue(Object value) throws IOException {
+        void writeValue(Object value) {
             if (value == null) {
-                writer.write("null");
+                buffer.write(NULL);
             } else if (value instanceof String string) {
                 writeString(string);
             } else if (value instanceof Character character) {
-                writeString(character.toString());
-            } else if (value instanceof Number || value instanceof Boolean) {
-                writer.write(value.toString());
+                writeChar(character);
+            } else if (value instanceof Integer || value instanceof Long || value instanceof Short
+                    || value instanceof Byte) {
+                buffer.writeLong(((Number) value).longValue());
+            } else if (value instanceof Boolean bool) {
+                buffer.write(bool ? TRUE : FALSE);
+            } else if (value instanceof Number) {
+                buffer.writeAscii(value.toString());
             } else if (value instanceof Enum<?> enumValue) {
                 writeString(enumValue.name());
             } else if (value instanceof Map<?, ?> map) {
                 writeMap(map);
+            } else if (value instanceof List<?> list && list instanceof RandomAccess) {
+                writeList(list);
             } else if (value instanceof Iterable<?> iterable) {
                 writeIterable(iterable.iterator());
-            } else if (value != null && value.getClass().isArray()) {
+            } else if (value.getClass().isArray()) {
                 writeArray(value);
             } else if (value instanceof DirectoryIndex index) {
                 writeDirectoryIndex(index);
-            } else if (value != null && value.getClass().isRecord()) {
+            } else if (value.getClass().isRecord()) {
                 writeRecord(value);
             } else {
                 throw new IllegalArgumentException("Unsupported JSON value: " + value);
             }
         }
 
-        private void writeMap(Map<?, ?> map) throws IOException {
-            writer.write('{');
+        private void writeMap(Map<?, ?> map) {
+            buffer.write((byte) '{');
             depth++;
             boolean first = true;
             for (Map.Entry<?, ?> entry : map.entrySet()) {
@@ -77,166 +327,268 @@ public final class JsonWriter {
                     throw new IllegalArgumentException("Non-string map key: " + key);
                 }
                 if (!first) {
-                    writer.write(',');
+                    buffer.write((byte) ',');
                 }
                 writeNewlineAndIndent();
                 writeString(keyString);
-                writer.write(pretty ? " : " : ":");
+                buffer.write(format.keySeparator);
                 writeValue(entry.getValue());
                 first = false;
             }
             depth--;
             if (!first) {
-                writeTrailingNewline();
+                writeNewlineAndIndent();
             }
-            writer.write('}');
+            buffer.write((byte) '}');
         }
 
-        private void writeIterable(Iterator<?> iterator) throws IOException {
-            if (!pretty) {
-                writer.write('[');
-                if (!iterator.hasNext()) {
-                    writer.write(']');
-                    return;
+        private void writeList(List<?> list) {
+            int size = list.size();
+            if (openArray(size)) {
+                writeValue(list.get(0));
+                for (int i = 1; i < size; i++) {
+                    buffer.write(format.elementSeparator);
+                    writeValue(list.get(i));
                 }
+                buffer.write(format.closeArray);
+            }
+        }
+
+        private void writeIterable(Iterator<?> iterator) {
+            if (openArray(iterator.hasNext() ? 1 : 0)) {
                 writeValue(iterator.next());
                 while (iterator.hasNext()) {
-                    writer.write(',');
+                    buffer.write(format.elementSeparator);
                     writeValue(iterator.next());
                 }
-                writer.write(']');
-                return;
-            }
-
-            writer.write('[');
-            if (!iterator.hasNext()) {
-                writer.write(' ');
-                writer.write(']');
-                return;
+                buffer.write(format.closeArray);
             }
-            writer.write(' ');
-            writeValue(iterator.next());
-            while (iterator.hasNext()) {
-                writer.write(',');
-                writer.write(' ');
-                writeValue(iterator.next());
-            }
-            writer.write(' ');
-            writer.write(']');
         }
 
-        private void writeArray(Object array) throws IOException {
-            int length = Array.getLength(array);
-            writer.write('[');
-            if (!pretty) {
-                for (int i = 0; i < length; i++) {
-                    if (i > 0) {
-                        writer.write(',');
+        /**
+         * Writes any array; primitive element types get their own loops so no element is boxed.
+         */
+        private void writeArray(Object array) {
+            if (array instanceof Object[] values) {
+                if (openArray(values.length)) {
+                    for (int i = 0; i < values.length; i++) {
+                        separateElement(i);
+                        writeValue(values[i]);
                     }
-                    writeValue(Array.get(array, i));
+                    buffer.write(format.closeArray);
                 }
-                writer.write(']');
-                return;
+            } else if (array instanceof int[] values) {
+                if (openArray(values.length)) {
+                    for (int i = 0; i < values.length; i++) {
+                        separateElement(i);
+                        buffer.writeLong(values[i]);
+                    }
+                    buffer.write(format.closeArray);
+                }
+            } else if (array instanceof long[] values) {
+                if (openArray(values.length)) {
+                    for (int i = 0; i < values.length; i++) {
+                        separateElement(i);
+                        buffer.writeLong(values[i]);
+                    }
+                    buffer.write(format.closeArray);
+                }
+            } else if (array instanceof short[] values) {
+                if (openArray(values.length)) {
+                    for (int i = 0; i < values.length; i++) {
+                        separateElement(i);
+                        buffer.writeLong(values[i]);
+                    }
+                    buffer.write(format.closeArray);
+                }
+            } else if (array instanceof byte[] values) {
+                if (openArray(values.length)) {
+                    for (int i = 0; i < values.length; i++) {
+                        separateElement(i);
+                        buffer.writeLong(values[i]);
+                    }
+                    buffer.write(format.closeArray);
+                }
+            } else if (array instanceof boolean[] values) {
+                if (openArray(values.length)) {
+                    for (int i = 0; i < values.length; i++) {
+                        separateElement(i);
+                        buffer.write(values[i] ? TRUE : FALSE);
+                    }
+                    buffer.write(format.closeArray);
+                }
+            } else if (array instanceof char[] values) {
+                if (openArray(values.length)) {
+                    for (int i = 0; i < values.length; i++) {
+                        separateElement(i);
+                        writeChar(values[i]);
+                    }
+                    buffer.write(format.closeArray);
+                }
+            } else if (array instanceof double[] values) {
+                if (openArray(values.length)) {
+                    for (int i = 0; i < values.length; i++) {
+                        separateElement(i);
+                        buffer.writeAscii(Double.toString(values[i]));
+                    }
+                    buffer.write(format.closeArray);
+                }
+            } else if (array instanceof float[] values) {
+                if (openArray(values.length)) {
+                    for (int i = 0; i < values.length; i++) {
+                        separateElement(i);
+                        buffer.writeAscii(Float.toString(values[i]));
+                    }
+                    buffer.write(format.closeArray);
+                }
+            } else {
+                throw new IllegalArgumentException("Unsupported JSON array: " + array.getClass());
             }
+        }
 
+        /**
+         * Writes the opening bracket, or the whole empty array when there are no elements.
+         *
+         * @return whether elements and the closing bracket still have to be written
+         */
+        private boolean openArray(int length) {
             if (length == 0) {
-                writer.write(' ');
-                writer.write(']');
-                return;
+                buffer.write(format.emptyArray);
+                return false;
             }
-            writer.write(' ');
-            for (int i = 0; i < length; i++) {
-                if (i > 0) {
-                    writer.write(',');
-                    writer.write(' ');
-                }
-                writeValue(Array.get(array, i));
+            buffer.write(format.openArray);
+            return true;
+        }
+
+        private void separateElement(int index) {
+            if (index > 0) {
+                buffer.write(format.elementSeparator);
             }
-            writer.write(' ');
-            writer.write(']');
         }
 
-        private void writeRecord(Object record) throws IOException {
-            writer.write('{');
+        private void writeRecord(Object record) {
+            buffer.write((byte) '{');
             depth++;
             boolean first = true;
-            for (RecordComponent component : record.getClass().getRecordComponents()) {
-                Object componentValue = invokeAccessor(component, record);
+            for (ComponentAccessor component : RECORD_COMPONENTS.get(record.getClass())) {
+                Object componentValue = component.read(record);
+                if (componentValue == null ? component.omitWhenNull || omitDefaults
+                        : omitDefaults && !component.omitWhenNull && isEmpty(componentValue)) {
+                    continue;
+                }
                 if (!first) {
-                    writer.write(',');
+                    buffer.write((byte) ',');
                 }
                 writeNewlineAndIndent();
-                writeString(component.getName());
-                writer.write(pretty ? " : " : ":");
+                buffer.write(component.key(format));
                 writeValue(componentValue);
                 first = false;
             }
             depth--;
             if (!first) {
-                writeTrailingNewline();
+                writeNewlineAndIndent();
             }
-            writer.write('}');
+            buffer.write((byte) '}');
         }
 
-        private void writeDirectoryIndex(DirectoryIndex index) throws IOException {
+        private void writeDirectoryIndex(DirectoryIndex index) {
             Map<String, Object> view = new LinkedHashMap<>();
+            if (index.getModule() != null) {
+                view.put("module", index.getModule());
+            }
             if (index.getPackage() != null) {
                 view.put("package", index.getPackage());
             }
-            view.put("files", index.getFiles());
-            view.put("subdirectories", index.getSubdirectories());
+            if (!omitDefaults || !index.getFiles().isEmpty()) {
+                view.put("files", index.getFiles());
+            }
+            if (!omitDefaults || !index.getSubdirectories().isEmpty()) {
+                view.put("subdirectories", index.getSubdirectories());
+            }
+            if (index.getStatistics() != null) {
+                view.put("statistics", index.getStatistics());
+            }
             writeMap(view);
         }
 
-        private Object invokeAccessor(RecordComponent component, Object record) {
-            try {
-                return component.getAccessor().invoke(record);
-            } catch (IllegalAccessException | InvocationTargetException e) {
-                throw new IllegalStateException("Unable to read component " + component.getName(), e);
+        private static boolean isEmpty(Object value) {
+            if (value instanceof Collection<?> collection) {
+                return collection.isEmpty();
+            }
+            if (value instanceof Map<?, ?> map) {
+                return map.isEmpty();
             }
+            return value.getClass().isArray() && Array.getLength(value) == 0;
         }
 
-        private void writeString(String value) throws IOException {
+        private void writeString(String value) {
             Objects.requireNonNull(value, "JSON strings cannot be null");
-            writer.write('"');
-            for (int i = 0; i < value.length(); i++) {
+            buffer.write((byte) '"');
+            int length = value.length();
+            for (int i = 0; i < length; i++) {
                 char ch = value.charAt(i);
-                switch (ch) {
-                    case '\\' -> writer.write("\\\\");
-                    case '"' -> writer.write("\\\"");
-                    case '\b' -> writer.write("\\b");
-                    case '\f' -> writer.write("\\f");
-                    case '\n' -> writer.write("\\n");
-                    case '\r' -> writer.write("\\r");
-                    case '\t' -> writer.write("\\t");
-                    default -> {
-                        if (ch < 0x20) {
-                            writer.write(String.format("\\u%04X", (int) ch));
-                        } else {
-                            writer.write(ch);
-                        }
-                    }
+                if (Character.isHighSurrogate(ch) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    buffer.writeCodePoint(Character.toCodePoint(ch, value.charAt(++i)));
+                } else {
+                    writeEscaped(ch);
                 }
             }
-            writer.write('"');
+            buffer.write((byte) '"');
         }
 
-        private void writeNewlineAndIndent() throws IOException {
-            if (pretty) {
-                writer.write('\n');
-                for (int i = 0; i < depth; i++) {
-                    writer.write(indentUnit);
+        private void writeChar(char value) {
+            buffer.write((byte) '"');
+            writeEscaped(value);
+            buffer.write((byte) '"');
+        }
+
+        /**
+         * Writes a single character, escaped where JSON requires it; unpaired surrogates become {@code ?}.
+         */
+        private void writeEscaped(char ch) {
+            switch (ch) {
+                case '\\' -> buffer.writeAscii("\\\\");
+                case '"' -> buffer.writeAscii("\\\"");
+                case '\b' -> buffer.writeAscii("\\b");
+                case '\f' -> buffer.writeAscii("\\f");
+                case '\n' -> buffer.writeAscii("\\n");
+                case '\r' -> buffer.writeAscii("\\r");
+                case '\t' -> buffer.writeAscii("\\t");
+                default -> {
+                    if (ch < 0x20) {
+                        writeUnicodeEscape(ch);
+                    } else if (Character.isSurrogate(ch)) {
+                        buffer.write((byte) '?');
+                    } else {
+                        buffer.writeUtf8(ch);
+                    }
                 }
             }
         }
 
-        private void writeTrailingNewline() throws IOException {
-            if (pretty) {
-                writer.write('\n');
-                for (int i = 0; i < depth; i++) {
-                    writer.write(indentUnit);
+        private void writeUnicodeEscape(char ch) {
+            buffer.writeAscii("\\u");
+            buffer.write(HEX[(ch >> 12) & 0xF]);
+            buffer.write(HEX[(ch >> 8) & 0xF]);
+            buffer.write(HEX[(ch >> 4) & 0xF]);
+            buffer.write(HEX[ch & 0xF]);
+        }
+
+        private void writeNewlineAndIndent() {
+            if (format.indented) {
+                if (depth >= indents.length) {
+                    indents = indentsUpTo(Math.max(depth + 1, indents.length * 2));
                 }
+                buffer.write(indents[depth]);
+            }
+        }
+
+        private static byte[][] indentsUpTo(int count) {
+            byte[][] result = new byte[count][];
+            for (int i = 0; i < count; i++) {
+                result[i] = ("\n" + INDENT_UNIT.repeat(i)).getBytes(StandardCharsets.US_ASCII);
             }
+            return result;
         }
     }
 }
@@ -0,0 +1,189 @@
+package io.fluxzero.tools.jsondoclet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.fluxzero.tools.jsondoclet.core.DocumentListener;
+import io.fluxzero.tools.jsondoclet.model.ErrorReport;
+import io.fluxzero.tools.jsondoclet.model.ErrorReport.ElementError;
+import io.fluxzero.tools.jsondoclet.model.TypeDocumentation;
+import io.fluxzero.tools.jsondoclet.sink.AtomicDirectorySink;
+import io.fluxzero.tools.jsondoclet.sink.InMemorySink;
+import io.fluxzero.tools.jsondoclet.util.JsonReader;
+import io.fluxzero.tools.jsondoclet.util.JsonWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Runs the doclet in-process through {@link JsonDocletRunner} against the sample project of the smoke test.
+ */
+class JsonDocletRunnerTest {
+    private static final Path SCENARIO_ROOT = Path.of("src", "test", "resources", "example");
+    private static final Path SOURCE_ROOT = SCENARIO_ROOT.resolve("source");
+    private static final Path EXPECTED_ROOT = SCENARIO_ROOT.resolve("expected");
+    private static final DocumentListener FAIL_ON_GREETER = (path, document) -> {
+        if (path.equals("com/example/Greeter.json")) {
+            throw new IllegalStateException("listener rejected Greeter");
+        }
+    };
+
+    @Test
+    void collectsTheSameDocumentsTheFileOutputContains() throws IOException {
+        JsonDocletRunner.Result result = JsonDocletRunner.of(javaFiles(SOURCE_ROOT)).collect();
+
+        assertTrue(result.success(), () -> "Doclet run failed: " + result.errors());
+        Set<String> expectedFiles;
+        try (var stream = Files.walk(EXPECTED_ROOT)) {
+            expectedFiles = stream.filter(Files::isRegularFile)
+                    .map(file -> EXPECTED_ROOT.relativize(file).toString().replace('\\', '/'))
+                    .collect(Collectors.toSet());
+        }
+        assertEquals(expectedFiles, result.documents().keySet());
+        for (Map.Entry<String, Object> document : result.documents().entrySet()) {
+            String expected = Files.readString(EXPECTED_ROOT.resolve(document.getKey())).replace("\r\n", "\n");
+            String actual = new String(JsonWriter.toBytes(document.getValue(), true), StandardCharsets.UTF_8);
+            assertEquals(expected, actual, "Mismatch for " + document.getKey());
+        }
+        assertTrue(result.types().stream().map(TypeDocumentation::qualifiedName).anyMatch("com.example.Greeter"::equals));
+    }
+
+    @Test
+    void writesFilesOnlyWhenAnOutputDirectoryIsSet(@TempDir Path tempDir) throws IOException {
+        Path outputDir = tempDir.resolve("out");
+        JsonDocletRunner runner = JsonDocletRunner.of(javaFiles(SOURCE_ROOT)).withOptions("--pretty");
+
+        assertTrue(runner.run((path, document) -> { }).success());
+        assertTrue(Files.notExists(outputDir));
+
+        List<String> paths = new ArrayList<>();
+        assertTrue(runner.writingTo(outputDir).run((path, document) -> paths.add(path)).success());
+        assertTrue(paths.contains("com/example/Greeter.json"));
+        for (String path : paths) {
+            assertTrue(Files.isRegularFile(outputDir.resolve(path)), "Missing " + path);
+        }
+    }
+
+    @Test
+    void writesSerializedDocumentsIntoAnInMemorySink() throws IOException {
+        InMemorySink sink = new InMemorySink();
+        JsonDocletRunner.Result result = JsonDocletRunner.of(javaFiles(SOURCE_ROOT))
+                .withOptions("--pretty", "--writer-threads", "2")
+                .writingTo(sink)
+                .run((path, document) -> { });
+
+        assertTrue(result.success(), () -> "Doclet run failed: " + result.errors());
+        assertEquals(Files.readString(EXPECTED_ROOT.resolve("com/example/Greeter.json")).replace("\r\n", "\n"),
+                sink.read("com/example/Greeter.json"));
+        assertTrue(sink.documents().containsKey("index.json"));
+    }
+
+    @Test
+    void rejectsOptionsThatChooseTheOutput(@TempDir Path tempDir) throws IOException {
+        JsonDocletRunner runner = JsonDocletRunner.of(javaFiles(SOURCE_ROOT));
+        for (List<String> options : List.of(List.of("-d", tempDir.resolve("out").toString()),
+                List.of("--archive", tempDir.resolve("docs.zip").toString()), List.of("--atomic"))) {
+            JsonDocletRunner.Result result = runner.withOptions(options.toArray(String[]::new)).collect();
+            assertFalse(result.success(), options::toString);
+            assertTrue(result.errors().stream().anyMatch(error -> error.contains("cannot be used in-process")),
+                    result.errors()::toString);
+            assertTrue(result.documents().isEmpty());
+        }
+        assertTrue(Files.notExists(tempDir.resolve("docs.zip")));
+    }
+
+    @Test
+    void isolatesFailingTypesWhenContinuingOnError() throws IOException {
+        JsonDocletRunner runner = JsonDocletRunner.of(javaFiles(SOURCE_ROOT));
+        JsonDocletRunner.Result aborted = runner.run(FAIL_ON_GREETER);
+        assertFalse(aborted.success());
+        assertFalse(aborted.partialOutput());
+        assertTrue(aborted.errors().stream()
+                .anyMatch(error -> error.contains("Failed to document type com.example.Greeter")), aborted.errors()::toString);
+
+        List<String> paths = new ArrayList<>();
+        Map<String, Object> documents = new LinkedHashMap<>();
+        JsonDocletRunner.Result continued = runner.withOptions("--continue-on-error").run((path, document) -> {
+            FAIL_ON_GREETER.documentGenerated(path, document);
+            paths.add(path);
+            documents.put(path, document);
+        });
+        assertFalse(continued.success());
+        assertTrue(continued.partialOutput());
+        assertTrue(paths.containsAll(List.of("com/example/Outer.json", "com/example/Outer.Inner.json", "index.json")));
+        ErrorReport report = (ErrorReport) documents.get("errors.json");
+        assertTrue(report.continueOnError());
+        assertEquals(List.of(new ElementError("type", "com.example.Greeter", "listener rejected Greeter",
+                IllegalStateException.class.getName())), report.errors());
+    }
+
+    @Test
+    void commitsAnAtomicSinkWithPartialOutputWhenContinuingOnError(@TempDir Path tempDir) throws IOException {
+        Path target = previousOutput(tempDir);
+        JsonDocletRunner.Result result;
+        try (AtomicDirectorySink sink = new AtomicDirectorySink(target)) {
+            result = JsonDocletRunner.of(javaFiles(SOURCE_ROOT)).withOptions("--continue-on-error")
+                    .writingTo(sink).run(FAIL_ON_GREETER);
+        }
+
+        assertFalse(result.success());
+        assertTrue(result.partialOutput());
+        assertTrue(Files.isRegularFile(target.resolve("com/example/Outer.json")));
+        assertTrue(Files.notExists(target.resolve("stale.json")));
+        assertEquals(List.of("com.example.Greeter"), failedElements(target.resolve("errors.json")));
+        assertEquals(List.of(target), siblings(tempDir));
+    }
+
+    @Test
+    void keepsTheErrorReportBesideAnUntouchedAtomicTarget(@TempDir Path tempDir) throws IOException {
+        Path target = previousOutput(tempDir);
+        JsonDocletRunner runner = JsonDocletRunner.of(javaFiles(SOURCE_ROOT));
+        try (AtomicDirectorySink sink = new AtomicDirectorySink(target)) {
+            assertFalse(runner.writingTo(sink).run(FAIL_ON_GREETER).success());
+        }
+
+        assertEquals(List.of(target.resolve("stale.json")), siblings(target));
+        Path report = tempDir.resolve("out.errors.json");
+        assertEquals(List.of("com.example.Greeter"), failedElements(report));
+
+        try (AtomicDirectorySink sink = new AtomicDirectorySink(target)) {
+            assertTrue(runner.writingTo(sink).run((path, document) -> { }).success());
+        }
+        assertTrue(Files.notExists(report), "Report of the failed run outlived the next committed run");
+        assertEquals(List.of(target), siblings(tempDir));
+    }
+
+    private static Path previousOutput(Path tempDir) throws IOException {
+        Path target = tempDir.resolve("out").toAbsolutePath();
+        Files.createDirectories(target);
+        Files.writeString(target.resolve("stale.json"), "{}");
+        return target;
+    }
+
+    private static List<String> failedElements(Path report) throws IOException {
+        return JsonReader.read(report, ErrorReport.class, Set.of()).errors().stream()
+                .map(ElementError::element).toList();
+    }
+
+    private static List<Path> siblings(Path directory) throws IOException {
+        try (var stream = Files.list(directory)) {
+            return stream.map(Path::toAbsolutePath).sorted().toList();
+        }
+    }
+
+    private static List<Path> javaFiles(Path sourceRoot) throws IOException {
+        try (var stream = Files.walk(sourceRoot)) {
+            return stream.filter(path -> path.toString().endsWith(".java")).toList();
+        }
+    }
+}
@@ -1,17 +1,32 @@
 package io.fluxzero.tools.jsondoclet;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import io.fluxzero.tools.jsondoclet.diff.ApiDiff;
+import io.fluxzero.tools.jsondoclet.model.ElementIndex;
+import io.fluxzero.tools.jsondoclet.model.ElementIndex.IndexedElement;
+import io.fluxzero.tools.jsondoclet.model.FieldDocumentation;
+import io.fluxzero.tools.jsondoclet.model.SourcePosition;
+import io.fluxzero.tools.jsondoclet.model.TypeDocumentation;
+import io.fluxzero.tools.jsondoclet.reader.DocumentationReader;
+import io.fluxzero.tools.jsondoclet.util.JsonReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import javax.tools.DocumentationTool;
 import javax.tools.JavaFileObject;
@@ -32,16 +47,377 @@ class JsonDocletSmokeTest {
     private static final Path SCENARIO_ROOT = TEST_RESOURCES_ROOT.resolve("example");
     private static final Path SOURCE_ROOT = SCENARIO_ROOT.resolve("source");
     private static final Path EXPECTED_ROOT = SCENARIO_ROOT.resolve("expected");
+    private static final Path MODULE_SOURCE_ROOT = TEST_RESOURCES_ROOT.resolve("modules").resolve("source");
+    private static final Path QUERY_SOURCE_ROOT = TEST_RESOURCES_ROOT.resolve("query").resolve("source");
+    private static final Path CONSTANTS_SOURCE_ROOT = TEST_RESOURCES_ROOT.resolve("constants").resolve("source");
+    private static final Path DEDUPE_SOURCE_ROOT = TEST_RESOURCES_ROOT.resolve("dedupe").resolve("source");
+    private static final Path GENERICS_SOURCE_ROOT = TEST_RESOURCES_ROOT.resolve("generics").resolve("source");
+    private static final Path POSITIONS_SOURCE_ROOT = TEST_RESOURCES_ROOT.resolve("positions").resolve("source");
     private static final Schema OUTPUT_SCHEMA = loadSchema();
     private static final Boolean updateExpected = Boolean.getBoolean("jsondoclet.updateExpected");
 
     @Test
     void generatesJsonOutputForSampleSources() throws Exception {
-        Path generatedRoot = Path.of("build", "test-generated", "example");
+        Path outputDir = runDoclet("example");
+        assertJsonOutputsMatch(EXPECTED_ROOT, outputDir);
+    }
+
+    @Test
+    void writeBehindStageProducesIdenticalOutput() throws Exception {
+        Path outputDir = runDoclet("write-behind", "--writer-threads", "2", "--write-queue-capacity", "1");
+        assertJsonOutputsMatch(EXPECTED_ROOT, outputDir, false);
+    }
+
+    @Test
+    void concurrentEmitterProducesIdenticalOutput() throws Exception {
+        Path outputDir = runDoclet("emit-concurrency", "--emit-concurrency", "2");
+        assertJsonOutputsMatch(EXPECTED_ROOT, outputDir, false);
+    }
+
+    @Test
+    void omitDefaultsDropsEmptyValuesThatReadersRestore() throws Exception {
+        Path outputDir = runDoclet("omit-defaults", "--omit-defaults", "--validate");
+        try (var stream = Files.walk(outputDir)) {
+            for (Path file : stream.filter(Files::isRegularFile).toList()) {
+                String json = readNormalized(file);
+                validateAgainstSchema(outputDir.relativize(file), json);
+                assertFalse(json.contains("[ ]") || json.contains(": null"), "Default value written to " + file);
+            }
+        }
+
+        DocumentationReader expected = DocumentationReader.of(EXPECTED_ROOT);
+        DocumentationReader actual = DocumentationReader.of(outputDir);
+        for (String file : List.of("com/example/Greeter.json", "com/example/Outer.json", "com/example/Outer.Inner.json")) {
+            assertEquals(expected.readType(Path.of(file)), actual.readType(Path.of(file)), "Mismatch for " + file);
+        }
+        assertEquals(0, ApiDiff.compare(EXPECTED_ROOT, outputDir, change -> fail("Unexpected change " + change)));
+    }
+
+    @Test
+    void queryIndexesListDeprecatedSinceAnnotatedAndThrowingElements() throws Exception {
+        Path outputDir = runDoclet(QUERY_SOURCE_ROOT, "query-indexes", "--query-indexes", "--dedupe-docs",
+                "--split-members", "1", "--validate");
+        for (String index : List.of("deprecated", "since", "annotation", "throws")) {
+            Path file = outputDir.resolve(index + "-index.json");
+            validateAgainstSchema(outputDir.relativize(file), Files.readString(file));
+        }
+
+        DocumentationReader reader = DocumentationReader.of(outputDir);
+        ElementIndex deprecated = reader.readQueryIndex("deprecated");
+        assertEquals(List.of("com.example.query.LegacyApi#open"), qualifiedNames(deprecated, "forRemoval"));
+        assertEquals(List.of("com.example.query.LegacyApi#reset", "com.example.query.LegacyApi$Listener",
+                "com.example.query.LegacyApi.legacyCount"), qualifiedNames(deprecated, "deprecated"));
+        assertEquals("protected", deprecated.groups().get("deprecated").get(2).visibility());
+
+        ElementIndex since = reader.readQueryIndex("since");
+        assertEquals(List.of("com.example.query.LegacyApi", "com.example.query.LegacyApi#open"),
+                qualifiedNames(since, "3.1"));
+        IndexedElement load = since.groups().get("3.2").get(0);
+        assertEquals("load(java.lang.String)", load.signature());
+        assertEquals("com/example/query/LegacyApi.json", load.file());
+
+        assertEquals(List.of("com.example.query.LegacyApi$Callback"),
+                qualifiedNames(reader.readQueryIndex("annotation"), "java.lang.FunctionalInterface"));
+        assertEquals(List.of("com.example.query.LegacyApi#load", "com.example.query.LegacyApi$Callback#call"),
+                qualifiedNames(reader.readQueryIndex("throws"), "java.io.IOException"));
+    }
+
+    @Test
+    void constantExpressionsAddSourceFormsOfConstantsAndAnnotationDefaults() throws Exception {
+        Path outputDir = runDoclet(CONSTANTS_SOURCE_ROOT, "constant-expressions", "--constant-expressions",
+                "--validate");
+        Path limitsFile = outputDir.resolve("com/example/constants/Limits.json");
+        Path retryFile = outputDir.resolve("com/example/constants/Retry.json");
+        validateAgainstSchema(outputDir.relativize(limitsFile), Files.readString(limitsFile));
+        validateAgainstSchema(outputDir.relativize(retryFile), Files.readString(retryFile));
+
+        DocumentationReader reader = DocumentationReader.of(outputDir);
+        TypeDocumentation limits = reader.readType(Path.of("com/example/constants/Limits.json"));
+        Map<String, String> expressions = new TreeMap<>();
+        limits.fields().stream()
+                .filter(field -> field.constantExpression() != null)
+                .forEach(field -> expressions.put(field.name(), field.constantExpression()));
+        assertEquals(Map.of("GREETING", "\"Hello \\\"world\\\"\"", "LOAD", "0.75f", "MAX_BATCH", "10L",
+                "SEPARATOR", "'\\t'"), expressions);
+
+        Map<String, Map<String, String>> appliedDefaults = new TreeMap<>();
+        limits.methods().forEach(method -> appliedDefaults.put(method.name(), method.annotations().get(0).defaults()));
+        assertEquals(Map.of("attempts", "3", "delay", "100L", "label", "\"retry\"",
+                "on", "{java.lang.RuntimeException.class}", "unit", "java.util.concurrent.TimeUnit.MILLISECONDS"),
+                appliedDefaults.get("fetch"));
+        assertEquals(List.of("delay", "on", "unit"), List.copyOf(appliedDefaults.get("store").keySet()));
+
+        TypeDocumentation retry = reader.readType(Path.of("com/example/constants/Retry.json"));
+        Map<String, String> elementDefaults = new TreeMap<>();
+        retry.methods().forEach(method -> elementDefaults.put(method.name(), method.defaultValue()));
+        assertEquals(appliedDefaults.get("fetch"), elementDefaults);
+
+        Path plainOutput = runDoclet(CONSTANTS_SOURCE_ROOT, "constant-expressions-off");
+        String plain = Files.readString(plainOutput.resolve("com/example/constants/Limits.json"));
+        assertFalse(plain.contains("\"constantExpression\"") || plain.contains("\"defaults\""), plain);
+    }
+
+    private static List<String> qualifiedNames(ElementIndex index, String group) {
+        return index.groups().getOrDefault(group, List.of()).stream().map(IndexedElement::qualifiedName).toList();
+    }
+
+    @Test
+    void atomicModeReplacesTheOutputDirectoryOnSuccess() throws Exception {
+        Path outputDir = runDoclet("atomic", "--atomic", "--emit-concurrency", "2");
+        assertJsonOutputsMatch(EXPECTED_ROOT, outputDir, false);
+        try (var stream = Files.list(outputDir.getParent())) {
+            assertTrue(stream.noneMatch(path -> path.getFileName().toString().contains(".staging-")),
+                    "Staging directory left behind");
+        }
+    }
+
+    @Test
+    void archiveSinkContainsTheExpectedFiles() throws Exception {
+        Path archive = Path.of("build", "test-generated", "archive", "json-docs.zip");
+        Path outputDir = runDoclet("archive", "--archive", archive.toString(), "--emit-concurrency", "2");
+        assertTrue(Files.notExists(outputDir), "No output directory expected when writing an archive");
+
+        Map<String, String> entries = new TreeMap<>();
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(archive))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        Map<String, String> expected = new TreeMap<>();
+        try (var stream = Files.walk(EXPECTED_ROOT)) {
+            for (Path file : stream.filter(Files::isRegularFile).toList()) {
+                expected.put(EXPECTED_ROOT.relativize(file).toString().replace('\\', '/'), readNormalized(file));
+            }
+        }
+        assertEquals(expected, entries);
+        assertEquals(0, ApiDiff.compare(EXPECTED_ROOT, archive, change -> fail("Unexpected change " + change)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void indexStatisticsAggregateSubtrees() throws Exception {
+        Path outputDir = runDoclet("index-stats", "--index-stats", "--validate");
+        validateAgainstSchema(Path.of("index.json"), Files.readString(outputDir.resolve("index.json")));
+
+        Map<String, Object> root = (Map<String, Object>) JsonReader.readTree(outputDir.resolve("index.json"));
+        Map<String, Object> example = (Map<String, Object>) JsonReader.readTree(
+                outputDir.resolve("com/example/index.json"));
+        Map<String, Object> statistics = (Map<String, Object>) example.get("statistics");
+        assertEquals(3, statistics.get("types"));
+        assertEquals(statistics, root.get("statistics"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void typeSignaturesLinkDocumentedTypes() throws Exception {
+        Path outputDir = runDoclet("type-signatures", "--type-signatures", "--validate");
+        Path innerFile = outputDir.resolve("com/example/Outer.Inner.json");
+        validateAgainstSchema(Path.of("com/example/Outer.Inner.json"), Files.readString(innerFile));
+
+        Map<String, Object> inner = (Map<String, Object>) JsonReader.readTree(innerFile);
+        Map<String, Object> signatures = (Map<String, Object>) inner.get("typeSignatures");
+        assertEquals(Map.of("kind", "declared", "erasure", "com.example.Outer", "link", "com/example/Outer.json"),
+                signatures.get(inner.get("superClass")));
+
+        Map<String, Object> greeter = (Map<String, Object>) JsonReader.readTree(
+                outputDir.resolve("com/example/Greeter.json"));
+        assertEquals(Map.of("java.lang.String", Map.of("kind", "declared", "erasure", "java.lang.String"),
+                        "java.lang.Object", Map.of("kind", "declared", "erasure", "java.lang.Object")),
+                greeter.get("typeSignatures"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void typeSignaturesKeepTypeVariablesApartByDeclaration() throws Exception {
+        Path outputDir = runDoclet(GENERICS_SOURCE_ROOT, "type-signatures-generics", "--type-signatures",
+                "--validate");
+        Map<String, Object> box = (Map<String, Object>) JsonReader.readTree(
+                outputDir.resolve("com/example/generics/Box.json"));
+        Map<String, Object> named = (Map<String, Object>) JsonReader.readTree(
+                outputDir.resolve("com/example/generics/Named.json"));
+        Map<String, Object> boxSignatures = (Map<String, Object>) box.get("typeSignatures");
+        Map<String, Object> namedSignatures = (Map<String, Object>) named.get("typeSignatures");
+
+        Map<String, String> boxReturnTypes = new TreeMap<>();
+        ((List<Map<String, Object>>) box.get("methods")).forEach(
+                method -> boxReturnTypes.put((String) method.get("name"), (String) method.get("returnType")));
+        assertEquals(Map.of("get", "com.example.generics.Box#T",
+                "first", "com.example.generics.Box#first(java.util.List)#T",
+                "map", "com.example.generics.Box#map(java.util.function.Function)#U"), boxReturnTypes);
+        assertEquals(Map.of("kind", "typeVariable", "erasure", "java.lang.Number"),
+                boxSignatures.get("com.example.generics.Box#T"));
+        assertEquals(Map.of("kind", "typeVariable", "erasure", "java.lang.Object"),
+                boxSignatures.get("com.example.generics.Box#first(java.util.List)#T"));
+        assertTrue(boxSignatures.containsKey("java.util.function.Function<? super com.example.generics.Box#T,"
+                + "? extends com.example.generics.Box#map(java.util.function.Function)#U>"), boxSignatures::toString);
+
+        Map<String, Object> names = ((List<Map<String, Object>>) named.get("methods")).get(0);
+        assertEquals("java.util.List<com.example.generics.Named#T>", names.get("returnType"));
+        assertEquals(List.of("com.example.generics.Named#T"),
+                ((Map<String, Object>) namedSignatures.get(names.get("returnType"))).get("typeArguments"));
+        assertEquals(Map.of("kind", "typeVariable", "erasure", "java.lang.CharSequence"),
+                namedSignatures.get("com.example.generics.Named#T"));
+    }
+
+    @Test
+    void validationModeAcceptsSampleOutput() throws Exception {
+        Path outputDir = runDoclet("validate", "--validate", "--inherited-members", "--source-positions",
+                "--split-members", "1");
+        assertTrue(Files.isRegularFile(outputDir.resolve("com/example/Greeter.members-0.json")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void dedupeModeReferencesSharedDocumentationStrings() throws Exception {
+        Path outputDir = runDoclet("dedupe-docs", "--dedupe-docs");
+
+        Map<String, Object> strings = (Map<String, Object>) JsonReader.readTree(outputDir.resolve("doc-strings.json"));
+        validateAgainstSchema(Path.of("doc-strings.json"), Files.readString(outputDir.resolve("doc-strings.json")));
+        Map<String, Object> expected = (Map<String, Object>) JsonReader.readTree(
+                EXPECTED_ROOT.resolve("com/example/Greeter.json"));
+        Map<String, Object> actual = (Map<String, Object>) JsonReader.readTree(
+                outputDir.resolve("com/example/Greeter.json"));
+
+        String key = (String) actual.get("documentation");
+        assertEquals(expected.get("documentation"), ((Map<String, Object>) strings.get("strings")).get(key));
+        assertEquals(0, ApiDiff.compare(EXPECTED_ROOT, outputDir, change -> fail("Unexpected change " + change)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void dedupeModeStoresIdenticalTextsOnce() throws Exception {
+        Path outputDir = runDoclet(DEDUPE_SOURCE_ROOT, "dedupe-docs-shared", "--dedupe-docs");
+
+        DocumentationReader reader = DocumentationReader.of(outputDir);
+        String circleArea = reader.readType(Path.of("com/example/shapes/Circle.json")).methods().get(0)
+                .documentation();
+        String squareArea = reader.readType(Path.of("com/example/shapes/Square.json")).methods().get(0)
+                .documentation();
+        assertEquals(circleArea, squareArea);
+
+        Map<String, Object> strings = (Map<String, Object>) ((Map<String, Object>) JsonReader.readTree(
+                outputDir.resolve("doc-strings.json"))).get("strings");
+        assertEquals(List.of(circleArea), strings.entrySet().stream()
+                .filter(entry -> entry.getValue().toString().contains("Returns the area in square units."))
+                .map(Map.Entry::getKey)
+                .toList());
+        assertEquals(strings.size(), new HashSet<>(strings.values()).size(),
+                "Every text is stored under a single key");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void inheritedMembersReferenceDeclaringSupertype() throws Exception {
+        Path outputDir = runDoclet("inherited-members", "--inherited-members");
+        Path innerFile = outputDir.resolve("com/example/Outer.Inner.json");
+        validateAgainstSchema(Path.of("com/example/Outer.Inner.json"), Files.readString(innerFile));
+
+        Map<String, Object> inner = (Map<String, Object>) JsonReader.readTree(innerFile);
+        List<Map<String, Object>> inherited = (List<Map<String, Object>>) inner.get("inheritedMembers");
+        assertTrue(inherited.contains(Map.of("kind", "method",
+                "name", "toString",
+                "signature", "toString()",
+                "declaringType", "java.lang.Object")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sourcePositionsCoverDeclarationLines() throws Exception {
+        Path outputDir = runDoclet("source-positions", "--source-positions");
+        Path greeterFile = outputDir.resolve("com/example/Greeter.json");
+        validateAgainstSchema(Path.of("com/example/Greeter.json"), Files.readString(greeterFile));
+
+        Map<String, Object> greeter = (Map<String, Object>) JsonReader.readTree(greeterFile);
+        assertEquals(Map.of("file", "com/example/Greeter.java", "startLine", 6, "endLine", 17), greeter.get("source"));
+        Map<String, Object> greet = ((List<Map<String, Object>>) greeter.get("methods")).get(0);
+        assertEquals(Map.of("file", "com/example/Greeter.java", "startLine", 14, "endLine", 16), greet.get("source"));
+        Map<String, Object> constructor = ((List<Map<String, Object>>) greeter.get("constructors")).get(0);
+        assertTrue(!constructor.containsKey("source"), "Implicit constructors have no source position");
+    }
+
+    @Test
+    void sourcePositionsUseTheDeclaringFileAndCompilerEndPositions() throws Exception {
+        Path sourceDir = Path.of("build", "test-generated", "source-positions-files", "src");
+        Path outputDir = runDoclet(POSITIONS_SOURCE_ROOT, "source-positions-files", "--source-positions",
+                "-package", "--source-path", sourceDir.toString());
+        DocumentationReader reader = DocumentationReader.of(outputDir);
+
+        TypeDocumentation shapes = reader.readType(Path.of("com/example/positions/Shapes.json"));
+        String file = "com/example/positions/Shapes.java";
+        assertEquals(new SourcePosition(file, 6, 20), shapes.source());
+        assertEquals(List.of(new SourcePosition(file, 13, 14), new SourcePosition(file, 8, 10)),
+                shapes.fields().stream().map(FieldDocumentation::source).toList());
+        assertEquals(new SourcePosition(file, 17, 19), shapes.methods().get(0).source());
+
+        TypeDocumentation helper = reader.readType(Path.of("com/example/positions/ShapeHelper.json"));
+        assertEquals(new SourcePosition(file, 25, 30), helper.source());
+        assertEquals(new SourcePosition(file, 27, 29), helper.methods().get(0).source());
+
+        TypeDocumentation circle = reader.readType(Path.of("com/example/positions/Circle.json"));
+        assertEquals(new SourcePosition("elsewhere/Circle.java", 6, 7), circle.source());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void splitTypesKeepSummariesAndLoseNoMembers() throws Exception {
+        Path outputDir = runDoclet("split-members", "--split-members", "1");
+        Path greeterFile = outputDir.resolve("com/example/Greeter.json");
+        validateAgainstSchema(Path.of("com/example/Greeter.json"), Files.readString(greeterFile));
+
+        Map<String, Object> greeter = (Map<String, Object>) JsonReader.readTree(greeterFile);
+        assertEquals(List.of(), greeter.get("methods"));
+        List<String> chunks = (List<String>) greeter.get("memberChunks");
+        assertEquals(((List<?>) greeter.get("memberSummaries")).size(), chunks.size());
+        for (String chunk : chunks) {
+            validateAgainstSchema(Path.of("com/example", chunk), Files.readString(greeterFile.resolveSibling(chunk)));
+        }
+        assertEquals(0, ApiDiff.compare(EXPECTED_ROOT, outputDir, change -> fail("Unexpected change " + change)));
+
+        Path byteSplitDir = runDoclet("split-bytes", "--split-bytes", "1");
+        Map<String, Object> byteSplit = (Map<String, Object>) JsonReader.readTree(
+                byteSplitDir.resolve("com/example/Greeter.json"));
+        assertEquals(List.of("Greeter.members-0.json"), byteSplit.get("memberChunks"));
+        assertEquals(0, ApiDiff.compare(EXPECTED_ROOT, byteSplitDir, change -> fail("Unexpected change " + change)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void moduleDirectoriesSeparateModulesAndDocumentDescriptors() throws Exception {
+        Path outputDir = runDoclet(MODULE_SOURCE_ROOT, "module-directories", "--module-directories", "--validate");
+        Path moduleDir = outputDir.resolve("com.example.greetings");
+        assertTrue(Files.isRegularFile(moduleDir.resolve("com/example/greetings/Greeting.json")));
+        validateAgainstSchema(Path.of("com.example.greetings/index.json"),
+                Files.readString(moduleDir.resolve("index.json")));
+
+        Map<String, Object> root = (Map<String, Object>) JsonReader.readTree(outputDir.resolve("index.json"));
+        assertEquals(List.of(Map.of("name", "com.example.greetings", "path", "com.example.greetings")),
+                root.get("subdirectories"));
+
+        Map<String, Object> module = (Map<String, Object>) ((Map<String, Object>) JsonReader.readTree(
+                moduleDir.resolve("index.json"))).get("module");
+        assertEquals("com.example.greetings", module.get("name"));
+        assertTrue(((List<Object>) module.get("requires")).contains(
+                Map.of("module", "java.logging", "transitive", true, "staticDependency", false)));
+        assertEquals(List.of(Map.of("packageName", "com.example.greetings", "targets", List.of())),
+                module.get("exports"));
+        assertEquals(List.of(Map.of("packageName", "com.example.greetings.internal", "targets", List.of("java.logging"))),
+                module.get("opens"));
+        assertEquals(List.of("com.example.greetings.Greeting"), module.get("uses"));
+        assertEquals(List.of(Map.of("service", "com.example.greetings.Greeting",
+                        "implementations", List.of("com.example.greetings.internal.DefaultGreeting"))),
+                module.get("provides"));
+    }
+
+    private Path runDoclet(String scenario, String... extraOptions) throws IOException {
+        return runDoclet(SOURCE_ROOT, scenario, extraOptions);
+    }
+
+    private Path runDoclet(Path sourceRoot, String scenario, String... extraOptions) throws IOException {
+        Path generatedRoot = Path.of("build", "test-generated", scenario);
         deleteDirectory(generatedRoot);
         Path sourceDir = generatedRoot.resolve("src");
         Path outputDir = generatedRoot.resolve("actual");
-        copyTree(SOURCE_ROOT, sourceDir);
+        copyTree(sourceRoot, sourceDir);
 
         DocumentationTool docTool = ToolProvider.getSystemDocumentationTool();
         assertNotNull(docTool, "System documentation tool is not available");
@@ -58,13 +434,13 @@ class JsonDocletSmokeTest {
             options.add("-d");
             options.add(outputDir.toString());
             options.add("--pretty");
+            options.addAll(List.of(extraOptions));
 
             DocumentationTool.DocumentationTask task =
                     docTool.getTask(null, fileManager, null, null, options, compilationUnits);
             assertTrue(task.call(), "Doclet invocation failed");
         }
-
-        assertJsonOutputsMatch(EXPECTED_ROOT, outputDir);
+        return outputDir;
     }
 
     private List<Path> collectJavaFiles(Path sourceDir) throws IOException {
@@ -93,7 +469,11 @@ class JsonDocletSmokeTest {
     }
 
     private void assertJsonOutputsMatch(Path expectedRoot, Path actualRoot) throws IOException {
-        if (updateExpected) {
+        assertJsonOutputsMatch(expectedRoot, actualRoot, updateExpected);
+    }
+
+    private void assertJsonOutputsMatch(Path expectedRoot, Path actualRoot, boolean overwrite) throws IOException {
+        if (overwrite) {
             overwriteExpected(expectedRoot, actualRoot);
             return;
         }
@@ -0,0 +1,197 @@
+package io.fluxzero.tools.jsondoclet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Regenerates a copy of the sample project of the smoke test after source edits and checks the result against
+ * a full run over the edited sources.
+ */
+class JsonDocletWatcherTest {
+    private static final Path SCENARIO_ROOT = Path.of("src", "test", "resources", "example");
+    private static final Path SOURCE_ROOT = SCENARIO_ROOT.resolve("source");
+    private static final Path EXPECTED_ROOT = SCENARIO_ROOT.resolve("expected");
+    private static final List<String> OPTIONS = List.of("--pretty", "--inherited-members");
+
+    @TempDir
+    Path tempDir;
+    private Path sourceRoot;
+    private Path outputDir;
+
+    @BeforeEach
+    void copySources() throws IOException {
+        sourceRoot = tempDir.resolve("src");
+        outputDir = tempDir.resolve("out");
+        try (var stream = Files.walk(SOURCE_ROOT)) {
+            for (Path source : stream.filter(Files::isRegularFile).toList()) {
+                Path target = sourceRoot.resolve(SOURCE_ROOT.relativize(source).toString());
+                Files.createDirectories(target.getParent());
+                Files.copy(source, target);
+            }
+        }
+    }
+
+    @Test
+    void regeneratesChangedTypesAndTheirSubtypes() throws IOException {
+        Path greeter = sourceRoot.resolve("com/example/Greeter.java");
+        Files.writeString(sourceRoot.resolve("com/example/Polite.java"),
+                "package com.example;\n\n/** Greeter with manners. */\npublic class Polite extends Greeter {\n}\n");
+        try (JsonDocletWatcher watcher = JsonDocletWatcher.create(List.of(sourceRoot), outputDir, OPTIONS)) {
+            assertTrue(watcher.generateAll().success());
+            String outerBefore = Files.readString(outputDir.resolve("com/example/Outer.json"));
+
+            Files.writeString(greeter, Files.readString(greeter).replace("public String greet(String name) {",
+                    "public String wave() {\n        return \"o/\";\n    }\n\n    public String greet(String name) {"));
+            JsonDocletWatcher.Update update = watcher.regenerate(List.of(greeter));
+
+            assertTrue(update.success(), update.errors()::toString);
+            assertEquals(List.of(greeter.toAbsolutePath().normalize(),
+                    sourceRoot.resolve("com/example/Polite.java").toAbsolutePath().normalize()), update.sourceFiles());
+            assertEquals(List.of("com/example/Greeter.json", "com/example/Polite.json"),
+                    update.writtenFiles().stream().sorted().toList());
+            String polite = Files.readString(outputDir.resolve("com/example/Polite.json"));
+            assertTrue(polite.contains("\"signature\" : \"wave()\""), polite);
+            assertEquals(outerBefore, Files.readString(outputDir.resolve("com/example/Outer.json")));
+        }
+        assertMatchesFullRun();
+    }
+
+    @Test
+    void removesDeletedTypesAndAddsNewOnesToTheIndexes() throws IOException {
+        try (JsonDocletWatcher watcher = JsonDocletWatcher.create(List.of(sourceRoot), outputDir, OPTIONS)) {
+            assertTrue(watcher.generateAll().success());
+
+            Path outer = sourceRoot.resolve("com/example/Outer.java");
+            Files.delete(outer);
+            Path added = sourceRoot.resolve("com/example/more/Added.java");
+            Files.createDirectories(added.getParent());
+            Files.writeString(added, "package com.example.more;\n\n/** Added later. */\npublic interface Added {\n}\n");
+            JsonDocletWatcher.Update update = watcher.regenerate(List.of(outer, added));
+
+            assertTrue(update.success(), update.errors()::toString);
+            assertEquals(List.of("com/example/Outer.Inner.json", "com/example/Outer.json"), update.deletedFiles());
+            assertFalse(Files.exists(outputDir.resolve("com/example/Outer.json")));
+            assertTrue(Files.isRegularFile(outputDir.resolve("com/example/more/Added.json")));
+
+            Files.delete(added);
+            update = watcher.regenerate(List.of(added));
+            assertTrue(update.deletedFiles().contains("com/example/more/index.json"));
+        }
+        assertMatchesFullRun();
+    }
+
+    @Test
+    void regeneratesTheLoadedOutputOfAnEarlierRun() throws IOException {
+        try (JsonDocletWatcher watcher = JsonDocletWatcher.create(List.of(sourceRoot), outputDir, OPTIONS)) {
+            assertFalse(watcher.load());
+            assertTrue(watcher.generateAll().success());
+        }
+
+        Path greeter = sourceRoot.resolve("com/example/Greeter.java");
+        Files.writeString(greeter, Files.readString(greeter).replace("Hello", "Hi"));
+        Path outer = sourceRoot.resolve("com/example/Outer.java");
+        Files.delete(outer);
+        try (JsonDocletWatcher watcher = JsonDocletWatcher.create(List.of(sourceRoot), outputDir, OPTIONS)) {
+            assertTrue(watcher.load());
+            JsonDocletWatcher.Update update = watcher.regenerate(List.of(greeter, outer));
+
+            assertTrue(update.success(), update.errors()::toString);
+            assertEquals(List.of("com/example/Outer.Inner.json", "com/example/Outer.json"), update.deletedFiles());
+        }
+        assertMatchesFullRun();
+    }
+
+    @Test
+    void keepsTheOutputWhenTheEditedSourceDoesNotCompile() throws IOException {
+        Path greeter = sourceRoot.resolve("com/example/Greeter.java");
+        try (JsonDocletWatcher watcher =
+                JsonDocletWatcher.create(List.of(sourceRoot), outputDir, List.of("--pretty"))) {
+            assertTrue(watcher.generateAll().success());
+            Files.writeString(greeter, "package com.example;\n\npublic class Greeter {\n");
+
+            JsonDocletWatcher.Update update = watcher.regenerate(List.of(greeter));
+            assertFalse(update.success());
+            assertFalse(update.errors().isEmpty());
+        }
+        assertEquals(Files.readString(EXPECTED_ROOT.resolve("com/example/Greeter.json")),
+                Files.readString(outputDir.resolve("com/example/Greeter.json")));
+    }
+
+    @Test
+    void regeneratesAfterFileSystemEvents() throws Exception {
+        Path greeter = sourceRoot.resolve("com/example/Greeter.java");
+        BlockingQueue<JsonDocletWatcher.Update> updates = new LinkedBlockingQueue<>();
+        try (JsonDocletWatcher watcher =
+                JsonDocletWatcher.create(List.of(sourceRoot), outputDir, List.of("--pretty"))) {
+            assertTrue(watcher.generateAll().success());
+            Thread thread = new Thread(() -> {
+                try {
+                    watcher.watch(Duration.ofMillis(50), updates::add);
+                } catch (IOException | InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            thread.start();
+            try {
+                JsonDocletWatcher.Update update = null;
+                for (int attempt = 0; attempt < 10 && update == null; attempt++) {
+                    Files.writeString(greeter, Files.readString(greeter).replace("Hello", "Hi"));
+                    update = updates.poll(1, TimeUnit.SECONDS);
+                }
+                assertNotNull(update, "No regeneration after editing Greeter.java");
+                assertTrue(update.success(), update.errors()::toString);
+                assertTrue(update.writtenFiles().contains("com/example/Greeter.json"));
+            } finally {
+                watcher.close();
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            }
+            assertFalse(thread.isAlive());
+        }
+    }
+
+    @Test
+    void rejectsOptionsThatSpanTheWholeTree() {
+        assertThrows(IllegalArgumentException.class,
+                () -> JsonDocletWatcher.create(List.of(sourceRoot), outputDir, List.of("--dedupe-docs")));
+    }
+
+    private void assertMatchesFullRun() throws IOException {
+        Path fullOutput = tempDir.resolve("full");
+        try (JsonDocletWatcher watcher = JsonDocletWatcher.create(List.of(sourceRoot), fullOutput, OPTIONS)) {
+            assertTrue(watcher.generateAll().success());
+        }
+        assertEquals(contents(fullOutput), contents(outputDir));
+    }
+
+    private static Map<String, String> contents(Path root) throws IOException {
+        try (var stream = Files.walk(root)) {
+            return stream.filter(Files::isRegularFile).collect(Collectors.toMap(
+                    file -> root.relativize(file).toString().replace('\\', '/'),
+                    (Function<Path, String>) file -> {
+                        try {
+                            return Files.readString(file);
+                        } catch (IOException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package io.fluxzero.tools.jsondoclet.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the builder starts from the defaults and maps every setting to its own record component.
+ */
+class DocletConfigurationTest {
+    private static final Path OUTPUT = Path.of("out");
+
+    @Test
+    void startsFromTheDefaults() {
+        assertEquals(new DocletConfiguration(OUTPUT, false, false, 0, DocletConfiguration.DEFAULT_WRITE_QUEUE_CAPACITY,
+                        false, false, false, 0, 0, false, false, 0, false, false, false, false, false, false),
+                DocletConfiguration.builder(OUTPUT).build());
+    }
+
+    @Test
+    void setsEachComponentByName() {
+        DocletConfiguration configuration = DocletConfiguration.builder(OUTPUT)
+                .prettyPrint(true)
+                .includePrivate(true)
+                .writerThreads(2)
+                .writeQueueCapacity(3)
+                .dedupeDocumentation(true)
+                .inheritedMembers(true)
+                .sourcePositions(true)
+                .splitMemberThreshold(4)
+                .splitByteThreshold(5)
+                .validate(true)
+                .moduleDirectories(true)
+                .emitConcurrency(6)
+                .indexStatistics(true)
+                .typeSignatures(true)
+                .omitDefaults(true)
+                .queryIndexes(true)
+                .continueOnError(true)
+                .constantExpressions(true)
+                .build();
+
+        assertEquals(new DocletConfiguration(OUTPUT, true, true, 2, 3, true, true, true, 4, 5, true, true, 6, true,
+                true, true, true, true, true), configuration);
+    }
+}
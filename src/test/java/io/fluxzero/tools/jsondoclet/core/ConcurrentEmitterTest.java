@@ -0,0 +1,39 @@
+package io.fluxzero.tools.jsondoclet.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.fluxzero.tools.jsondoclet.sink.InMemorySink;
+import io.fluxzero.tools.jsondoclet.sink.OutputSink;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that a write failing with an {@link Error} is reported instead of silently dropping the file.
+ */
+class ConcurrentEmitterTest {
+
+    @Test
+    void reportsWritesThatFailWithAnError() {
+        InMemorySink written = new InMemorySink();
+        OutputSink sink = (path, content) -> {
+            if (path.equals("b.json")) {
+                throw new StackOverflowError("too deep: " + path);
+            }
+            written.write(path, content);
+        };
+        ConcurrentEmitter emitter = ConcurrentEmitter.create(sink, 2);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (String path : List.of("a.json", "b.json", "c.json")) {
+                emitter.submit(path, new byte[0]);
+            }
+            List<String> failures = emitter.awaitCompletion();
+            assertEquals(1, failures.size(), failures::toString);
+            assertTrue(failures.get(0).startsWith("Failed to write b.json"), failures::toString);
+        });
+        assertEquals(List.of("a.json", "c.json"), List.copyOf(written.documents().keySet()));
+    }
+}
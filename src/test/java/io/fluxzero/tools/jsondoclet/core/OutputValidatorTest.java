@@ -0,0 +1,58 @@
+package io.fluxzero.tools.jsondoclet.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.fluxzero.tools.jsondoclet.model.InheritedMemberDocumentation;
+import io.fluxzero.tools.jsondoclet.model.MemberChunk;
+import io.fluxzero.tools.jsondoclet.model.MethodDocumentation;
+import io.fluxzero.tools.jsondoclet.model.SourcePosition;
+import io.fluxzero.tools.jsondoclet.util.JsonReader;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the compiled schema against the model records and hand-built invalid documents.
+ */
+class OutputValidatorTest {
+    private static final Path SCHEMA = Path.of("src", "main", "resources", "json-doclet.schema.json");
+
+    @Test
+    void bundledSchemaMatchesModel() {
+        assertEquals(List.of(), OutputValidator.load().drift());
+    }
+
+    @Test
+    void reportsNullsEnumsAndMinimums() {
+        MethodDocumentation method = new MethodDocumentation("greet", "com.example.Greeter#greet", null,
+                List.of(), List.of(), List.of(), List.of(), List.of(), false, null, null,
+                new SourcePosition("com/example/Greeter.java", 0, 1));
+        MemberChunk chunk = new MemberChunk("com.example.Greeter", 0, List.of(), List.of(), List.of(method),
+                List.of(), List.of(), null);
+
+        assertEquals(List.of("#/methods/0/returnType: must not be null",
+                        "#/methods/0/source/startLine: 0 is less than the minimum 1"),
+                OutputValidator.load().validate(chunk));
+        assertEquals(List.of("#/kind: 'constructor' is not one of [method, field]"),
+                OutputValidator.load().validate(
+                        new InheritedMemberDocumentation("constructor", "Object", "Object()", "java.lang.Object")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reportsDriftBetweenSchemaAndModel() throws IOException {
+        Map<String, Object> schema = (Map<String, Object>) JsonReader.readTree(SCHEMA);
+        Map<String, Map<String, Object>> definitions = (Map<String, Map<String, Object>>) schema.get("$defs");
+        Map<String, Object> sourcePosition = definitions.get("SourcePosition");
+        ((Map<String, Object>) sourcePosition.get("properties")).remove("endLine");
+        ((Map<String, Object>) sourcePosition.get("properties")).put("column", Map.of("type", "integer"));
+
+        List<String> drift = new OutputValidator(schema).drift();
+        assertTrue(drift.contains("SourcePosition.endLine: not declared in the schema"), drift::toString);
+        assertTrue(drift.contains("SourcePosition.column: declared in the schema but not produced by the model"),
+                drift::toString);
+    }
+}
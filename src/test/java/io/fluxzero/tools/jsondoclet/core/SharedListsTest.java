@@ -0,0 +1,54 @@
+package io.fluxzero.tools.jsondoclet.core;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.fluxzero.tools.jsondoclet.util.JsonWriter;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import javax.lang.model.element.Modifier;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that equal modifier sets and empty lists resolve to one shared instance without changing the output.
+ */
+class SharedListsTest {
+
+    @Test
+    void reusesOneListPerModifierCombination() {
+        List<String> first = SharedLists.modifiers(EnumSet.of(Modifier.STATIC, Modifier.PUBLIC, Modifier.FINAL));
+        List<String> second = SharedLists.modifiers(
+                new LinkedHashSet<>(List.of(Modifier.FINAL, Modifier.PUBLIC, Modifier.STATIC)));
+
+        assertSame(first, second);
+        assertEquals(List.of("final", "public", "static"), first);
+        assertEquals(List.of("public", "static"), SharedLists.modifiers(EnumSet.of(Modifier.PUBLIC, Modifier.STATIC)));
+        assertThrows(UnsupportedOperationException.class, () -> first.add("abstract"));
+    }
+
+    @Test
+    void collapsesEmptyListsToTheSharedEmptyList() {
+        assertSame(List.of(), SharedLists.modifiers(Set.of()));
+        assertSame(List.of(), SharedLists.compact(new ArrayList<>()));
+        List<String> values = List.of("x");
+        assertSame(values, SharedLists.compact(values));
+    }
+
+    @Test
+    void writesSharedListsLikeFreshOnes() {
+        Set<Modifier> modifiers = EnumSet.of(Modifier.PROTECTED, Modifier.ABSTRACT);
+        List<String> fresh = modifiers.stream().map(Modifier::toString).sorted().toList();
+
+        for (boolean pretty : new boolean[] {false, true}) {
+            assertArrayEquals(JsonWriter.toBytes(fresh, pretty),
+                    JsonWriter.toBytes(SharedLists.modifiers(modifiers), pretty));
+            assertArrayEquals(JsonWriter.toBytes(new ArrayList<>(), pretty),
+                    JsonWriter.toBytes(SharedLists.compact(new ArrayList<>()), pretty));
+        }
+    }
+}
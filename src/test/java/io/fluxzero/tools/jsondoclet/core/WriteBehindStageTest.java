@@ -0,0 +1,38 @@
+package io.fluxzero.tools.jsondoclet.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.fluxzero.tools.jsondoclet.sink.OutputSink;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that a writer thread failing with an {@link Error} neither hangs the producer nor loses the failure.
+ */
+class WriteBehindStageTest {
+
+    @Test
+    void failsFastAndCompletesAfterAWriterError() {
+        OutputSink sink = (path, content) -> {
+            throw new OutOfMemoryError("too large: " + path);
+        };
+        WriteBehindStage stage = new WriteBehindStage(sink, 1, 1);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            stage.submit("a.json", new byte[0]);
+            assertThrows(IllegalStateException.class, () -> {
+                for (int i = 0; i < 100; i++) {
+                    stage.submit("b" + i + ".json", new byte[0]);
+                    Thread.sleep(10);
+                }
+            });
+            List<String> failures = stage.awaitCompletion();
+            assertEquals(1, failures.size(), failures::toString);
+            assertTrue(failures.get(0).startsWith("Failed to write a.json"), failures::toString);
+        });
+    }
+}
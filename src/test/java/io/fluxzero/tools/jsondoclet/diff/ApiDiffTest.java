@@ -0,0 +1,114 @@
+package io.fluxzero.tools.jsondoclet.diff;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import io.fluxzero.tools.jsondoclet.diff.ApiChange.AttributeChange;
+import io.fluxzero.tools.jsondoclet.model.DocumentationStrings;
+import io.fluxzero.tools.jsondoclet.sink.ArchiveSink;
+import io.fluxzero.tools.jsondoclet.util.JsonReader;
+import io.fluxzero.tools.jsondoclet.util.JsonWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Compares the golden sample output against a modified copy of itself.
+ */
+class ApiDiffTest {
+    private static final Path EXPECTED_ROOT = Path.of("src", "test", "resources", "example", "expected");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void identicalTreesHaveNoChanges() throws IOException {
+        List<ApiChange> changes = new ArrayList<>();
+        assertEquals(0, ApiDiff.compare(EXPECTED_ROOT, EXPECTED_ROOT, changes::add));
+        assertTrue(changes.isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reportsTypeAndMemberChanges() throws IOException {
+        Path newRoot = tempDir.resolve("new");
+        copyTree(EXPECTED_ROOT, newRoot);
+        Path packageDir = newRoot.resolve("com/example");
+
+        Map<String, Object> greeter = (Map<String, Object>) JsonReader.readTree(packageDir.resolve("Greeter.json"));
+        Map<String, Object> greet = ((List<Map<String, Object>>) greeter.get("methods")).get(0);
+        greet.put("returnType", "java.lang.CharSequence");
+        greeter.put("constructors", List.of());
+        JsonWriter.write(packageDir.resolve("Greeter.json"), greeter, true);
+
+        Map<String, Object> index = (Map<String, Object>) JsonReader.readTree(packageDir.resolve("index.json"));
+        List<Map<String, Object>> files = (List<Map<String, Object>>) index.get("files");
+        files.removeIf(file -> "Outer.Inner.json".equals(file.get("file")));
+        JsonWriter.write(packageDir.resolve("index.json"), index, true);
+        Files.delete(packageDir.resolve("Outer.Inner.json"));
+
+        List<ApiChange> changes = new ArrayList<>();
+        assertEquals(3, ApiDiff.compare(EXPECTED_ROOT, newRoot, changes::add));
+        assertEquals(List.of(
+                new ApiChange(ApiChange.REMOVED, "constructor", "com.example.Greeter#Greeter", "Greeter()", List.of()),
+                new ApiChange(ApiChange.CHANGED, "method", "com.example.Greeter#greet", "greet(java.lang.String)",
+                        List.of(new AttributeChange("returnType", "java.lang.String", "java.lang.CharSequence"))),
+                new ApiChange(ApiChange.REMOVED, "class", "com.example.Outer$Inner", null, List.of())),
+                changes);
+    }
+
+    @Test
+    void readsArchivedOutput() throws IOException {
+        Path archive = tempDir.resolve("json-docs.zip");
+        try (ArchiveSink sink = new ArchiveSink(archive); var stream = Files.walk(EXPECTED_ROOT)) {
+            for (Path file : stream.filter(Files::isRegularFile).toList()) {
+                sink.write(EXPECTED_ROOT.relativize(file).toString().replace('\\', '/'), Files.readAllBytes(file));
+            }
+        }
+
+        assertEquals(0, ApiDiff.compare(EXPECTED_ROOT, archive, change -> fail("Unexpected change " + change)));
+        assertEquals(0, ApiDiff.compare(archive, EXPECTED_ROOT, change -> fail("Unexpected change " + change)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void comparesDeduplicatedDocumentationByText() throws IOException {
+        Path newRoot = tempDir.resolve("new");
+        copyTree(EXPECTED_ROOT, newRoot);
+        Path greeterFile = newRoot.resolve("com/example/Greeter.json");
+        Map<String, Object> greeter = (Map<String, Object>) JsonReader.readTree(greeterFile);
+        String oldText = (String) greeter.get("documentation");
+        greeter.put("documentation", "k1");
+        JsonWriter.write(greeterFile, greeter, true);
+        Path stringsFile = newRoot.resolve("doc-strings.json");
+        JsonWriter.write(stringsFile, new DocumentationStrings("sha-256", Map.of("k1", oldText)), true);
+
+        assertEquals(0, ApiDiff.compare(EXPECTED_ROOT, newRoot, change -> fail("Unexpected change " + change)));
+
+        JsonWriter.write(stringsFile, new DocumentationStrings("sha-256", Map.of("k1", " Friendlier greeter.\n")), true);
+        List<ApiChange> changes = new ArrayList<>();
+        assertEquals(1, ApiDiff.compare(EXPECTED_ROOT, newRoot, changes::add));
+        assertEquals(List.of(new ApiChange(ApiChange.CHANGED, "class", "com.example.Greeter", null,
+                List.of(new AttributeChange("documentation", oldText, " Friendlier greeter.\n")))), changes);
+    }
+
+    private void copyTree(Path sourceRoot, Path targetRoot) throws IOException {
+        try (var stream = Files.walk(sourceRoot)) {
+            for (Path source : stream.toList()) {
+                Path destination = targetRoot.resolve(sourceRoot.relativize(source).toString());
+                if (Files.isDirectory(source)) {
+                    Files.createDirectories(destination);
+                } else {
+                    Files.copy(source, destination, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package io.fluxzero.tools.jsondoclet.reader;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.fluxzero.tools.jsondoclet.model.DirectoryIndex;
+import io.fluxzero.tools.jsondoclet.model.TypeDocumentation;
+import io.fluxzero.tools.jsondoclet.util.JsonWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Reads the golden sample output back into model records.
+ */
+class DocumentationReaderTest {
+    private static final Path EXPECTED_ROOT = Path.of("src", "test", "resources", "example", "expected");
+
+    @Test
+    void typesRoundTripThroughWriter() throws IOException {
+        DocumentationReader reader = DocumentationReader.of(EXPECTED_ROOT);
+        List<Path> files = reader.typeFiles().toList();
+        assertEquals(List.of(Path.of("com/example/Greeter.json"),
+                Path.of("com/example/Outer.json"),
+                Path.of("com/example/Outer.Inner.json")), files);
+
+        for (Path file : files) {
+            TypeDocumentation type = reader.readType(file);
+            assertArrayEquals(Files.readAllBytes(EXPECTED_ROOT.resolve(file)), JsonWriter.toBytes(type, true),
+                    "Round trip mismatch for " + file);
+        }
+        DirectoryIndex index = reader.readIndex(Path.of("com/example"));
+        assertArrayEquals(Files.readAllBytes(EXPECTED_ROOT.resolve("com/example/index.json")),
+                JsonWriter.toBytes(index, true));
+    }
+
+    @Test
+    void skippedPropertiesAreNotMaterialized() {
+        List<TypeDocumentation> types = DocumentationReader.of(EXPECTED_ROOT)
+                .skipping("documentation")
+                .types()
+                .toList();
+
+        assertEquals(3, types.size());
+        types.forEach(type -> {
+            assertNull(type.documentation());
+            type.methods().forEach(method -> assertNull(method.documentation()));
+        });
+        assertEquals("greet", types.get(0).methods().get(0).name());
+    }
+}
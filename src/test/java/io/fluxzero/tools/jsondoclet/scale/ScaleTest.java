@@ -0,0 +1,139 @@
+package io.fluxzero.tools.jsondoclet.scale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.fluxzero.tools.jsondoclet.JsonDoclet;
+import io.fluxzero.tools.jsondoclet.util.JsonWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.tools.DocumentationTool;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the doclet against a large generated source tree and enforces upper bounds on heap and time.
+ * <p>
+ * Excluded from the default build; run with {@code mvn test -Pscale}. Sizes and bounds can be tuned with
+ * {@code -Djsondoclet.scale.*} properties, and the measured numbers are written to
+ * {@code build/scale-reports}.
+ * <p>
+ * The default bounds grow with the number of types. They derive from a baseline of 215 MB / 10 s at 2,000 types
+ * and 839 MB / 28 s at 10,000 types (about 0.08 MB and 2.3 ms per type), leaving roughly 60% headroom on heap
+ * and 100% on time for slower machines.
+ */
+@Tag("scale")
+class ScaleTest {
+    private static final Path GENERATED_ROOT = Path.of("build", "test-generated", "scale");
+    private static final Path REPORT_ROOT = Path.of("build", "scale-reports");
+    private static final int BASE_HEAP_MB = 128;
+    private static final int TYPES_PER_HEAP_MB = 8;
+    private static final int BASE_SECONDS = 15;
+    private static final int MILLIS_PER_TYPE = 5;
+
+    @Test
+    void staysWithinHeapAndTimeBudgets() throws Exception {
+        int types = intProperty("types", 10_000);
+        SyntheticProjectGenerator generator = new SyntheticProjectGenerator(types,
+                intProperty("typesPerPackage", 100),
+                intProperty("methodsPerType", 10),
+                intProperty("nestingDepth", 8),
+                intProperty("largeTypeMethods", 2_000),
+                intProperty("hugeMethodStatements", 20_000));
+        long maxHeapMb = intProperty("maxHeapMb", BASE_HEAP_MB + types / TYPES_PER_HEAP_MB);
+        long maxSeconds = intProperty("maxSeconds", BASE_SECONDS + types * MILLIS_PER_TYPE / 1000);
+
+        deleteDirectory(GENERATED_ROOT);
+        List<Path> sources = generator.generate(GENERATED_ROOT.resolve("src"));
+        Path outputDir = GENERATED_ROOT.resolve("actual");
+
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        long start = System.nanoTime();
+        runDoclet(sources, outputDir);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        long peakHeapMb = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum() / (1024 * 1024);
+
+        long typeFiles = countTypeFiles(outputDir);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("types", types);
+        report.put("sourceFiles", sources.size());
+        report.put("typeFiles", typeFiles);
+        report.put("elapsedMillis", elapsedMillis);
+        report.put("peakHeapMb", peakHeapMb);
+        report.put("maxHeapMb", maxHeapMb);
+        report.put("maxSeconds", maxSeconds);
+        Files.createDirectories(REPORT_ROOT);
+        JsonWriter.write(REPORT_ROOT.resolve("scale-" + types + ".json"), report, true);
+
+        assertEquals(generator.expectedTypeFiles(), typeFiles, "Unexpected number of type files");
+        assertTrue(peakHeapMb <= maxHeapMb, "Peak heap " + peakHeapMb + " MB exceeds " + maxHeapMb + " MB");
+        assertTrue(elapsedMillis <= maxSeconds * 1000, "Run took " + elapsedMillis + " ms, budget " + maxSeconds + " s");
+    }
+
+    private void runDoclet(List<Path> sources, Path outputDir) throws IOException {
+        DocumentationTool docTool = ToolProvider.getSystemDocumentationTool();
+        assertNotNull(docTool, "System documentation tool is not available");
+
+        try (StandardJavaFileManager fileManager = docTool.getStandardFileManager(null, null, null)) {
+            Iterable<? extends JavaFileObject> compilationUnits = fileManager.getJavaFileObjectsFromPaths(sources);
+
+            List<String> options = new ArrayList<>();
+            options.add("-docletpath");
+            options.add(System.getProperty("java.class.path"));
+            options.add("-doclet");
+            options.add(JsonDoclet.class.getName());
+            options.add("-d");
+            options.add(outputDir.toString());
+            options.add("-quiet");
+            options.addAll(List.of(System.getProperty("jsondoclet.scale.options", "").split("\\s+")).stream()
+                    .filter(option -> !option.isBlank())
+                    .toList());
+
+            DocumentationTool.DocumentationTask task =
+                    docTool.getTask(null, fileManager, null, null, options, compilationUnits);
+            assertTrue(task.call(), "Doclet invocation failed");
+        }
+    }
+
+    private long countTypeFiles(Path outputDir) throws IOException {
+        try (var stream = Files.walk(outputDir)) {
+            return stream.filter(Files::isRegularFile)
+                    .filter(path -> !path.getFileName().toString().equals("index.json"))
+                    .count();
+        }
+    }
+
+    private void deleteDirectory(Path root) throws IOException {
+        if (!Files.exists(root)) {
+            return;
+        }
+        try (var stream = Files.walk(root)) {
+            for (Path path : stream.sorted((a, b) -> b.compareTo(a)).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static int intProperty(String name, int defaultValue) {
+        return Integer.getInteger("jsondoclet.scale." + name, defaultValue);
+    }
+}
@@ -0,0 +1,137 @@
+package io.fluxzero.tools.jsondoclet.scale;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a synthetic Java source tree used to exercise the doclet at scale.
+ * <p>
+ * The generated tree spreads {@code typeCount} top-level types over packages of {@code typesPerPackage}.
+ * Every tenth type carries a chain of {@code nestingDepth} nested types, and one type per tree contains
+ * {@code largeTypeMethods} methods plus a method with {@code hugeMethodStatements} statements. Types extend
+ * their predecessor within a package so inheritance chains grow with package size.
+ */
+final class SyntheticProjectGenerator {
+    private final int typeCount;
+    private final int typesPerPackage;
+    private final int methodsPerType;
+    private final int nestingDepth;
+    private final int largeTypeMethods;
+    private final int hugeMethodStatements;
+
+    SyntheticProjectGenerator(int typeCount,
+            int typesPerPackage,
+            int methodsPerType,
+            int nestingDepth,
+            int largeTypeMethods,
+            int hugeMethodStatements) {
+        this.typeCount = typeCount;
+        this.typesPerPackage = typesPerPackage;
+        this.methodsPerType = methodsPerType;
+        this.nestingDepth = nestingDepth;
+        this.largeTypeMethods = largeTypeMethods;
+        this.hugeMethodStatements = hugeMethodStatements;
+    }
+
+    /**
+     * Number of type files the doclet is expected to emit for the generated tree.
+     */
+    int expectedTypeFiles() {
+        int nestedOwners = (typeCount + 9) / 10;
+        return typeCount + nestedOwners * nestingDepth + 1;
+    }
+
+    /**
+     * Generates the tree below {@code sourceRoot} and returns the written source files.
+     */
+    List<Path> generate(Path sourceRoot) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < typeCount; i++) {
+            String packageName = packageName(i / typesPerPackage);
+            String typeName = "Type" + i;
+            String superType = i % typesPerPackage == 0 ? null : "Type" + (i - 1);
+            files.add(write(sourceRoot, packageName, typeName, regularType(packageName, typeName, superType, i)));
+        }
+        files.add(write(sourceRoot, packageName(0), "LargeType", largeType(packageName(0))));
+        return files;
+    }
+
+    private String regularType(String packageName, String typeName, String superType, int index) {
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(packageName).append(";\n\n");
+        source.append("/**\n * Synthetic type ").append(index).append(".\n */\n");
+        source.append("public class ").append(typeName);
+        if (superType != null) {
+            source.append(" extends ").append(superType);
+        }
+        source.append(" implements java.io.Serializable {\n");
+        source.append("    /** Shared constant. */\n");
+        source.append("    public static final int CONSTANT_").append(index).append(" = ").append(index).append(";\n\n");
+        for (int m = 0; m < methodsPerType; m++) {
+            appendMethod(source, "    ", "method" + index + "_" + m, m);
+        }
+        if (index % 10 == 0) {
+            appendNested(source, "    ", 1);
+        }
+        source.append("}\n");
+        return source.toString();
+    }
+
+    private void appendNested(StringBuilder source, String indent, int level) {
+        if (level > nestingDepth) {
+            return;
+        }
+        source.append(indent).append("/** Nested level ").append(level).append(". */\n");
+        source.append(indent).append("public static class Nested").append(level).append(" {\n");
+        appendMethod(source, indent + "    ", "nested" + level, level);
+        appendNested(source, indent + "    ", level + 1);
+        source.append(indent).append("}\n");
+    }
+
+    private String largeType(String packageName) {
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(packageName).append(";\n\n");
+        source.append("/**\n * Synthetic type with many and very large methods.\n */\n");
+        source.append("public class LargeType {\n");
+        for (int m = 0; m < largeTypeMethods; m++) {
+            appendMethod(source, "    ", "member" + m, m);
+        }
+        source.append("    /** Method with a very long body. */\n");
+        source.append("    public long hugeMethod(long seed) {\n");
+        source.append("        long value = seed;\n");
+        for (int s = 0; s < hugeMethodStatements; s++) {
+            source.append("        value = value * 31 + ").append(s).append(";\n");
+        }
+        source.append("        return value;\n    }\n}\n");
+        return source.toString();
+    }
+
+    private void appendMethod(StringBuilder source, String indent, String name, int seed) {
+        source.append(indent).append("/**\n");
+        source.append(indent).append(" * Returns a derived value.\n");
+        source.append(indent).append(" *\n");
+        source.append(indent).append(" * @param input value to derive from\n");
+        source.append(indent).append(" * @return derived value\n");
+        source.append(indent).append(" */\n");
+        source.append(indent).append("public java.util.List<String> ").append(name)
+                .append("(java.util.Map<String, Integer> input) {\n");
+        source.append(indent).append("    return java.util.List.of(String.valueOf(input.size() + ")
+                .append(seed).append("));\n");
+        source.append(indent).append("}\n\n");
+    }
+
+    private Path write(Path sourceRoot, String packageName, String typeName, String content) throws IOException {
+        Path directory = sourceRoot.resolve(packageName.replace('.', '/'));
+        Files.createDirectories(directory);
+        Path file = directory.resolve(typeName + ".java");
+        Files.writeString(file, content);
+        return file;
+    }
+
+    private static String packageName(int index) {
+        return "com.example.synthetic.p" + index;
+    }
+}
@@ -0,0 +1,83 @@
+package io.fluxzero.tools.jsondoclet.sink;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks that the target directory only ever holds the complete old or the complete new output.
+ */
+class AtomicDirectorySinkTest {
+
+    @Test
+    void commitReplacesTheTargetDirectory(@TempDir Path tempDir) throws IOException {
+        Path target = existingOutput(tempDir);
+        try (AtomicDirectorySink sink = new AtomicDirectorySink(target)) {
+            sink.createDirectories("com/example");
+            sink.write("com/example/Greeter.json", bytes("new"));
+            sink.write("index.json", bytes("{}"));
+            assertEquals("old", Files.readString(target.resolve("com/example/Greeter.json")));
+
+            sink.commit();
+        }
+
+        assertEquals("new", Files.readString(target.resolve("com/example/Greeter.json")));
+        assertTrue(Files.notExists(target.resolve("stale.json")));
+        assertEquals(List.of(target), siblings(tempDir));
+    }
+
+    @Test
+    void closingWithoutCommitKeepsThePreviousOutput(@TempDir Path tempDir) throws IOException {
+        Path target = existingOutput(tempDir);
+        try (AtomicDirectorySink sink = new AtomicDirectorySink(target)) {
+            sink.createDirectories("com/example");
+            sink.write("com/example/Greeter.json", bytes("partial"));
+        }
+
+        assertEquals("old", Files.readString(target.resolve("com/example/Greeter.json")));
+        assertTrue(Files.exists(target.resolve("stale.json")));
+        assertEquals(List.of(target), siblings(tempDir));
+    }
+
+    @Test
+    void preservedFilesSurviveClosingWithoutCommit(@TempDir Path tempDir) throws IOException {
+        Path target = existingOutput(tempDir);
+        Path kept;
+        try (AtomicDirectorySink sink = new AtomicDirectorySink(target)) {
+            sink.write("errors.json", bytes("report"));
+            kept = sink.preserve("errors.json");
+            assertNull(sink.preserve("missing.json"));
+        }
+
+        assertEquals(target.resolveSibling("json-docs.errors.json"), kept);
+        assertEquals("report", Files.readString(kept));
+        assertTrue(Files.notExists(target.resolve("errors.json")));
+        assertEquals(List.of(target, kept), siblings(tempDir).stream().sorted().toList());
+    }
+
+    private static Path existingOutput(Path tempDir) throws IOException {
+        Path target = tempDir.resolve("json-docs").toAbsolutePath();
+        Files.createDirectories(target.resolve("com/example"));
+        Files.writeString(target.resolve("com/example/Greeter.json"), "old");
+        Files.writeString(target.resolve("stale.json"), "old");
+        return target;
+    }
+
+    private static List<Path> siblings(Path tempDir) throws IOException {
+        try (var stream = Files.list(tempDir)) {
+            return stream.map(Path::toAbsolutePath).toList();
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
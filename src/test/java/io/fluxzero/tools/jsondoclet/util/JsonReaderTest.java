@@ -0,0 +1,33 @@
+package io.fluxzero.tools.jsondoclet.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that numbers are read back with the narrowest boxed type that holds them.
+ */
+class JsonReaderTest {
+
+    @Test
+    void readsIntSizedNumbersAsIntegerAndLargerOnesAsLong() throws IOException {
+        try (JsonReader reader = new JsonReader(new StringReader(
+                "[0, -1, 2147483647, -2147483648, 2147483648, -2147483649, 9223372036854775807, 1.5]"))) {
+            assertEquals(List.of(0, -1, Integer.MAX_VALUE, Integer.MIN_VALUE,
+                    2147483648L, -2147483649L, Long.MAX_VALUE, 1.5), reader.readValue());
+        }
+    }
+
+    @Test
+    void nextNumberKeepsTheBoxedType() throws IOException {
+        try (JsonReader reader = new JsonReader(new StringReader("[42, 4294967296]"))) {
+            reader.beginArray();
+            assertEquals(Integer.class, reader.nextNumber().getClass());
+            assertEquals(Long.class, reader.nextNumber().getClass());
+            reader.endArray();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package io.fluxzero.tools.jsondoclet.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that every array and list shape is written identically in both output styles.
+ */
+class JsonWriterTest {
+
+    @Test
+    void writesPrimitiveArraysWithoutChangingTheirRepresentation() {
+        assertEquals("[1,-2,2147483647]", compact(new int[] {1, -2, Integer.MAX_VALUE}));
+        assertEquals("[0,-9223372036854775808,9223372036854775807]",
+                compact(new long[] {0, Long.MIN_VALUE, Long.MAX_VALUE}));
+        assertEquals("[-128,7]", compact(new byte[] {Byte.MIN_VALUE, 7}));
+        assertEquals("[-32768,10]", compact(new short[] {Short.MIN_VALUE, 10}));
+        assertEquals("[true,false]", compact(new boolean[] {true, false}));
+        assertEquals("[\"a\",\"\\\"\",\"\\n\",\"\\u0001\",\"é\"]",
+                compact(new char[] {'a', '"', '\n', '\u0001', 'é'}));
+        assertEquals("[1.5,-0.0]", compact(new double[] {1.5, -0.0}));
+        assertEquals("[2.5]", compact(new float[] {2.5f}));
+        assertEquals("[ 1, 2 ]", pretty(new int[] {1, 2}));
+        assertEquals("[ ]", pretty(new int[0]));
+        assertEquals("[]", compact(new double[0]));
+    }
+
+    @Test
+    void writesListsIterablesAndObjectArraysAlike() {
+        List<Object> values = List.of("x", 1, 2L, true, 'c');
+        String expectedCompact = "[\"x\",1,2,true,\"c\"]";
+        String expectedPretty = "[ \"x\", 1, 2, true, \"c\" ]";
+
+        for (Object shape : List.of(values, new LinkedList<>(values), new ArrayDeque<>(values), values.toArray())) {
+            assertEquals(expectedCompact, compact(shape), shape.getClass().getName());
+            assertEquals(expectedPretty, pretty(shape), shape.getClass().getName());
+        }
+        assertEquals("[]", compact(new LinkedList<>()));
+        assertEquals("[ ]", pretty(List.of()));
+    }
+
+    @Test
+    void writesNestedContainersInBothStyles() {
+        Map<String, Object> value = Map.of("values", List.of(new int[] {3}, List.of()));
+
+        assertEquals("{\"values\":[[3],[]]}", compact(value));
+        assertEquals("{\n  \"values\" : [ [ 3 ], [ ] ]\n}", pretty(value));
+    }
+
+    private static String compact(Object value) {
+        return write(value, false);
+    }
+
+    private static String pretty(Object value) {
+        return write(value, true);
+    }
+
+    private static String write(Object value, boolean pretty) {
+        String json = new String(JsonWriter.toBytes(value, pretty), StandardCharsets.UTF_8);
+        return json.substring(0, json.length() - 1);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.constants;
+
+/**
+ * Constants of every literal kind and a few uses of {@link Retry}.
+ */
+public class Limits {
+
+    /**
+     * Largest batch.
+     */
+    public static final long MAX_BATCH = 10L;
+
+    /**
+     * Separator character.
+     */
+    public static final char SEPARATOR = '\t';
+
+    /**
+     * Load factor.
+     */
+    public static final float LOAD = 0.75f;
+
+    /**
+     * Greeting text.
+     */
+    public static final String GREETING = "Hello \"world\"";
+
+    /**
+     * Not a compile-time constant.
+     */
+    public static final Object LOCK = new Object();
+
+    /**
+     * Retried with all defaults.
+     */
+    @Retry
+    public void fetch() {
+    }
+
+    /**
+     * Retried with an explicit attempt count.
+     */
+    @Retry(attempts = 5, label = "store")
+    public void store() {
+    }
+}
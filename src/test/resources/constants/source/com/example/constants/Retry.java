@@ -0,0 +1,39 @@
+package com.example.constants;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Retry policy with defaults for every element.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.FIELD})
+public @interface Retry {
+
+    /**
+     * Maximum number of attempts.
+     */
+    int attempts() default 3;
+
+    /**
+     * Delay between attempts in milliseconds.
+     */
+    long delay() default 100L;
+
+    /**
+     * Exceptions that trigger a retry.
+     */
+    Class<? extends Throwable>[] on() default {RuntimeException.class};
+
+    /**
+     * Label shown in logs.
+     */
+    String label() default "retry";
+
+    /**
+     * Unit of {@link #delay()}.
+     */
+    java.util.concurrent.TimeUnit unit() default java.util.concurrent.TimeUnit.MILLISECONDS;
+}
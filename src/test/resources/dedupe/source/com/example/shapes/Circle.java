@@ -0,0 +1,14 @@
+package com.example.shapes;
+
+/**
+ * Round shape.
+ */
+public class Circle {
+
+    /**
+     * Returns the area in square units.
+     */
+    public double area() {
+        return 0;
+    }
+}
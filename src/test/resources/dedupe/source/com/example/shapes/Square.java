@@ -0,0 +1,14 @@
+package com.example.shapes;
+
+/**
+ * Shape with four equal sides.
+ */
+public class Square {
+
+    /**
+     * Returns the area in square units.
+     */
+    public double area() {
+        return 0;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.generics;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Holds a number.
+ *
+ * @param <T> type of the number
+ */
+public class Box<T extends Number> {
+
+    /**
+     * Returns the number.
+     */
+    public T get() {
+        return null;
+    }
+
+    /**
+     * Maps the number.
+     */
+    public <U> U map(Function<? super T, ? extends U> mapper) {
+        return null;
+    }
+
+    /**
+     * Returns the first value; its {@code T} shadows the one of the class.
+     */
+    public <T> T first(List<T> values) {
+        return null;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.generics;
+
+import java.util.List;
+
+/**
+ * Has names.
+ *
+ * @param <T> type of the names
+ */
+public interface Named<T extends CharSequence> {
+
+    /**
+     * Returns the names.
+     */
+    List<T> names();
+}
@@ -0,0 +1,11 @@
+package com.example.greetings;
+
+/**
+ * Service producing greetings.
+ */
+public interface Greeting {
+    /**
+     * Greets {@code name}.
+     */
+    String greet(String name);
+}
@@ -0,0 +1,13 @@
+package com.example.greetings.internal;
+
+import com.example.greetings.Greeting;
+
+/**
+ * Default greeting implementation.
+ */
+public class DefaultGreeting implements Greeting {
+    @Override
+    public String greet(String name) {
+        return "Hello " + name;
+    }
+}
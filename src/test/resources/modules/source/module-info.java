@@ -0,0 +1,12 @@
+/**
+ * Greetings module used by the module layout smoke test.
+ */
+module com.example.greetings {
+    requires transitive java.logging;
+
+    exports com.example.greetings;
+    opens com.example.greetings.internal to java.logging;
+
+    uses com.example.greetings.Greeting;
+    provides com.example.greetings.Greeting with com.example.greetings.internal.DefaultGreeting;
+}
@@ -0,0 +1,30 @@
+package com.example.positions;
+
+/**
+ * Shapes whose declarations end after braces inside literals and lambdas.
+ */
+public class Shapes {
+    /** A template with braces inside a text block. */
+    public static final String TEMPLATE = """
+            { "shape": "}" }
+            """;
+
+    /** Does nothing. */
+    public static final Runnable NOOP = () -> {
+    };
+
+    /** Returns the shape name. */
+    public String name() {
+        return "{";
+    }
+}
+
+/**
+ * Helper declared next to {@link Shapes}.
+ */
+class ShapeHelper {
+    /** Returns the number of sides. */
+    int sides() {
+        return 0;
+    }
+}
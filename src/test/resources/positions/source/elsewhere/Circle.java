@@ -0,0 +1,7 @@
+package com.example.positions;
+
+/**
+ * A shape stored outside its package directory.
+ */
+public record Circle(double radius) {
+}
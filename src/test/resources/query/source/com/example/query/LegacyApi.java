@@ -0,0 +1,58 @@
+package com.example.query;
+
+import java.io.IOException;
+
+/**
+ * API with elements for every query index.
+ *
+ * @since 3.1
+ */
+public class LegacyApi {
+
+    /**
+     * Old entry point.
+     *
+     * @deprecated use {@link #load(String)}
+     * @since 3.1
+     */
+    @Deprecated(since = "3.2", forRemoval = true)
+    public void open() {
+    }
+
+    /**
+     * Loads a resource.
+     *
+     * @param name resource name
+     * @throws IOException when the resource cannot be read
+     * @since 3.2
+     */
+    public void load(String name) throws IOException {
+    }
+
+    /**
+     * Kept for compatibility.
+     */
+    @Deprecated
+    protected int legacyCount;
+
+    /**
+     * Clears cached resources.
+     *
+     * @deprecated caches are cleared automatically
+     */
+    public void reset() {
+    }
+
+    /**
+     * Listener of the first release.
+     *
+     * @deprecated use {@link Callback}
+     */
+    public interface Listener {
+    }
+
+    @FunctionalInterface
+    public interface Callback {
+        void call() throws IOException;
+    }
+}